@@ -0,0 +1,3 @@
+#!/bin/sh
+# Let the read replica (db-replica in docker-compose) stream WAL from this primary
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,44 @@
+package net.dzakirin.benchmarks;
+
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.template.EmailTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of the order confirmation email, rendered once per consumed order event.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailTemplateBenchmark {
+
+    @Param({"1", "10", "200"})
+    private int lines;
+
+    private OrderEvent orderEvent;
+
+    @Setup
+    public void setUp() {
+        orderEvent = Fixtures.orderEvent(lines);
+    }
+
+    @Benchmark
+    public String orderConfirmationTemplate() {
+        return EmailTemplate.orderConfirmationTemplate(orderEvent, orderEvent.getTotalAmount());
+    }
+}
@@ -0,0 +1,25 @@
+package net.dzakirin.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import net.dzakirin.common.codec.SmileEventCodec;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+import org.springframework.kafka.support.JacksonUtils;
+
+/**
+ * Bytes per order-data-changed event in JSON, as Spring Kafka's JsonSerializer writes it, and with the Smile codec,
+ * at the line counts of the benchmarks. Run with: java -cp target/benchmarks.jar net.dzakirin.benchmarks.EventSizes
+ */
+public class EventSizes {
+
+    public static void main(String[] args) throws JsonProcessingException {
+        SmileEventCodec smileCodec = new SmileEventCodec();
+        System.out.printf("%6s %10s %10s %7s%n", "lines", "json", "smile", "ratio");
+        for (int lines : new int[]{1, 10, 200}) {
+            EventWrapper<OrderEvent> eventWrapper = Fixtures.eventWrapper(lines);
+            int json = JacksonUtils.enhancedObjectMapper().writeValueAsBytes(eventWrapper).length;
+            int smile = smileCodec.encode(eventWrapper).length;
+            System.out.printf("%6d %10d %10d %7.2f%n", lines, json, smile, (double) smile / json);
+        }
+    }
+}
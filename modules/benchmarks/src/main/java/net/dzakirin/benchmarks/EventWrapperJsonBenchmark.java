@@ -0,0 +1,61 @@
+package net.dzakirin.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON of the order-data-changed envelope, written and read with the ObjectMapper of Spring Kafka's JsonSerializer and
+ * JsonDeserializer. Reading includes the conversion of the payload to an OrderEvent every consumer does with the
+ * application's ObjectMapper.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventWrapperJsonBenchmark {
+
+    @Param({"1", "10", "200"})
+    private int lines;
+
+    private final ObjectMapper kafkaObjectMapper = JacksonUtils.enhancedObjectMapper();
+    private final ObjectMapper applicationObjectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private EventWrapper<OrderEvent> eventWrapper;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        eventWrapper = Fixtures.eventWrapper(lines);
+        json = kafkaObjectMapper.writeValueAsBytes(eventWrapper);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return kafkaObjectMapper.writeValueAsBytes(eventWrapper);
+    }
+
+    @Benchmark
+    public OrderEvent deserialize() throws IOException {
+        EventWrapper<?> event = kafkaObjectMapper.readValue(json, EventWrapper.class);
+        return applicationObjectMapper.convertValue(event.getPayload(), OrderEvent.class);
+    }
+}
@@ -0,0 +1,55 @@
+package net.dzakirin.benchmarks;
+
+import net.dzakirin.common.codec.SmileEventCodec;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The order-data-changed envelope written and read with the Smile codec, the counterpart of
+ * {@link EventWrapperJsonBenchmark}. Reading decodes the payload straight to an OrderEvent, so there is no second
+ * conversion. {@link EventSizes} prints the bytes per event of both formats.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventWrapperSmileBenchmark {
+
+    @Param({"1", "10", "200"})
+    private int lines;
+
+    private final SmileEventCodec codec = new SmileEventCodec();
+    private EventWrapper<OrderEvent> eventWrapper;
+    private byte[] smile;
+
+    @Setup
+    public void setUp() {
+        eventWrapper = Fixtures.eventWrapper(lines);
+        smile = codec.encode(eventWrapper);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return codec.encode(eventWrapper);
+    }
+
+    @Benchmark
+    public OrderEvent deserialize() {
+        return codec.decode(smile, SmileEventCodec.SCHEMA_VERSION).getPayload();
+    }
+}
@@ -0,0 +1,93 @@
+package net.dzakirin.benchmarks;
+
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.mapper.OrderMapper;
+import net.dzakirin.model.Customer;
+import net.dzakirin.model.Order;
+import net.dzakirin.model.OrderProduct;
+import net.dzakirin.model.Product;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic orders, products and customers shaped like production data, so results compare across runs.
+ */
+public final class Fixtures {
+
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000);
+
+    private Fixtures() {
+    }
+
+    public static List<Product> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Product.builder()
+                        .id(new UUID(0x0195_9a1e_0000_7000L, i))
+                        .title("Stainless Steel Water Bottle " + i)
+                        .price(BigDecimal.valueOf(1_990 + i * 7L, 2))
+                        .stock(100 + i)
+                        .build())
+                .toList();
+    }
+
+    public static List<Customer> customers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Customer.builder()
+                        .id(new UUID(0x0195_9a1e_0001_7000L, i))
+                        .firstName("Customer")
+                        .lastName("Number " + i)
+                        .email("customer" + i + "@example.com")
+                        .build())
+                .toList();
+    }
+
+    /**
+     * An order with one line per product, 1 to 3 units each.
+     */
+    public static Order order(int lines) {
+        Order order = Order.builder()
+                .id(new UUID(0x0195_9a1e_0002_7000L, lines))
+                .customer(customers(1).get(0))
+                .orderDate(ORDER_DATE)
+                .build();
+        List<OrderProduct> orderProducts = products(lines).stream()
+                .map(product -> OrderProduct.builder()
+                        .order(order)
+                        .product(product)
+                        .quantity(1 + (int) (product.getId().getLeastSignificantBits() % 3))
+                        .unitPrice(product.getPrice())
+                        .orderDate(ORDER_DATE)
+                        .build())
+                .toList();
+        order.setOrderProducts(orderProducts);
+        order.setTotalAmount(orderProducts.stream()
+                .map(orderProduct -> orderProduct.getUnitPrice().multiply(BigDecimal.valueOf(orderProduct.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        return order;
+    }
+
+    public static OrderEvent orderEvent(int lines) {
+        return OrderMapper.toOrderEvent(order(lines));
+    }
+
+    /**
+     * The envelope as OrderDataChangedProducer builds it.
+     */
+    public static EventWrapper<OrderEvent> eventWrapper(int lines) {
+        OrderEvent orderEvent = orderEvent(lines);
+        return EventWrapper.<OrderEvent>builder()
+                .eventId(orderEvent.getId().toString())
+                .eventType("ORDER_CREATED")
+                .eventSource("order-management-service")
+                .timestamp(ORDER_DATE)
+                .createdAt(Instant.parse("2025-03-14T09:26:53.589Z"))
+                .payload(orderEvent)
+                .build();
+    }
+}
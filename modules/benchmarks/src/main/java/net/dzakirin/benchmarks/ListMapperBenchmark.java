@@ -0,0 +1,56 @@
+package net.dzakirin.benchmarks;
+
+import net.dzakirin.dto.response.CustomerResponse;
+import net.dzakirin.dto.response.ProductResponse;
+import net.dzakirin.mapper.CustomerMapper;
+import net.dzakirin.mapper.ProductMapper;
+import net.dzakirin.model.Customer;
+import net.dzakirin.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page conversions of the product and customer list endpoints, at the default page size and a large one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListMapperBenchmark {
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    private List<Product> products;
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        products = Fixtures.products(pageSize);
+        customers = Fixtures.customers(pageSize);
+    }
+
+    @Benchmark
+    public List<ProductResponse> productResponses() {
+        return ProductMapper.toResponseList(products);
+    }
+
+    @Benchmark
+    public List<CustomerResponse> customerResponses() {
+        return CustomerMapper.toResponseList(customers);
+    }
+}
@@ -0,0 +1,51 @@
+package net.dzakirin.benchmarks;
+
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.dto.response.OrderResponse;
+import net.dzakirin.mapper.OrderMapper;
+import net.dzakirin.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response and entity to event conversion of an order, done once per created or fetched order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMapperBenchmark {
+
+    @Param({"1", "10", "200"})
+    private int lines;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = Fixtures.order(lines);
+    }
+
+    @Benchmark
+    public OrderResponse toOrderResponse() {
+        return OrderMapper.toOrderResponse(order);
+    }
+
+    @Benchmark
+    public OrderEvent toOrderEvent() {
+        return OrderMapper.toOrderEvent(order);
+    }
+}
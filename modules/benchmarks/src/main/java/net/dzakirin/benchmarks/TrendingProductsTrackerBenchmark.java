@@ -0,0 +1,105 @@
+package net.dzakirin.benchmarks;
+
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.common.dto.event.OrderProductEvent;
+import net.dzakirin.trending.TrendingProductsTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Recording an order into the trending tracker, done once per order-data-changed event, and ranking the whole
+ * window. Orders of 1 to 3 lines draw from a million products with Zipf skew (exponent 1.1), so a few products are
+ * hot and most are seen once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrendingProductsTrackerBenchmark {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int EVENTS = 1 << 16;
+
+    private TrendingProductsTracker tracker;
+    private OrderEvent[] events;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        ZipfSampler zipf = new ZipfSampler(PRODUCTS, 1.1);
+        LocalDateTime orderDate = LocalDateTime.now();
+        events = IntStream.range(0, EVENTS)
+                .mapToObj(i -> OrderEvent.builder()
+                        .id(new UUID(0x0195_9a1e_0002_7000L, i))
+                        .orderDate(orderDate)
+                        .orderProducts(IntStream.range(0, 1 + random.nextInt(3))
+                                .mapToObj(line -> OrderProductEvent.builder()
+                                        .productId(new UUID(0x0195_9a1e_0000_7000L, zipf.sample(random)))
+                                        .quantity(1 + random.nextInt(3))
+                                        .build())
+                                .toList())
+                        .build())
+                .toArray(OrderEvent[]::new);
+
+        tracker = new TrendingProductsTracker(60, 100, 4, 4096);
+        for (OrderEvent event : events) {
+            tracker.record(event);
+        }
+    }
+
+    /**
+     * Orders recorded per second, the order-data-changed rate one replica can keep up with.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void record() {
+        tracker.record(events[next++ & (EVENTS - 1)]);
+    }
+
+    @Benchmark
+    public List<TrendingProductsTracker.Trend> top() {
+        return tracker.top(60, 100);
+    }
+
+    /**
+     * Index sampler with P(i) proportional to 1 / (i + 1)^exponent, by binary search over the cumulative weights.
+     */
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int size, double exponent) {
+            cumulative = new double[size];
+            double total = 0;
+            for (int i = 0; i < size; i++) {
+                total += 1 / Math.pow(i + 1, exponent);
+                cumulative[i] = total;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
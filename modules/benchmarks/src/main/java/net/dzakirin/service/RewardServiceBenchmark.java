@@ -0,0 +1,59 @@
+package net.dzakirin.service;
+
+import net.dzakirin.benchmarks.Fixtures;
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.model.LoyaltyRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order total and points math of {@link RewardService}, in its package to reach the package-private helpers. The
+ * total is summed from the lines as for events that do not carry it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RewardServiceBenchmark {
+
+    @Param({"1", "10", "200"})
+    private int lines;
+
+    private OrderEvent orderEvent;
+    private LoyaltyRules loyaltyRule;
+
+    @Setup
+    public void setUp() {
+        orderEvent = Fixtures.orderEvent(lines);
+        orderEvent.setTotalAmount(null);
+        loyaltyRule = LoyaltyRules.builder()
+                .minOrderAmount(new BigDecimal("50.00"))
+                .pointsAwarded(5)
+                .ruleActive(true)
+                .build();
+    }
+
+    @Benchmark
+    public BigDecimal orderTotal() {
+        return RewardService.getOrderTotal(orderEvent);
+    }
+
+    @Benchmark
+    public int loyaltyPoints() {
+        return RewardService.calculateLoyaltyPoints(RewardService.getOrderTotal(orderEvent), loyaltyRule);
+    }
+}
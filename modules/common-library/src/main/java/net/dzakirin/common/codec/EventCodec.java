@@ -0,0 +1,29 @@
+package net.dzakirin.common.codec;
+
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+
+/**
+ * Binary wire format of order events. The serializer names the codec and the schema version the bytes were written
+ * with in the record headers, so consumers pick the matching decoder and keep reading older versions.
+ */
+public interface EventCodec {
+
+    String CODEC_HEADER = "event-codec";
+    String SCHEMA_VERSION_HEADER = "event-schema-version";
+
+    /**
+     * Name of the codec in the event.codec setting and the event-codec header.
+     */
+    String name();
+
+    /**
+     * Version written by {@link #encode}. Bumped whenever a field is renamed, retyped or removed, while the decoder of
+     * the previous version is kept until no topic holds events written with it.
+     */
+    int schemaVersion();
+
+    byte[] encode(EventWrapper<OrderEvent> event);
+
+    EventWrapper<OrderEvent> decode(byte[] data, int schemaVersion);
+}
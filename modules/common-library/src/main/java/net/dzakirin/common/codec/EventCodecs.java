@@ -0,0 +1,25 @@
+package net.dzakirin.common.codec;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * The binary codecs by name. JSON is not among them: it stays with Spring Kafka's JsonSerializer and JsonDeserializer,
+ * byte for byte as before, so services that do not know the binary codecs keep reading it.
+ */
+@UtilityClass
+public class EventCodecs {
+
+    public static final String JSON = "json";
+
+    private static final Map<String, Supplier<EventCodec>> CODECS = Map.of(
+            SmileEventCodec.NAME, SmileEventCodec::new
+    );
+
+    public static Optional<EventCodec> forName(String name) {
+        return Optional.ofNullable(CODECS.get(name)).map(Supplier::get);
+    }
+}
@@ -0,0 +1,20 @@
+package net.dzakirin.common.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.experimental.UtilityClass;
+import net.dzakirin.common.dto.event.EventWrapper;
+
+@UtilityClass
+public class EventPayloads {
+
+    /**
+     * The payload as the given type. Binary codecs already decode it typed; JSON envelopes carry maps that are
+     * converted with the application's ObjectMapper.
+     */
+    public static <T> T convert(EventWrapper<?> event, Class<T> type, ObjectMapper objectMapper) {
+        if (type.isInstance(event.getPayload())) {
+            return type.cast(event.getPayload());
+        }
+        return objectMapper.convertValue(event.getPayload(), type);
+    }
+}
@@ -0,0 +1,61 @@
+package net.dzakirin.common.codec;
+
+import net.dzakirin.common.dto.event.OrderEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JsonDeserializer that decodes records carrying the codec header with that codec and schema version instead. Those
+ * envelopes hold a typed {@link OrderEvent} payload; JSON ones hold maps as before, see {@link EventPayloads}.
+ */
+public class EventWrapperDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+    private final Map<String, EventCodec> codecs = new ConcurrentHashMap<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        Header codecHeader = headers.lastHeader(EventCodec.CODEC_HEADER);
+        if (codecHeader == null || data == null) {
+            return jsonDeserializer.deserialize(topic, headers, data);
+        }
+        String name = new String(codecHeader.value(), StandardCharsets.UTF_8);
+        EventCodec codec = codecs.computeIfAbsent(name, codecName -> EventCodecs.forName(codecName)
+                .orElseThrow(() -> new SerializationException("Unknown event codec " + codecName)));
+        return codec.decode(data, schemaVersion(headers));
+    }
+
+    private static int schemaVersion(Headers headers) {
+        Header header = headers.lastHeader(EventCodec.SCHEMA_VERSION_HEADER);
+        if (header == null) {
+            throw new SerializationException("Event without " + EventCodec.SCHEMA_VERSION_HEADER + " header");
+        }
+        try {
+            return Integer.parseInt(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            throw new SerializationException("Invalid " + EventCodec.SCHEMA_VERSION_HEADER + " header", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
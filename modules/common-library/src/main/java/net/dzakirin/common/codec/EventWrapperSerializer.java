@@ -0,0 +1,68 @@
+package net.dzakirin.common.codec;
+
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * JsonSerializer that writes envelopes of order events with the codec named by the event.codec producer property
+ * instead, tagging the record with the codec and schema version headers. With event.codec=json (the default) and
+ * for every other payload the output is JsonSerializer's. Raw bytes, the value of a dead letter whose record could not
+ * be deserialized, are written unchanged.
+ * <p>
+ * Roll a binary codec out by deploying every consumer with {@link EventWrapperDeserializer} first, then switching
+ * the producer.
+ */
+public class EventWrapperSerializer implements Serializer<Object> {
+
+    public static final String CODEC_CONFIG = "event.codec";
+
+    private final JsonSerializer<Object> jsonSerializer = new JsonSerializer<>();
+    private EventCodec codec;
+    private byte[] codecHeader;
+    private byte[] schemaVersionHeader;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonSerializer.configure(configs, isKey);
+        Object configured = configs.get(CODEC_CONFIG);
+        String name = configured == null ? EventCodecs.JSON : configured.toString();
+        if (EventCodecs.JSON.equals(name)) {
+            return;
+        }
+        this.codec = EventCodecs.forName(name)
+                .orElseThrow(() -> new ConfigException(CODEC_CONFIG, name, "Unknown event codec"));
+        this.codecHeader = codec.name().getBytes(StandardCharsets.UTF_8);
+        this.schemaVersionHeader = String.valueOf(codec.schemaVersion()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return jsonSerializer.serialize(topic, data);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        if (codec == null || !(data instanceof EventWrapper<?> event) || !(event.getPayload() instanceof OrderEvent)) {
+            return jsonSerializer.serialize(topic, headers, data);
+        }
+        headers.add(EventCodec.CODEC_HEADER, codecHeader);
+        headers.add(EventCodec.SCHEMA_VERSION_HEADER, schemaVersionHeader);
+        return codec.encode((EventWrapper<OrderEvent>) event);
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
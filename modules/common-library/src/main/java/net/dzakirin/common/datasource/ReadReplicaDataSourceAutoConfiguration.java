@@ -0,0 +1,66 @@
+package net.dzakirin.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Primary and replica connection pools behind the read replica routing. The replica pool uses the primary's
+ * credentials; both report Hikari metrics tagged pool=primary|replica. Applied to every service that depends on this
+ * library; without datasource.replica.enabled Spring Boot's single pool is used instead.
+ */
+@AutoConfiguration(before = DataSourceAutoConfiguration.class)
+@ConditionalOnClass(HikariDataSource.class)
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReadReplicaDataSourceAutoConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${datasource.replica.url}") String url) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicationLagGuard replicationLagGuard(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                   @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                   MeterRegistry meterRegistry,
+                                                   @Value("${datasource.replica.max-lag-ms:1000}") long maxLagMs,
+                                                   @Value("${datasource.replica.check-interval-ms:250}") long checkIntervalMs) {
+        ReplicationLagGuard lagGuard = new ReplicationLagGuard(primaryDataSource, replicaDataSource, maxLagMs, checkIntervalMs, meterRegistry);
+        lagGuard.start();
+        return lagGuard;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicationLagGuard replicationLagGuard,
+                                 MeterRegistry meterRegistry) {
+        return new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicationLagGuard, meterRegistry).lazy();
+    }
+}
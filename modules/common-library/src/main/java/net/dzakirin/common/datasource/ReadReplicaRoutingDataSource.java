@@ -0,0 +1,127 @@
+package net.dzakirin.common.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends the connections of read-only transactions ({@code @Transactional(readOnly = true)}, which includes Spring Data
+ * repository reads outside a transaction) to the replica pool and everything else to the primary. Read-only work
+ * falls back to the primary while {@link ReplicationLagGuard} finds the replica too far behind or unreachable, and as
+ * soon as a replica connection cannot be obtained, which also takes the replica out until its next successful check.
+ * <p>
+ * The transaction manager fetches its connection before it marks the transaction read-only, so the routing only
+ * works behind a {@link LazyConnectionDataSourceProxy}, which {@link #lazy()} provides.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private enum Route {
+        READ_WRITE("primary", "read_write"),
+        PINNED("primary", "pinned"),
+        REPLICA_UNAVAILABLE("primary", "replica_unavailable"),
+        READ_ONLY("replica", "read_only");
+
+        private final String target;
+        private final String reason;
+
+        Route(String target, String reason) {
+            this.target = target;
+            this.reason = reason;
+        }
+    }
+
+    private final DataSource primary;
+    private final ReplicationLagGuard lagGuard;
+    private final Map<Route, Counter> connectionCounters = new EnumMap<>(Route.class);
+
+    public ReadReplicaRoutingDataSource(DataSource primary,
+                                        DataSource replica,
+                                        ReplicationLagGuard lagGuard,
+                                        MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.lagGuard = lagGuard;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        for (Route route : Route.values()) {
+            targetDataSources.put(route, route == Route.READ_ONLY ? replica : primary);
+            connectionCounters.put(route, Counter.builder("datasource.routing.connections")
+                    .tag("target", route.target)
+                    .tag("reason", route.reason)
+                    .description("Connections handed out by the read replica routing, by pool and why it was chosen")
+                    .register(meterRegistry));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run work whose reads must see the latest commits, e.g. to fill a cache, against the primary. Connections a
+     * surrounding transaction already holds are not affected.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            }
+        }
+    }
+
+    /**
+     * This data source behind a proxy that fetches the actual connection at the first statement, once the
+     * transaction's read-only flag is known.
+     */
+    public DataSource lazy() {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(this);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+        return proxy;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Route route = (Route) determineCurrentLookupKey();
+        Connection connection;
+        try {
+            connection = getResolvedDataSources().get(route).getConnection();
+        } catch (SQLException e) {
+            if (route != Route.READ_ONLY) {
+                throw e;
+            }
+            lagGuard.replicaFailed(e);
+            route = Route.REPLICA_UNAVAILABLE;
+            connection = primary.getConnection();
+        }
+        connectionCounters.get(route).increment();
+        return connection;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return Route.READ_WRITE;
+        }
+        if (PRIMARY_PINNED.get() != null) {
+            return Route.PINNED;
+        }
+        return lagGuard.isReplicaUsable() ? Route.READ_ONLY : Route.REPLICA_UNAVAILABLE;
+    }
+}
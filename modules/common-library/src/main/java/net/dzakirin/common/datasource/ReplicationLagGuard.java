@@ -0,0 +1,160 @@
+package net.dzakirin.common.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far a Postgres streaming replica is behind its primary every check-interval-ms, on a thread of its own.
+ * The replica is usable while it is at most max-lag-ms behind; it is not until the first check succeeds, nor while
+ * it cannot be reached or has not replayed a transaction since it started.
+ * <p>
+ * A replica that has replayed the primary's current WAL position is not behind at all. Otherwise two upper bounds are
+ * taken and the lower one is the lag: the age of the newest primary WAL position sampled by earlier checks that the
+ * replica has replayed, and the age of the last transaction it replayed. The first is only as fine as the check
+ * interval, the second overstates the lag while the primary writes WAL without committing, e.g. when vacuuming.
+ */
+@Slf4j
+public class ReplicationLagGuard implements AutoCloseable {
+
+    private static final int MAX_PENDING_POSITIONS = 100;
+    private static final String PRIMARY_WAL_POSITION = "SELECT CAST(pg_current_wal_lsn() - '0/0' AS bigint)";
+    private static final String REPLICA_STATE = """
+            SELECT pg_is_in_recovery(),
+                   CAST(pg_last_wal_replay_lsn() - '0/0' AS bigint),
+                   CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 AS bigint)""";
+
+    private record WalPosition(long timeMs, long position) {
+    }
+
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+    private final ScheduledExecutorService executor;
+    private final Deque<WalPosition> pendingPositions = new ArrayDeque<>();
+    private WalPosition replayed;
+
+    private volatile Long lagMs;
+    private volatile boolean replicaUsable;
+
+    public ReplicationLagGuard(DataSource primary,
+                               DataSource replica,
+                               long maxLagMs,
+                               long checkIntervalMs,
+                               MeterRegistry meterRegistry) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primary);
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-lag-guard");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("datasource.replica.lag", this, guard -> guard.lagMs == null ? Double.NaN : guard.lagMs)
+                .description("Milliseconds the replica is behind the primary, NaN while unknown")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, guard -> guard.replicaUsable ? 1 : 0)
+                .description("Whether read-only transactions go to the replica (1) or fall back to the primary (0)")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        executor.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public void check() {
+        Long measuredLagMs;
+        try {
+            measuredLagMs = measureLagMs();
+        } catch (Exception e) {
+            replicaFailed(e);
+            return;
+        }
+
+        boolean usable = measuredLagMs != null && measuredLagMs <= maxLagMs;
+        if (replicaUsable && measuredLagMs == null) {
+            log.warn("Replica has not replayed a transaction since it started, reads fall back to the primary");
+        } else if (replicaUsable && !usable) {
+            log.warn("Replica is {} ms behind, reads fall back to the primary", measuredLagMs);
+        } else if (!replicaUsable && usable) {
+            log.info("Replica is {} ms behind, reads go to the replica", measuredLagMs);
+        }
+        update(measuredLagMs, usable);
+    }
+
+    /**
+     * Take the replica out until the next check succeeds.
+     */
+    public void replicaFailed(Exception e) {
+        if (replicaUsable || lagMs != null) {
+            log.warn("Replica failed, reads fall back to the primary: {}", e.getMessage());
+        }
+        update(null, false);
+    }
+
+    /**
+     * @return milliseconds the replica is behind, null while unknown
+     */
+    protected Long measureLagMs() {
+        long timeMs = System.currentTimeMillis();
+        Long primaryPosition = primaryJdbcTemplate.queryForObject(PRIMARY_WAL_POSITION, Long.class);
+        return replicaJdbcTemplate.queryForObject(REPLICA_STATE, (resultSet, rowNum) -> resultSet.getBoolean(1)
+                ? lagMs(timeMs, primaryPosition, resultSet.getObject(2, Long.class), resultSet.getObject(3, Long.class))
+                : 0L);
+    }
+
+    /**
+     * Only called from the checks, which run one at a time.
+     */
+    Long lagMs(long timeMs, long primaryPosition, Long replayedPosition, Long lastReplayedAgeMs) {
+        if (replayedPosition == null) {
+            return null;
+        }
+        WalPosition current = new WalPosition(timeMs, primaryPosition);
+        if (replayedPosition >= primaryPosition) {
+            pendingPositions.clear();
+            replayed = current;
+            return 0L;
+        }
+
+        while (!pendingPositions.isEmpty() && pendingPositions.peekFirst().position() <= replayedPosition) {
+            replayed = pendingPositions.pollFirst();
+        }
+        pendingPositions.addLast(current);
+        if (pendingPositions.size() > MAX_PENDING_POSITIONS) {
+            pendingPositions.pollFirst();
+        }
+
+        if (replayed == null || replayed.position() > replayedPosition) {
+            return lastReplayedAgeMs;
+        }
+        long replayedAgeMs = timeMs - replayed.timeMs();
+        return lastReplayedAgeMs == null ? replayedAgeMs : Math.min(replayedAgeMs, lastReplayedAgeMs);
+    }
+
+    private void update(Long measuredLagMs, boolean usable) {
+        lagMs = measuredLagMs;
+        replicaUsable = usable;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 
 /**
@@ -39,6 +40,12 @@ public class EventWrapper<T> {
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
     private LocalDateTime timestamp;
 
+    /**
+     * Instant the event was created. Unlike timestamp it does not depend on the producer's time zone, so consumers
+     * measure the pipeline latency against it. Null for events created before it was carried.
+     */
+    private Instant createdAt;
+
     /**
      * The payload containing the event data.
      */
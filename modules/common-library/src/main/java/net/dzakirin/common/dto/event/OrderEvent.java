@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Builder;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -16,5 +17,9 @@ public class OrderEvent {
     private LocalDateTime orderDate;
     private UUID customerId;
     private String customerEmail;
+    /**
+     * Order total fixed at creation, null in events published before it was carried.
+     */
+    private BigDecimal totalAmount;
     private List<OrderProductEvent> orderProducts;
 }
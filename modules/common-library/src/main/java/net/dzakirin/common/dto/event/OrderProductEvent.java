@@ -12,5 +12,8 @@ public class OrderProductEvent {
     private UUID productId;
     private String productTitle;
     private int quantity;
+    /**
+     * Unit price at the time the order was placed.
+     */
     private BigDecimal price;
 }
@@ -0,0 +1,22 @@
+package net.dzakirin.common.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * List response for keyset (cursor) pagination. Unlike {@link BaseListResponse} it carries no totals, so no count
+ * query is needed; pass {@code nextCursor} back as {@code after} to get the next page, it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorListResponse<T> {
+    private boolean success;
+    private String message;
+    private List<T> data;
+    private String nextCursor;
+}
@@ -0,0 +1,39 @@
+package net.dzakirin.common.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event pipeline latency of one consuming service over the last few minutes, against its p99 objective.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineSloResponse {
+    private int windowMinutes;
+    private long objectiveP99Ms;
+    private boolean objectiveMet;
+    /**
+     * Keyed by stage: outbox (created to produced), delivery (produced to consumed), processing (consumed to
+     * processed) and end_to_end (created to processed).
+     */
+    private Map<String, StageLatency> stages;
+    /**
+     * Slowest events end to end, slowest first.
+     */
+    private List<SlowEvent> worstEvents;
+
+    public record StageLatency(double p50Ms, double p99Ms, double maxMs) {
+    }
+
+    public record SlowEvent(String eventId, long endToEndMs, long outboxMs, long deliveryMs, long processingMs,
+                            Instant processedAt) {
+    }
+}
@@ -0,0 +1,43 @@
+package net.dzakirin.common.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+public class UuidV7Generator implements BeforeExecutionGenerator, AnnotationBasedGenerator<UuidV7Id> {
+
+    private boolean allowAssigned;
+
+    @Override
+    public void initialize(UuidV7Id annotation, Member member, GeneratorCreationContext context) {
+        this.allowAssigned = annotation.allowAssigned();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        if (allowAssigned) {
+            // Hibernate does not pass the assigned identifier as currentValue, so read it from the entity itself
+            Object assignedId = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+            if (assignedId != null) {
+                return assignedId;
+            }
+        }
+        return UuidV7.generate();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return allowAssigned;
+    }
+}
@@ -0,0 +1,24 @@
+package net.dzakirin.common.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a {@link UuidV7} primary key in the application before the insert, so no database round trip is needed
+ * per ID and inserts can be batched.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface UuidV7Id {
+
+    /**
+     * Keep an ID the application assigned before persisting instead of generating one. Only enable it where needed:
+     * Hibernate can then no longer tell a new entity from a detached one by its ID alone.
+     */
+    boolean allowAssigned() default false;
+}
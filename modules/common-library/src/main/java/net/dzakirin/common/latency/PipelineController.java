@@ -0,0 +1,34 @@
+package net.dzakirin.common.latency;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.dto.response.PipelineSloResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Registered by {@link PipelineLatencyAutoConfiguration}. The services also component scan this package, so the
+ * controller carries the same condition.
+ */
+@RestController
+@ConditionalOnProperty(name = "pipeline.slo.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@RequestMapping("/v1/pipeline")
+public class PipelineController {
+
+    private final PipelineLatencyTracker pipelineLatencyTracker;
+
+    @Operation(summary = "Get the current order-data-changed pipeline latency against its p99 objective, with the slowest events")
+    @GetMapping("/slo")
+    public ResponseEntity<BaseResponse<PipelineSloResponse>> getSlo() {
+        return ResponseEntity.ok(BaseResponse.<PipelineSloResponse>builder()
+                .success(true)
+                .message("Pipeline SLO fetched successfully")
+                .data(pipelineLatencyTracker.getSlo())
+                .build());
+    }
+}
@@ -0,0 +1,28 @@
+package net.dzakirin.common.latency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Pipeline latency tracking and GET /v1/pipeline/slo for the services consuming order-data-changed, enabled with
+ * pipeline.slo.enabled.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "pipeline.slo.enabled", havingValue = "true")
+@Import(PipelineController.class)
+public class PipelineLatencyAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public PipelineLatencyTracker pipelineLatencyTracker(MeterRegistry meterRegistry,
+                                                         @Value("${pipeline.slo.window-minutes:5}") int windowMinutes,
+                                                         @Value("${pipeline.slo.worst-events:10}") int worstEvents,
+                                                         @Value("${pipeline.slo.objective-p99-ms:5000}") long objectiveP99Ms) {
+        return new PipelineLatencyTracker(meterRegistry, windowMinutes, worstEvents, objectiveP99Ms);
+    }
+}
@@ -0,0 +1,176 @@
+package net.dzakirin.common.latency;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.response.PipelineSloResponse;
+import net.dzakirin.common.dto.response.PipelineSloResponse.SlowEvent;
+import net.dzakirin.common.dto.response.PipelineSloResponse.StageLatency;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of consumed events from their creation until this service processed them, split at the hops an event
+ * passes: created ({@link EventWrapper#getCreatedAt()}), produced (the Kafka record timestamp, set when the outbox
+ * relay sent it), consumed (the listener received it) and processed (the service is done with it).
+ * <p>
+ * Each stage is timed as event.pipeline.latency{stage}, with histogram buckets for Prometheus and p50/p99 over the
+ * last window-minutes for {@link #getSlo()}. The slowest events end to end are kept per minute, a ring covering the
+ * window, so the SLO names the event IDs to look into. Hops are stamped on different hosts; a stage made negative by
+ * clock skew counts as 0.
+ */
+public class PipelineLatencyTracker {
+
+    private enum Stage {
+        OUTBOX("outbox"),
+        DELIVERY("delivery"),
+        PROCESSING("processing"),
+        END_TO_END("end_to_end");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Clock clock;
+    private final int windowMinutes;
+    private final int worstEventCount;
+    private final long objectiveP99Ms;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Bucket[] buckets;
+
+    public PipelineLatencyTracker(MeterRegistry meterRegistry, int windowMinutes, int worstEventCount, long objectiveP99Ms) {
+        this.clock = meterRegistry.config().clock();
+        this.windowMinutes = windowMinutes;
+        this.worstEventCount = worstEventCount;
+        this.objectiveP99Ms = objectiveP99Ms;
+        this.buckets = new Bucket[windowMinutes];
+        for (int i = 0; i < windowMinutes; i++) {
+            buckets[i] = new Bucket();
+        }
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("event.pipeline.latency")
+                    .tag("stage", stage.tag)
+                    .description("Time events spend in each stage of the pipeline until this service processed them")
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .distributionStatisticExpiry(Duration.ofMinutes(windowMinutes))
+                    .distributionStatisticBufferLength(windowMinutes)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @param producedAtMs the Kafka record timestamp
+     * @param consumedAtMs when the listener received the record
+     * @param processedAtMs when the service was done with the event
+     */
+    public void record(EventWrapper<?> event, long producedAtMs, long consumedAtMs, long processedAtMs) {
+        long deliveryMs = elapsed(producedAtMs, consumedAtMs);
+        long processingMs = elapsed(consumedAtMs, processedAtMs);
+        record(Stage.DELIVERY, deliveryMs);
+        record(Stage.PROCESSING, processingMs);
+        if (event.getCreatedAt() == null) {
+            return;
+        }
+
+        long createdAtMs = event.getCreatedAt().toEpochMilli();
+        long outboxMs = elapsed(createdAtMs, producedAtMs);
+        long endToEndMs = elapsed(createdAtMs, processedAtMs);
+        record(Stage.OUTBOX, outboxMs);
+        record(Stage.END_TO_END, endToEndMs);
+        offerSlowEvent(new SlowEvent(event.getEventId(), endToEndMs, outboxMs, deliveryMs, processingMs,
+                Instant.ofEpochMilli(processedAtMs)));
+    }
+
+    /**
+     * Current p50/p99 per stage and the slowest events of the window. The objective is met while the end to end p99
+     * is within it.
+     */
+    public PipelineSloResponse getSlo() {
+        Map<String, StageLatency> stages = new LinkedHashMap<>();
+        stageTimers.forEach((stage, timer) -> stages.put(stage.tag, stageLatency(timer.takeSnapshot())));
+        return PipelineSloResponse.builder()
+                .windowMinutes(windowMinutes)
+                .objectiveP99Ms(objectiveP99Ms)
+                .objectiveMet(stages.get(Stage.END_TO_END.tag).p99Ms() <= objectiveP99Ms)
+                .stages(stages)
+                .worstEvents(worstEvents())
+                .build();
+    }
+
+    private void record(Stage stage, long durationMs) {
+        stageTimers.get(stage).record(durationMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void offerSlowEvent(SlowEvent slowEvent) {
+        long minute = currentMinute();
+        Bucket bucket = buckets[(int) Math.floorMod(minute, (long) buckets.length)];
+        if (bucket.minute != minute) {
+            bucket.reset(minute);
+        }
+        bucket.slowest.offer(slowEvent);
+        if (bucket.slowest.size() > worstEventCount) {
+            bucket.slowest.poll();
+        }
+    }
+
+    private synchronized List<SlowEvent> worstEvents() {
+        long currentMinute = currentMinute();
+        return Arrays.stream(buckets)
+                .filter(bucket -> bucket.minute > currentMinute - windowMinutes && bucket.minute <= currentMinute)
+                .flatMap(bucket -> bucket.slowest.stream())
+                .sorted(Comparator.comparingLong(SlowEvent::endToEndMs).reversed())
+                .limit(worstEventCount)
+                .toList();
+    }
+
+    private long currentMinute() {
+        return Math.floorDiv(clock.wallTime(), 60_000L);
+    }
+
+    private static long elapsed(long fromMs, long toMs) {
+        return Math.max(0, toMs - fromMs);
+    }
+
+    private static StageLatency stageLatency(HistogramSnapshot snapshot) {
+        double p50Ms = 0;
+        double p99Ms = 0;
+        for (ValueAtPercentile valueAtPercentile : snapshot.percentileValues()) {
+            if (valueAtPercentile.percentile() == 0.5) {
+                p50Ms = valueAtPercentile.value(TimeUnit.MILLISECONDS);
+            } else if (valueAtPercentile.percentile() == 0.99) {
+                p99Ms = valueAtPercentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return new StageLatency(p50Ms, p99Ms, snapshot.max(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * The slowest events of one minute, the fastest of them on top so it is the first to go.
+     */
+    private static final class Bucket {
+
+        private final PriorityQueue<SlowEvent> slowest = new PriorityQueue<>(Comparator.comparingLong(SlowEvent::endToEndMs));
+        private long minute = Long.MIN_VALUE;
+
+        private void reset(long newMinute) {
+            slowest.clear();
+            minute = newMinute;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package net.dzakirin.common.producer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.CustomLog;
 import net.dzakirin.common.dto.event.EventWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @CustomLog
 public abstract class BaseProducer<T> {
@@ -15,28 +22,106 @@ public abstract class BaseProducer<T> {
 
     private final String topic;
     private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final Class<?> payloadType;
+    private Timer sentTimer;
+    private Timer failedTimer;
 
     protected BaseProducer(
             String topic,
             KafkaTemplate<String, Object> kafkaTemplate
+    ) {
+        this(topic, kafkaTemplate, Object.class);
+    }
+
+    /**
+     * @param payloadType class envelopes read back from the outbox bind their payload to, so the serializer sees the
+     *                    payload type rather than a map
+     */
+    protected BaseProducer(
+            String topic,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            Class<?> payloadType
     ) {
         this.topic = topic;
         this.kafkaTemplate = kafkaTemplate;
+        this.payloadType = payloadType;
+    }
+
+    /**
+     * Time every send as event.publish, tagged with the topic and outcome=success|failure.
+     */
+    @Autowired
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.sentTimer = publishTimer(meterRegistry, "success");
+        this.failedTimer = publishTimer(meterRegistry, "failure");
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public Class<?> getPayloadType() {
+        return payloadType;
     }
 
-    public void publishEvent(String key, T dto, String eventType) {
-        EventWrapper<T> eventWrapper = EventWrapper.<T>builder()
+    /**
+     * Build the event envelope without sending it, e.g. to store it in an outbox first.
+     */
+    public EventWrapper<T> wrapEvent(String key, T dto, String eventType) {
+        return EventWrapper.<T>builder()
                 .eventId(key)
                 .eventType(eventType)
                 .eventSource(appName)
                 .timestamp(LocalDateTime.now())
+                .createdAt(Instant.now())
                 .payload(dto)
                 .build();
+    }
+
+    /**
+     * Send the event without waiting for the broker, logging the failure if the returned future fails. Nothing is
+     * retried beyond the client's own retries within delivery.timeout.ms, so events that must not be lost go through
+     * the outbox instead.
+     */
+    public CompletableFuture<SendResult<String, Object>> publishEvent(String key, T dto, String eventType) {
+        CompletableFuture<SendResult<String, Object>> result;
         try {
-            kafkaTemplate.send(topic, key, eventWrapper);
-        } catch (Exception e) {
-            log.error(String.format("Failed to produce event for topic %s: %s", topic, dto), e);
+            result = send(key, wrapEvent(key, dto, eventType));
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
         }
+        return result.whenComplete((sendResult, e) -> {
+            if (e != null) {
+                log.error(String.format("Failed to produce event for topic %s: %s", topic, dto), e);
+            }
+        });
     }
-}
 
+    /**
+     * Send an already built envelope once. The returned future completes once the broker acknowledged the record.
+     */
+    public CompletableFuture<SendResult<String, Object>> send(String key, EventWrapper<?> eventWrapper) {
+        long startedAt = System.nanoTime();
+        CompletableFuture<SendResult<String, Object>> future;
+        try {
+            future = kafkaTemplate.send(topic, key, eventWrapper);
+        } catch (RuntimeException e) {
+            recordSend(startedAt, false);
+            throw e;
+        }
+        return future.whenComplete((result, e) -> recordSend(startedAt, e == null));
+    }
+
+    private void recordSend(long startedAt, boolean success) {
+        (success ? sentTimer : failedTimer).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer publishTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("event.publish")
+                .tag("topic", topic)
+                .tag("outcome", outcome)
+                .description("Time from sending an event until the broker acknowledged or rejected it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
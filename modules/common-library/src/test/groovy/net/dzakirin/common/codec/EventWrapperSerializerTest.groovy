@@ -0,0 +1,171 @@
+package net.dzakirin.common.codec
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import net.dzakirin.common.dto.event.EventWrapper
+import net.dzakirin.common.dto.event.OrderEvent
+import net.dzakirin.common.dto.event.OrderProductEvent
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.common.config.ConfigException
+import org.apache.kafka.common.errors.SerializationException
+import org.apache.kafka.common.header.internals.RecordHeaders
+import org.apache.kafka.common.record.TimestampType
+import org.springframework.core.log.LogAccessor
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer
+import org.springframework.kafka.support.serializer.JsonSerializer
+import org.springframework.kafka.support.serializer.SerializationUtils
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+import java.time.LocalDateTime
+
+class EventWrapperSerializerTest extends Specification {
+
+    static final Map<String, Object> CONSUMER_CONFIGS = ["spring.json.trusted.packages": "*"]
+
+    EventWrapperDeserializer deserializer = new EventWrapperDeserializer()
+
+    def setup() {
+        deserializer.configure(CONSUMER_CONFIGS, false)
+    }
+
+    def "should write order events with the binary codec and read them back typed"() {
+        given:
+        def serializer = serializer("smile")
+        def headers = new RecordHeaders()
+        def event = orderEvent(10)
+
+        when:
+        byte[] data = serializer.serialize("order-data-changed", headers, event)
+        def read = deserializer.deserialize("order-data-changed", headers, data)
+
+        then:
+        header(headers, EventCodec.CODEC_HEADER) == "smile"
+        header(headers, EventCodec.SCHEMA_VERSION_HEADER) == "1"
+        read == event
+        read.payload instanceof OrderEvent
+        data.length < new JsonSerializer<Object>().serialize("order-data-changed", event).length * 0.6
+    }
+
+    def "should keep writing JSON by default and for payloads other than order events"() {
+        given:
+        def json = new JsonSerializer<Object>()
+        def headers = new RecordHeaders()
+        def jsonHeaders = new RecordHeaders()
+        def invalidation = EventWrapper.builder().eventId("1").payload([UUID.randomUUID()]).build()
+
+        expect:
+        serializer(codec).serialize("topic", headers, event) == json.serialize("topic", jsonHeaders, event)
+        headers.lastHeader(EventCodec.CODEC_HEADER) == null
+        deserializer.deserialize("topic", headers, json.serialize("topic", new RecordHeaders(), event)) instanceof EventWrapper
+
+        where:
+        codec   | event
+        "json"  | orderEvent(1)
+        "smile" | EventWrapper.builder().eventId("1").payload([UUID.randomUUID().toString()]).build()
+    }
+
+    def "should convert JSON payloads and pass typed ones through"() {
+        given:
+        def event = orderEvent(2)
+        def json = new JsonSerializer<Object>()
+        def headers = new RecordHeaders()
+        def jsonEvent = deserializer.deserialize("topic", headers, json.serialize("topic", headers, event))
+        def objectMapper = new ObjectMapper().findAndRegisterModules()
+
+        expect:
+        !(jsonEvent.payload instanceof OrderEvent)
+        EventPayloads.convert(jsonEvent, OrderEvent, objectMapper) == event.payload
+        EventPayloads.convert(event, OrderEvent, objectMapper).is(event.payload)
+    }
+
+    def "should reject unknown codecs and schema versions"() {
+        given:
+        def headers = new RecordHeaders()
+        byte[] data = serializer("smile").serialize("topic", headers, orderEvent(1))
+
+        when:
+        headers.remove(EventCodec.SCHEMA_VERSION_HEADER)
+        headers.add(EventCodec.SCHEMA_VERSION_HEADER, "2".getBytes(StandardCharsets.UTF_8))
+        deserializer.deserialize("topic", headers, data)
+
+        then:
+        def e = thrown(SerializationException)
+        e.message.contains("schema version 2")
+
+        when:
+        serializer("avro")
+
+        then:
+        thrown(ConfigException)
+    }
+
+    def "should hand records of an unknown schema version to the error handler as a DeserializationException"() {
+        given:
+        def errorHandlingDeserializer = new ErrorHandlingDeserializer<Object>()
+        errorHandlingDeserializer.configure(CONSUMER_CONFIGS + [(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS): EventWrapperDeserializer.name], false)
+        def headers = new RecordHeaders()
+        byte[] data = serializer("smile").serialize("topic", headers, orderEvent(1))
+        headers.remove(EventCodec.SCHEMA_VERSION_HEADER)
+        headers.add(EventCodec.SCHEMA_VERSION_HEADER, "2".getBytes(StandardCharsets.UTF_8))
+
+        when:
+        def read = errorHandlingDeserializer.deserialize("topic", headers, data)
+        def record = new ConsumerRecord<String, Object>("topic", 0, 0L, 0L, TimestampType.CREATE_TIME, 0, data.length, "key", read,
+                headers, Optional.empty())
+        def exception = SerializationUtils.getExceptionFromHeader(record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER,
+                new LogAccessor(EventWrapperSerializerTest))
+
+        then:
+        read == null
+        exception.data == data
+        exception.cause.message.contains("schema version 2")
+    }
+
+    def "should write raw bytes, the value of an undeserializable dead letter, unchanged"() {
+        given:
+        def headers = new RecordHeaders()
+        byte[] raw = [1, 2, 3]
+
+        expect:
+        serializer("smile").serialize("topic-dlt", headers, raw).is(raw)
+        headers.toArray().length == 0
+    }
+
+    private static EventWrapperSerializer serializer(String codec) {
+        def serializer = new EventWrapperSerializer()
+        serializer.configure([(EventWrapperSerializer.CODEC_CONFIG): codec], false)
+        serializer
+    }
+
+    private static String header(RecordHeaders headers, String name) {
+        new String(headers.lastHeader(name).value(), StandardCharsets.UTF_8)
+    }
+
+    private static EventWrapper<OrderEvent> orderEvent(int lines) {
+        def orderProducts = (1..lines).collect {
+            OrderProductEvent.builder()
+                    .productId(UUID.randomUUID())
+                    .productTitle("Product " + it)
+                    .quantity(it)
+                    .price(new BigDecimal("19.99"))
+                    .build()
+        }
+        def orderEvent = OrderEvent.builder()
+                .id(UUID.randomUUID())
+                .orderDate(LocalDateTime.of(2025, 3, 14, 9, 26, 53, 589_000_000))
+                .customerId(UUID.randomUUID())
+                .customerEmail("customer@example.com")
+                .totalAmount(new BigDecimal("19.99") * lines)
+                .orderProducts(orderProducts)
+                .build()
+        EventWrapper.<OrderEvent> builder()
+                .eventId(orderEvent.id.toString())
+                .eventType("ORDER_CREATED")
+                .eventSource("order-management-service")
+                .timestamp(orderEvent.orderDate)
+                .createdAt(Instant.parse("2025-03-14T09:26:53.589Z"))
+                .payload(orderEvent)
+                .build()
+    }
+}
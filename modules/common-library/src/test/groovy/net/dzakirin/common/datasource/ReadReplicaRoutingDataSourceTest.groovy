@@ -0,0 +1,145 @@
+package net.dzakirin.common.datasource
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.datasource.DataSourceTransactionManager
+import org.springframework.jdbc.datasource.DriverManagerDataSource
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.sql.SQLTransientConnectionException
+
+class ReadReplicaRoutingDataSourceTest extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    DataSource primary = h2("routing_primary")
+    DataSource replica = h2("routing_replica")
+    Closure<Long> lag = { 0L }
+
+    ReplicationLagGuard lagGuard = new ReplicationLagGuard(primary, replica, 1_000, 1_000, meterRegistry) {
+        @Override
+        protected Long measureLagMs() {
+            lag()
+        }
+    }
+    DataSource dataSource = new ReadReplicaRoutingDataSource(primary, replica, lagGuard, meterRegistry).lazy()
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource)
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource)
+
+    def "should send read-only transactions to the replica and everything else to the primary"() {
+        given:
+        lagGuard.check()
+
+        expect:
+        databaseIn(readOnlyTransaction) == "ROUTING_REPLICA"
+        databaseIn(readWriteTransaction) == "ROUTING_PRIMARY"
+        jdbcTemplate.queryForObject("SELECT DATABASE()", String) == "ROUTING_PRIMARY"
+        ReadReplicaRoutingDataSource.onPrimary { databaseIn(readOnlyTransaction) } == "ROUTING_PRIMARY"
+        databaseIn(readOnlyTransaction) == "ROUTING_REPLICA"
+
+        and:
+        routed("replica", "read_only") == 2
+        routed("primary", "read_write") == 2
+        routed("primary", "pinned") == 1
+    }
+
+    def "should fall back to the primary until the replica is checked, while it lags and while it cannot be reached"() {
+        expect: "not checked yet"
+        databaseIn(readOnlyTransaction) == "ROUTING_PRIMARY"
+
+        when:
+        lag = { 5_000L }
+        lagGuard.check()
+
+        then:
+        databaseIn(readOnlyTransaction) == "ROUTING_PRIMARY"
+        meterRegistry.get("datasource.replica.lag").gauge().value() == 5_000
+        meterRegistry.get("datasource.replica.usable").gauge().value() == 0
+
+        when:
+        lag = { 800L }
+        lagGuard.check()
+
+        then:
+        databaseIn(readOnlyTransaction) == "ROUTING_REPLICA"
+        meterRegistry.get("datasource.replica.usable").gauge().value() == 1
+
+        when:
+        lag = { throw new IllegalStateException("Connection refused") }
+        lagGuard.check()
+
+        then:
+        databaseIn(readOnlyTransaction) == "ROUTING_PRIMARY"
+        meterRegistry.get("datasource.replica.lag").gauge().value().naN
+
+        when: "nothing replayed yet"
+        lag = { null }
+        lagGuard.check()
+
+        then:
+        databaseIn(readOnlyTransaction) == "ROUTING_PRIMARY"
+        routed("primary", "replica_unavailable") == 4
+    }
+
+    def "should fail over to the primary at once when a replica connection cannot be obtained"() {
+        given:
+        def unreachable = Stub(DataSource) {
+            getConnection() >> { throw new SQLTransientConnectionException("replica - Connection is not available") }
+        }
+        def guard = new ReplicationLagGuard(primary, unreachable, 1_000, 1_000, meterRegistry) {
+            @Override
+            protected Long measureLagMs() {
+                0L
+            }
+        }
+        guard.check()
+        def routing = new ReadReplicaRoutingDataSource(primary, unreachable, guard, meterRegistry).lazy()
+        def transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(routing))
+        transactionTemplate.readOnly = true
+
+        expect:
+        transactionTemplate.execute { new JdbcTemplate(routing).queryForObject("SELECT DATABASE()", String) } == "ROUTING_PRIMARY"
+        !guard.replicaUsable
+        routed("primary", "replica_unavailable") == 1
+    }
+
+    def "lagMs: should take the newest sampled primary position the replica replayed, or its last commit if younger"() {
+        given:
+        def guard = new ReplicationLagGuard(primary, replica, 1_000, 250, meterRegistry)
+
+        expect: "caught up, however old its last commit"
+        guard.lagMs(0, 100, 100, 60_000) == 0
+
+        and:
+        guard.lagMs(250, 200, 150, 60_000) == 250
+        guard.lagMs(500, 300, 250, 60_000) == 250
+        guard.lagMs(750, 400, 250, 60_000) == 500
+        guard.lagMs(1_000, 500, 250, 300) == 300
+
+        and: "not a replica that replays WAL"
+        guard.lagMs(1_250, 600, null, null) == null
+    }
+
+    private TransactionTemplate getReadOnlyTransaction() {
+        def transactionTemplate = new TransactionTemplate(transactionManager)
+        transactionTemplate.readOnly = true
+        transactionTemplate
+    }
+
+    private TransactionTemplate getReadWriteTransaction() {
+        new TransactionTemplate(transactionManager)
+    }
+
+    private String databaseIn(TransactionTemplate transactionTemplate) {
+        transactionTemplate.execute { jdbcTemplate.queryForObject("SELECT DATABASE()", String) }
+    }
+
+    private double routed(String target, String reason) {
+        meterRegistry.get("datasource.routing.connections").tags("target", target, "reason", reason).counter().count()
+    }
+
+    private static DataSource h2(String name) {
+        new DriverManagerDataSource("jdbc:h2:mem:${name};DB_CLOSE_DELAY=-1")
+    }
+}
@@ -0,0 +1,96 @@
+package net.dzakirin.common.latency
+
+import io.micrometer.core.instrument.MockClock
+import io.micrometer.core.instrument.simple.SimpleConfig
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.dzakirin.common.dto.event.EventWrapper
+import spock.lang.Specification
+
+import java.time.Duration
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+
+class PipelineLatencyTrackerTest extends Specification {
+
+    static final long CREATED_AT = 1_700_000_000_000L
+
+    MockClock clock = new MockClock()
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock)
+    PipelineLatencyTracker tracker = new PipelineLatencyTracker(meterRegistry, 5, 3, 150)
+
+    def "should split each event into its stages and name the slowest events end to end"() {
+        when: "outbox 10 ms, delivery 20 ms, processing 30 to 129 ms"
+        (0..<100).each { tracker.record(event("event-$it", CREATED_AT), CREATED_AT + 10, CREATED_AT + 30, CREATED_AT + 60 + it) }
+        def slo = tracker.slo
+
+        then:
+        stageCount("outbox") == 100
+        stageCount("end_to_end") == 100
+        slo.stages.keySet().toList() == ["outbox", "delivery", "processing", "end_to_end"]
+        Math.abs(slo.stages.outbox.p99Ms() - 10) < 1
+        Math.abs(slo.stages.delivery.p50Ms() - 20) < 1
+        Math.abs(slo.stages.end_to_end.p50Ms() - 110) < 5
+        Math.abs(slo.stages.end_to_end.p99Ms() - 159) < 5
+        slo.stages.end_to_end.maxMs() == 159
+
+        and: "the end to end p99 exceeds the objective of 150 ms"
+        slo.objectiveP99Ms == 150
+        !slo.objectiveMet
+
+        and:
+        slo.worstEvents*.eventId == ["event-99", "event-98", "event-97"]
+        slo.worstEvents.first().with { [endToEndMs, outboxMs, deliveryMs, processingMs] } == [159L, 10L, 20L, 129L]
+        slo.worstEvents.first().processedAt() == Instant.ofEpochMilli(CREATED_AT + 159)
+    }
+
+    def "should only time delivery and processing of events without a creation instant, and ignore clock skew"() {
+        when:
+        tracker.record(event("legacy", null), CREATED_AT, CREATED_AT + 5, CREATED_AT + 10)
+        tracker.record(event("skewed", CREATED_AT + 1_000), CREATED_AT, CREATED_AT - 5, CREATED_AT + 10)
+
+        then:
+        stageCount("delivery") == 2
+        stageCount("outbox") == 1
+        meterRegistry.get("event.pipeline.latency").tag("stage", "outbox").timer().max(TimeUnit.MILLISECONDS) == 0
+        tracker.slo.worstEvents*.eventId == ["skewed"]
+        tracker.slo.worstEvents.first().endToEndMs() == 0
+    }
+
+    def "should forget events older than the window"() {
+        given:
+        tracker.record(event("old", CREATED_AT), CREATED_AT + 10, CREATED_AT + 20, CREATED_AT + 1_000)
+
+        when:
+        clock.add(Duration.ofMinutes(2))
+        tracker.record(event("recent", CREATED_AT), CREATED_AT + 10, CREATED_AT + 20, CREATED_AT + 100)
+
+        then:
+        tracker.slo.worstEvents*.eventId == ["old", "recent"]
+
+        when:
+        clock.add(Duration.ofMinutes(4))
+
+        then:
+        tracker.slo.worstEvents*.eventId == ["recent"]
+
+        when:
+        clock.add(Duration.ofMinutes(2))
+        def slo = tracker.slo
+
+        then:
+        slo.worstEvents.empty
+        slo.stages.end_to_end.p99Ms() == 0
+        slo.objectiveMet
+    }
+
+    private long stageCount(String stage) {
+        meterRegistry.get("event.pipeline.latency").tag("stage", stage).timer().count()
+    }
+
+    private static EventWrapper<Object> event(String eventId, Long createdAtMs) {
+        EventWrapper.builder()
+                .eventId(eventId)
+                .createdAt(createdAtMs == null ? null : Instant.ofEpochMilli(createdAtMs))
+                .build()
+    }
+}
@@ -0,0 +1,71 @@
+package net.dzakirin.common.producer
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.apache.kafka.common.errors.NotLeaderOrFollowerException
+import org.apache.kafka.common.errors.RecordTooLargeException
+import org.springframework.kafka.core.KafkaProducerException
+import org.springframework.kafka.core.KafkaTemplate
+import org.springframework.kafka.support.SendResult
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.TimeUnit
+
+class BaseProducerTest extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    KafkaTemplate<String, Object> kafkaTemplate = Mock()
+    BaseProducer<String> producer = new BaseProducer<String>("orders", kafkaTemplate) {}
+
+    def setup() {
+        producer.setMeterRegistry(meterRegistry)
+    }
+
+    def "should complete once the broker acknowledged the event and time the send per topic"() {
+        given:
+        SendResult<String, Object> sendResult = Mock()
+
+        when:
+        def result = producer.publishEvent("key", "payload", "ORDER_CREATED").get(1, TimeUnit.SECONDS)
+
+        then:
+        1 * kafkaTemplate.send("orders", "key", { it.payload == "payload" && it.eventType == "ORDER_CREATED" }) >>
+                CompletableFuture.completedFuture(sendResult)
+        result == sendResult
+        publishTimer("success").count() == 1
+        publishTimer("failure").count() == 0
+    }
+
+    def "should fail once the broker rejected the event, leaving retries to the client and the outbox"() {
+        when:
+        producer.publishEvent("key", "payload", "ORDER_CREATED").get(1, TimeUnit.SECONDS)
+
+        then:
+        1 * kafkaTemplate.send("orders", "key", _) >> failed(cause)
+        def e = thrown(ExecutionException)
+        e.cause.cause.class == cause.class
+        publishTimer("failure").count() == 1
+
+        where:
+        cause << [new NotLeaderOrFollowerException("leader moved"), new RecordTooLargeException("too large")]
+    }
+
+    def "should turn synchronous send errors into a failed future"() {
+        when:
+        def result = producer.publishEvent("key", "payload", "ORDER_CREATED")
+
+        then:
+        1 * kafkaTemplate.send("orders", "key", _) >> { throw new IllegalStateException("serializer failed") }
+        result.isCompletedExceptionally()
+        publishTimer("failure").count() == 1
+    }
+
+    private static CompletableFuture<SendResult<String, Object>> failed(Exception cause) {
+        CompletableFuture.failedFuture(new KafkaProducerException(null, "Failed to send", cause))
+    }
+
+    private def publishTimer(String outcome) {
+        meterRegistry.get("event.publish").tag("topic", "orders").tag("outcome", outcome).timer()
+    }
+}
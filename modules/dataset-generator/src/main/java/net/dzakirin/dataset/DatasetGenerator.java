@@ -0,0 +1,297 @@
+package net.dzakirin.dataset;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Loads a synthetic dataset into the order-management and loyalty databases: customers, products, orders of the
+ * dataset.months before dataset.end-date with their lines, the daily sales rollups of those months, and the loyalty points and
+ * transactions the loyalty service would have recorded for them under its active rules, i.e. a loyalty_points row
+ * for every customer who ordered and a transaction for every order that earned points.
+ * <p>
+ * Orders are generated twice from the seed, first to load them and add up each customer's points, then to load the
+ * loyalty transactions once the loyalty_points rows they reference exist. Every timestamp derives from
+ * dataset.end-date, never from the clock, so the same seed and settings give the same rows on any day.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetGenerator implements CommandLineRunner {
+
+    private static final long DAY_MS = 86_400_000L;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private record LoyaltyRule(long minOrderCents, int pointsAwarded) {
+    }
+
+    private final PostgresLoader loader;
+
+    @Value("${dataset.order-management.url}")
+    private String orderManagementUrl;
+    @Value("${dataset.loyalty.url}")
+    private String loyaltyUrl;
+    @Value("${dataset.customers:100000}")
+    private int customerCount;
+    @Value("${dataset.products:10000}")
+    private int productCount;
+    @Value("${dataset.orders:1000000}")
+    private long orderCount;
+    @Value("${dataset.end-date}")
+    private String endDate;
+    @Value("${dataset.months:24}")
+    private int months;
+    @Value("${dataset.max-order-lines:10}")
+    private int maxOrderLines;
+    @Value("${dataset.product-skew:1.0}")
+    private double productSkew;
+    @Value("${dataset.customer-skew:0.6}")
+    private double customerSkew;
+    @Value("${dataset.seed:42}")
+    private long seed;
+    @Value("${dataset.truncate:false}")
+    private boolean truncate;
+
+    @Override
+    public void run(String... args) throws Exception {
+        LocalDate endDay = LocalDate.parse(endDate);
+        LocalDate firstDay = endDay.minusMonths(months);
+        long fromMs = firstDay.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        long toMs = endDay.atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+        long createdFromMs = fromMs - DAY_MS;
+        log.info("Generating {} customers, {} products and {} orders from {} to {} with seed {}",
+                customerCount, productCount, orderCount, firstDay, endDay, seed);
+
+        prepare(YearMonth.from(firstDay), YearMonth.from(endDay.minusDays(1)));
+        List<LoyaltyRule> loyaltyRules = findLoyaltyRules();
+
+        long[] productPriceCents = new long[productCount];
+        for (int i = 0; i < productCount; i++) {
+            productPriceCents[i] = DatasetRows.priceCents(seed, i);
+        }
+        OrderGenerator orders = new OrderGenerator(seed, orderCount, fromMs, toMs, maxOrderLines,
+                new ZipfSampler(customerCount, customerSkew, seed, Seeds.CUSTOMERS),
+                new ZipfSampler(productCount, productSkew, seed, Seeds.PRODUCTS),
+                productPriceCents);
+
+        loader.load("customers", orderManagementUrl, customerCount, (connection, from, to) -> {
+            StringBuilder rows = new StringBuilder();
+            for (long i = from; i < to; i++) {
+                DatasetRows.appendCustomer(rows, seed, createdFromMs, (int) i);
+            }
+            return PostgresLoader.copy(connection, "customers", "id, first_name, last_name, email", rows);
+        });
+        loader.load("products", orderManagementUrl, productCount, (connection, from, to) -> {
+            StringBuilder rows = new StringBuilder();
+            for (long i = from; i < to; i++) {
+                DatasetRows.appendProduct(rows, seed, createdFromMs, (int) i, productPriceCents[(int) i]);
+            }
+            return PostgresLoader.copy(connection, "products", "id, title, price, stock", rows);
+        });
+
+        AtomicIntegerArray customerPoints = new AtomicIntegerArray(customerCount);
+        AtomicLongArray customerFirstOrderMs = new AtomicLongArray(customerCount);
+        AtomicLongArray customerLastEarnedMs = new AtomicLongArray(customerCount);
+        loader.load("orders and order_products", orderManagementUrl, orderCount, (connection, from, to) -> {
+            StringBuilder orderRows = new StringBuilder();
+            StringBuilder lineRows = new StringBuilder();
+            for (long i = from; i < to; i++) {
+                OrderGenerator.GeneratedOrder order = orders.generate(i);
+                appendOrder(orderRows, lineRows, order, createdFromMs);
+                customerFirstOrderMs.accumulateAndGet(order.customerIndex(), order.orderDateMs(),
+                        (first, orderDateMs) -> first == 0 ? orderDateMs : Math.min(first, orderDateMs));
+                int points = points(loyaltyRules, order.totalCents());
+                if (points > 0) {
+                    customerPoints.addAndGet(order.customerIndex(), points);
+                    customerLastEarnedMs.accumulateAndGet(order.customerIndex(), order.orderDateMs(), Math::max);
+                }
+            }
+            return PostgresLoader.copy(connection, "orders", "id, customer_id, order_date, total_amount", orderRows)
+                    + PostgresLoader.copy(connection, "order_products", "id, order_id, order_date, product_id, quantity, unit_price", lineRows);
+        });
+        verifyOrderIds();
+
+        loader.load("loyalty_points", loyaltyUrl, customerCount, (connection, from, to) -> {
+            StringBuilder rows = new StringBuilder();
+            for (long i = from; i < to; i++) {
+                int customer = (int) i;
+                if (customerFirstOrderMs.get(customer) > 0) {
+                    long lastUpdatedMs = Math.max(customerFirstOrderMs.get(customer), customerLastEarnedMs.get(customer));
+                    rows.append(loyaltyPointsId(customer, createdFromMs)).append('\t')
+                            .append(DatasetRows.customerId(seed, createdFromMs, customer)).append('\t')
+                            .append(customerPoints.get(customer)).append('\t')
+                            .append(timestamp(lastUpdatedMs)).append('\n');
+                }
+            }
+            return PostgresLoader.copy(connection, "loyalty_points", "id, customer_id, total_points, last_updated", rows);
+        });
+        loader.load("loyalty_transactions", loyaltyUrl, orderCount, (connection, from, to) -> {
+            StringBuilder rows = new StringBuilder();
+            for (long i = from; i < to; i++) {
+                OrderGenerator.GeneratedOrder order = orders.generate(i);
+                int points = points(loyaltyRules, order.totalCents());
+                if (points > 0) {
+                    rows.append(Seeds.uuidV7(order.orderDateMs(), Seeds.hash(seed, Seeds.LOYALTY_TRANSACTIONS, i))).append('\t')
+                            .append(loyaltyPointsId(order.customerIndex(), createdFromMs)).append('\t')
+                            .append(order.id()).append('\t')
+                            .append(points).append("\tEARNED\t")
+                            .append(order.orderDate()).append('\n');
+                }
+            }
+            return PostgresLoader.copy(connection, "loyalty_transactions",
+                    "id, loyalty_points_id, order_id, points_awarded, transaction_type, transaction_date", rows);
+        });
+
+        rebuildSalesRollups(firstDay, endDay);
+        loader.execute(orderManagementUrl, List.of(
+                "ANALYZE customers, products, orders, order_products, product_daily_sales, customer_daily_sales, sales_rollup_orders"));
+        loader.execute(loyaltyUrl, List.of("ANALYZE loyalty_points, loyalty_transactions"));
+        log.info("Dataset generated, restart the services so their caches and search index pick it up");
+    }
+
+    /**
+     * Empty the tables when asked to, and create the monthly partitions of orders and order_products the orders fall
+     * into, as OrderPartitionService does ahead of time, so no order lands in the default partitions.
+     */
+    private void prepare(YearMonth firstMonth, YearMonth lastMonth) throws Exception {
+        if (truncate) {
+            log.info("Truncating the order-management and loyalty tables");
+            loader.execute(orderManagementUrl, List.of("TRUNCATE order_products, orders, order_ids, customers, products, "
+                    + "product_daily_sales, customer_daily_sales, sales_rollup_orders"));
+            loader.execute(loyaltyUrl, List.of("TRUNCATE loyalty_transactions, loyalty_points"));
+        }
+        List<String> partitions = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            for (String table : List.of("orders", "order_products")) {
+                partitions.add("CREATE TABLE IF NOT EXISTS %s_%s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')".formatted(
+                        table, month.format(PARTITION_SUFFIX), table, month.atDay(1), month.plusMonths(1).atDay(1)));
+            }
+        }
+        loader.execute(orderManagementUrl, partitions);
+    }
+
+    /**
+     * Active rules by ascending minimum order amount, the first one an order total reaches applies.
+     */
+    private List<LoyaltyRule> findLoyaltyRules() throws SQLException {
+        List<LoyaltyRule> rules = new ArrayList<>();
+        try (Connection connection = loader.connect(loyaltyUrl);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(
+                     "SELECT min_order_amount, points_awarded FROM loyalty_rules WHERE rule_active ORDER BY min_order_amount")) {
+            while (resultSet.next()) {
+                rules.add(new LoyaltyRule(resultSet.getBigDecimal(1).movePointRight(2).longValueExact(), resultSet.getInt(2)));
+            }
+        }
+        if (rules.isEmpty()) {
+            log.info("No active loyalty rule, no loyalty points are generated");
+        }
+        return rules;
+    }
+
+    /**
+     * The order_ids triggers fire for COPY too, unless they were left as ordinary triggers that a replica session skips.
+     * Fail before anything else is loaded rather than leave orders whose IDs are not checked for uniqueness.
+     */
+    private void verifyOrderIds() throws SQLException {
+        try (Connection connection = loader.connect(orderManagementUrl);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT (SELECT count(*) FROM orders), (SELECT count(*) FROM order_ids)")) {
+            resultSet.next();
+            long orders = resultSet.getLong(1);
+            long orderIds = resultSet.getLong(2);
+            if (orders != orderIds) {
+                throw new IllegalStateException("%d orders but %d order_ids rows, run the order-management-service migrations up to 0010-order-ids-triggers-always.sql"
+                        .formatted(orders, orderIds));
+            }
+        }
+    }
+
+    /**
+     * Points per whole multiple of the rule's minimum order amount, like RewardService.
+     */
+    private static int points(List<LoyaltyRule> rules, long totalCents) {
+        for (LoyaltyRule rule : rules) {
+            if (rule.minOrderCents() <= totalCents) {
+                return (int) (totalCents / rule.minOrderCents()) * rule.pointsAwarded();
+            }
+        }
+        return 0;
+    }
+
+    private void appendOrder(StringBuilder orderRows, StringBuilder lineRows, OrderGenerator.GeneratedOrder order, long createdFromMs) {
+        UUID customerId = DatasetRows.customerId(seed, createdFromMs, order.customerIndex());
+        LocalDateTime orderDate = order.orderDate();
+        orderRows.append(order.id()).append('\t').append(customerId).append('\t').append(orderDate).append('\t');
+        DatasetRows.appendMoney(orderRows, order.totalCents()).append('\n');
+        for (OrderGenerator.Line line : order.lines()) {
+            lineRows.append(line.id()).append('\t')
+                    .append(order.id()).append('\t')
+                    .append(orderDate).append('\t')
+                    .append(DatasetRows.productId(seed, createdFromMs, line.productIndex())).append('\t')
+                    .append(line.quantity()).append('\t');
+            DatasetRows.appendMoney(lineRows, line.unitPriceCents()).append('\n');
+        }
+    }
+
+    private UUID loyaltyPointsId(int customer, long createdFromMs) {
+        return Seeds.uuidV7(createdFromMs + customer, Seeds.hash(seed, Seeds.LOYALTY_POINTS, customer));
+    }
+
+    private static LocalDateTime timestamp(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC);
+    }
+
+    /**
+     * Recompute the daily sales rollups of the generated months, one month per transaction, from every order in them,
+     * like the one-off backfill of 0007-sales-rollups.sql. The orders count as applied at the end date.
+     */
+    private void rebuildSalesRollups(LocalDate firstDay, LocalDate endDay) throws InterruptedException {
+        List<List<String>> months = new ArrayList<>();
+        for (LocalDate from = firstDay; from.isBefore(endDay); from = from.plusMonths(1)) {
+            LocalDate to = from.plusMonths(1).isAfter(endDay) ? endDay : from.plusMonths(1);
+            months.add(List.of(
+                    "DELETE FROM product_daily_sales WHERE sales_date >= '%s' AND sales_date < '%s'".formatted(from, to),
+                    "DELETE FROM customer_daily_sales WHERE sales_date >= '%s' AND sales_date < '%s'".formatted(from, to),
+                    """
+                    INSERT INTO product_daily_sales (sales_date, product_id, units, revenue, order_count)
+                    SELECT CAST(op.order_date AS DATE), op.product_id, SUM(op.quantity), SUM(op.unit_price * op.quantity), COUNT(DISTINCT op.order_id)
+                    FROM order_products op
+                    WHERE op.order_date >= '%s' AND op.order_date < '%s'
+                    GROUP BY CAST(op.order_date AS DATE), op.product_id""".formatted(from, to),
+                    """
+                    INSERT INTO customer_daily_sales (sales_date, customer_id, units, revenue, order_count)
+                    SELECT CAST(o.order_date AS DATE), o.customer_id, COALESCE(SUM(lines.units), 0), SUM(o.total_amount), COUNT(*)
+                    FROM orders o
+                    LEFT JOIN (SELECT order_id, order_date, SUM(quantity) AS units
+                               FROM order_products
+                               WHERE order_date >= '%s' AND order_date < '%s'
+                               GROUP BY order_id, order_date) lines ON lines.order_id = o.id AND lines.order_date = o.order_date
+                    WHERE o.order_date >= '%s' AND o.order_date < '%s'
+                    GROUP BY CAST(o.order_date AS DATE), o.customer_id""".formatted(from, to, from, to),
+                    """
+                    INSERT INTO sales_rollup_orders (order_id, applied_at)
+                    SELECT id, TIMESTAMP '%s' FROM orders WHERE order_date >= '%s' AND order_date < '%s'
+                    ON CONFLICT (order_id) DO NOTHING""".formatted(endDay.atStartOfDay(), from, to)));
+        }
+        loader.executeInParallel("sales rollups", orderManagementUrl, months);
+    }
+}
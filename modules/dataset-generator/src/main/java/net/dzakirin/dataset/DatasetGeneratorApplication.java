@@ -0,0 +1,13 @@
+package net.dzakirin.dataset;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class DatasetGeneratorApplication {
+
+	public static void main(String[] args) {
+		System.exit(SpringApplication.exit(SpringApplication.run(DatasetGeneratorApplication.class, args)));
+	}
+
+}
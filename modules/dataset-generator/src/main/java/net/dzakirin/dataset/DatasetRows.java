@@ -0,0 +1,79 @@
+package net.dzakirin.dataset;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Customers and products as COPY text rows, each a function of the seed and its index. Their IDs are version 7
+ * UUIDs timestamped one millisecond apart from {@code createdFromMs}.
+ */
+@UtilityClass
+public class DatasetRows {
+
+    private static final List<String> FIRST_NAMES = List.of("Aisha", "Alex", "Amir", "Ana", "Ben", "Chen", "Chloe",
+            "Daniel", "Elena", "Emma", "Farah", "Hana", "Ivan", "James", "Jun", "Kai", "Lara", "Liam", "Maya", "Mei",
+            "Mohd", "Nadia", "Noah", "Nur", "Olivia", "Omar", "Priya", "Ravi", "Sara", "Siti", "Tom", "Wei", "Yusuf", "Zara");
+    private static final List<String> LAST_NAMES = List.of("Abdullah", "Brown", "Chan", "Costa", "Davis", "Fernandez",
+            "Garcia", "Hassan", "Ibrahim", "Ismail", "Johnson", "Kim", "Kumar", "Lee", "Lim", "Martin", "Mohamed",
+            "Nguyen", "Novak", "Ong", "Patel", "Rahman", "Rossi", "Silva", "Smith", "Tan", "Wang", "Wong", "Yusof");
+    private static final List<String> ADJECTIVES = List.of("Classic", "Compact", "Deluxe", "Eco", "Ergonomic",
+            "Essential", "Lightweight", "Portable", "Premium", "Rugged", "Slim", "Smart", "Vintage", "Wireless");
+    private static final List<String> MATERIALS = List.of("Aluminium", "Bamboo", "Ceramic", "Cotton", "Glass",
+            "Leather", "Linen", "Oak", "Plastic", "Rubber", "Silicone", "Steel", "Wool");
+    private static final List<String> NOUNS = List.of("Backpack", "Blender", "Bottle", "Chair", "Desk Lamp",
+            "Headphones", "Jacket", "Keyboard", "Kettle", "Mouse", "Mug", "Notebook", "Pan", "Pillow", "Sneakers",
+            "Speaker", "Tent", "Toaster", "Umbrella", "Wallet", "Watch", "Yoga Mat");
+
+    public static UUID customerId(long seed, long createdFromMs, int index) {
+        return Seeds.uuidV7(createdFromMs + index, Seeds.hash(seed, Seeds.CUSTOMERS, index));
+    }
+
+    public static UUID productId(long seed, long createdFromMs, int index) {
+        return Seeds.uuidV7(createdFromMs + index, Seeds.hash(seed, Seeds.PRODUCTS, index));
+    }
+
+    /**
+     * Customer with an e-mail address unique by its index.
+     */
+    public static void appendCustomer(StringBuilder rows, long seed, long createdFromMs, int index) {
+        SplittableRandom random = Seeds.random(seed, Seeds.CUSTOMERS, index);
+        String firstName = pick(FIRST_NAMES, random);
+        String lastName = pick(LAST_NAMES, random);
+        rows.append(customerId(seed, createdFromMs, index)).append('\t')
+                .append(firstName).append('\t')
+                .append(lastName).append('\t')
+                .append(firstName.toLowerCase(Locale.ROOT)).append('.').append(lastName.toLowerCase(Locale.ROOT))
+                .append('.').append(index).append("@example.com\n");
+    }
+
+    public static void appendProduct(StringBuilder rows, long seed, long createdFromMs, int index, long priceCents) {
+        SplittableRandom random = Seeds.random(seed, Seeds.PRODUCTS, index);
+        rows.append(productId(seed, createdFromMs, index)).append('\t')
+                .append(pick(ADJECTIVES, random)).append(' ').append(pick(MATERIALS, random)).append(' ')
+                .append(pick(NOUNS, random)).append('\t');
+        appendMoney(rows, priceCents).append('\t')
+                .append(random.nextInt(1_001)).append('\n');
+    }
+
+    /**
+     * Log-normal prices with a median of about 25.00, between 0.99 and 999.99.
+     */
+    public static long priceCents(long seed, int index) {
+        SplittableRandom random = Seeds.random(seed, Seeds.PRODUCTS, -1L - index);
+        long cents = Math.round(Math.exp(3.2 + 0.9 * random.nextGaussian()) * 100);
+        return Math.max(99, Math.min(99_999, cents));
+    }
+
+    public static StringBuilder appendMoney(StringBuilder rows, long cents) {
+        long fraction = cents % 100;
+        return rows.append(cents / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction);
+    }
+
+    private static String pick(List<String> values, SplittableRandom random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
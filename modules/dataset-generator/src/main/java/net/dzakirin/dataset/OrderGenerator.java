@@ -0,0 +1,80 @@
+package net.dzakirin.dataset;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Order number i as a function of the seed and i: placed evenly spread between fromMs and toMs in order of i, by a
+ * customer and of products drawn from their Zipf samplers, with 1 to maxLines distinct lines (about half the orders
+ * have one) of mostly a single unit at the product's price.
+ */
+public class OrderGenerator {
+
+    public record Line(UUID id, int productIndex, int quantity, long unitPriceCents) {
+    }
+
+    public record GeneratedOrder(UUID id, int customerIndex, long orderDateMs, long totalCents, List<Line> lines) {
+
+        public LocalDateTime orderDate() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(orderDateMs), ZoneOffset.UTC);
+        }
+    }
+
+    private final long seed;
+    private final long orderCount;
+    private final long fromMs;
+    private final long toMs;
+    private final int maxLines;
+    private final ZipfSampler customers;
+    private final ZipfSampler products;
+    private final long[] productPriceCents;
+
+    public OrderGenerator(long seed, long orderCount, long fromMs, long toMs, int maxLines,
+                          ZipfSampler customers, ZipfSampler products, long[] productPriceCents) {
+        this.seed = seed;
+        this.orderCount = orderCount;
+        this.fromMs = fromMs;
+        this.toMs = toMs;
+        this.maxLines = maxLines;
+        this.customers = customers;
+        this.products = products;
+        this.productPriceCents = productPriceCents;
+    }
+
+    public GeneratedOrder generate(long index) {
+        SplittableRandom random = Seeds.random(seed, Seeds.ORDERS, index);
+        long orderDateMs = fromMs + (long) ((index + random.nextDouble()) * (toMs - fromMs) / orderCount);
+        int customerIndex = customers.sample(random);
+
+        int lineCount = 1;
+        while (lineCount < maxLines && random.nextBoolean()) {
+            lineCount++;
+        }
+        List<Line> lines = new ArrayList<>(lineCount);
+        long totalCents = 0;
+        for (int attempt = 0; lines.size() < lineCount && attempt < lineCount * 3; attempt++) {
+            int productIndex = products.sample(random);
+            if (lines.stream().anyMatch(line -> line.productIndex() == productIndex)) {
+                continue;
+            }
+            int quantity = quantity(random);
+            long unitPriceCents = productPriceCents[productIndex];
+            lines.add(new Line(Seeds.uuidV7(orderDateMs, random.nextLong()), productIndex, quantity, unitPriceCents));
+            totalCents += quantity * unitPriceCents;
+        }
+        return new GeneratedOrder(Seeds.uuidV7(orderDateMs, random.nextLong()), customerIndex, orderDateMs, totalCents, lines);
+    }
+
+    private static int quantity(SplittableRandom random) {
+        int percentile = random.nextInt(100);
+        if (percentile < 70) {
+            return 1;
+        }
+        return percentile < 90 ? 2 : 3 + random.nextInt(3);
+    }
+}
@@ -0,0 +1,161 @@
+package net.dzakirin.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk loads through COPY FROM STDIN, splitting each step into chunks of dataset.chunk-size rows that run on
+ * dataset.threads connections at once, one transaction per chunk. Sessions skip synchronous commits and, with
+ * dataset.skip-foreign-key-checks, foreign key triggers (session_replication_role=replica, superusers only). Triggers
+ * enabled ALWAYS, like the ones filling order_ids, still fire.
+ */
+@Slf4j
+@Component
+public class PostgresLoader implements DisposableBean {
+
+    public interface Chunk {
+
+        /**
+         * Load rows [from, to) on the connection, which is committed afterwards.
+         *
+         * @return rows written to the database
+         */
+        long load(Connection connection, long from, long to) throws SQLException, IOException;
+    }
+
+    @Value("${dataset.username:postgres}")
+    private String username;
+    @Value("${dataset.password:postgres}")
+    private String password;
+    @Value("${dataset.chunk-size:20000}")
+    private int chunkSize;
+    @Value("${dataset.skip-foreign-key-checks:true}")
+    private boolean skipForeignKeyChecks;
+
+    private final ExecutorService executor;
+    private boolean foreignKeyChecksWarned;
+
+    public PostgresLoader(@Value("${dataset.threads:4}") int threads) {
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Run the chunks of rows [0, count) in parallel and wait for all of them, failing with the first failed chunk.
+     */
+    public void load(String step, String url, long count, Chunk chunk) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        AtomicLong rows = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (long from = 0; from < count; from += chunkSize) {
+            long chunkFrom = from;
+            long chunkTo = Math.min(count, from + chunkSize);
+            futures.add(executor.submit(() -> {
+                try (Connection connection = connect(url)) {
+                    rows.addAndGet(chunk.load(connection, chunkFrom, chunkTo));
+                    connection.commit();
+                }
+                return null;
+            }));
+        }
+        await(step, futures);
+        double seconds = secondsSince(startNanos);
+        log.info("{}: {} rows in {} s ({} rows/s)", step, rows.get(), "%.1f".formatted(seconds), Math.round(rows.get() / seconds));
+    }
+
+    /**
+     * Run each list of statements in a transaction of its own, the lists in parallel.
+     */
+    public void executeInParallel(String step, String url, List<List<String>> transactions) throws InterruptedException {
+        long startNanos = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<String> statements : transactions) {
+            futures.add(executor.submit(() -> {
+                execute(url, statements);
+                return null;
+            }));
+        }
+        await(step, futures);
+        log.info("{}: {} s", step, "%.1f".formatted(secondsSince(startNanos)));
+    }
+
+    /**
+     * Run one statement after the other on a single connection, in one transaction.
+     */
+    public void execute(String url, List<String> statements) throws SQLException {
+        try (Connection connection = connect(url); Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+            connection.commit();
+        }
+    }
+
+    private static void await(String step, List<Future<?>> futures) throws InterruptedException {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException(step + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static double secondsSince(long startNanos) {
+        return (System.nanoTime() - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public static long copy(Connection connection, String table, String columns, CharSequence rows) throws SQLException, IOException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        return connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY %s (%s) FROM STDIN".formatted(table, columns), new StringReader(rows.toString()));
+    }
+
+    public Connection connect(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url, username, password);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET synchronous_commit = off");
+            if (skipForeignKeyChecks) {
+                try {
+                    statement.execute("SET session_replication_role = replica");
+                } catch (SQLException e) {
+                    warnForeignKeyChecks(e);
+                }
+            }
+        }
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    private synchronized void warnForeignKeyChecks(SQLException e) {
+        if (!foreignKeyChecksWarned) {
+            foreignKeyChecksWarned = true;
+            log.warn("Foreign keys are checked, skipping them needs a superuser: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package net.dzakirin.dataset;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Randomness derived from the seed, a stream per kind of row and the row's index only, so any row can be generated
+ * on its own, on any thread, in any order, and comes out the same.
+ */
+@UtilityClass
+public class Seeds {
+
+    public static final int CUSTOMERS = 1;
+    public static final int PRODUCTS = 2;
+    public static final int ORDERS = 3;
+    public static final int LOYALTY_POINTS = 4;
+    public static final int LOYALTY_TRANSACTIONS = 5;
+    public static final int RANKS = 6;
+
+    public static SplittableRandom random(long seed, int stream, long index) {
+        return new SplittableRandom(hash(seed, stream, index));
+    }
+
+    public static long hash(long seed, int stream, long index) {
+        return mix(seed ^ mix(stream * 0x9E3779B97F4A7C15L ^ mix(index)));
+    }
+
+    /**
+     * Version 7 UUID of the given millisecond timestamp, like UuidV7 but with its counter and random bits taken from
+     * randomBits, so IDs sort by the time their rows pretend to have been created.
+     */
+    public static UUID uuidV7(long timestampMs, long randomBits) {
+        long mostSigBits = (timestampMs << 16) | 0x7000L | (randomBits >>> 52);
+        long leastSigBits = (mix(randomBits) & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
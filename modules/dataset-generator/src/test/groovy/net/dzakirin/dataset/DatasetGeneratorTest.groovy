@@ -0,0 +1,170 @@
+package net.dzakirin.dataset
+
+import org.postgresql.PGConnection
+import org.postgresql.copy.CopyManager
+import org.postgresql.core.BaseConnection
+import spock.lang.Specification
+
+import java.sql.Connection
+import java.sql.ResultSet
+import java.sql.Statement
+import java.time.LocalDateTime
+import java.util.concurrent.ConcurrentHashMap
+
+class DatasetGeneratorTest extends Specification {
+
+    def "run: should write the same rows and statements twice from the same seed and end date"() {
+        expect:
+        generate(42, "2026-10-01") == generate(42, "2026-10-01")
+    }
+
+    def "run: should write other rows from another seed"() {
+        expect:
+        generate(42, "2026-10-01")["COPY orders"] != generate(43, "2026-10-01")["COPY orders"]
+    }
+
+    def "run: should date every order, partition and rollup from the end date"() {
+        when:
+        def output = generate(42, "2025-03-01")
+
+        then:
+        def orderDates = output["COPY orders"].collect { LocalDateTime.parse(it.split("\t")[2]) }
+        orderDates.size() == 2000
+        orderDates.every { !it.isBefore(LocalDateTime.parse("2025-01-01T00:00")) && it.isBefore(LocalDateTime.parse("2025-03-01T00:00")) }
+
+        and:
+        def statements = output["statements"]
+        statements.any { it.contains("orders_2025_01 PARTITION OF orders") }
+        statements.any { it.contains("orders_2025_02 PARTITION OF orders") }
+        !statements.any { it.contains("orders_2025_03") }
+        statements.any { it.contains("TIMESTAMP '2025-03-01T00:00'") }
+        !statements.any { it.contains("CURRENT_TIMESTAMP") }
+    }
+
+    def "run: should empty order_ids with orders"() {
+        expect:
+        generate(42, "2026-10-01", 0, true)["statements"].any { it.contains("TRUNCATE order_products, orders, order_ids,") }
+    }
+
+    def "run: should check that every order got its order_ids row"() {
+        when:
+        def output = generate(42, "2026-10-01")
+
+        then:
+        output["COPY orders"].size() == 2000
+        output["queries"] == ["SELECT (SELECT count(*) FROM orders), (SELECT count(*) FROM order_ids)"]
+    }
+
+    def "run: should fail before loading loyalty data when orders are missing their order_ids rows"() {
+        when:
+        generate(42, "2026-10-01", 2000)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message.startsWith("2000 orders but 0 order_ids rows")
+    }
+
+    /**
+     * Runs the generator on stubbed connections, returning the COPY rows by table and the executed statements, sorted
+     * since chunks run in parallel.
+     */
+    private Map<String, List<String>> generate(long seed, String endDate, long missingOrderIds = 0, boolean truncate = false) {
+        def copyManager = new RecordingCopyManager(Mock(BaseConnection))
+        PGConnection pgConnection = Stub() {
+            getCopyAPI() >> copyManager
+        }
+        ResultSet loyaltyRules = Stub() {
+            next() >>> [true, false]
+            getBigDecimal(1) >> 50.00
+            getInt(2) >> 5
+        }
+        ResultSet orderIdCounts = Stub() {
+            next() >> true
+            getLong(1) >> 2000L
+            getLong(2) >> 2000L - missingOrderIds
+        }
+        def queries = Collections.synchronizedList([])
+        Statement statement = Stub() {
+            executeQuery(_) >> { String sql ->
+                if (sql.contains("order_ids")) {
+                    queries << sql
+                    return orderIdCounts
+                }
+                loyaltyRules
+            }
+        }
+        Connection connection = Stub() {
+            unwrap(PGConnection) >> pgConnection
+            createStatement() >> statement
+        }
+        def loader = new RecordingLoader(connection)
+        try {
+            def generator = new DatasetGenerator(loader)
+            generator.@orderManagementUrl = "order-management"
+            generator.@loyaltyUrl = "loyalty"
+            generator.@customerCount = 200
+            generator.@productCount = 50
+            generator.@orderCount = 2000L
+            generator.@endDate = endDate
+            generator.@months = 2
+            generator.@maxOrderLines = 4
+            generator.@productSkew = 1.0d
+            generator.@customerSkew = 0.6d
+            generator.@seed = seed
+            generator.@truncate = truncate
+            generator.run()
+        } finally {
+            loader.destroy()
+        }
+        def output = copyManager.rows.collectEntries { table, rows -> [table, rows.sort()] }
+        output["statements"] = loader.statements.sort()
+        output["queries"] = queries
+        output
+    }
+
+    static class RecordingCopyManager extends CopyManager {
+
+        final Map<String, List<String>> rows = new ConcurrentHashMap<>()
+
+        RecordingCopyManager(BaseConnection connection) {
+            super(connection)
+        }
+
+        @Override
+        long copyIn(String sql, Reader from) {
+            def lines = from.readLines()
+            rows.computeIfAbsent(sql.substring(0, sql.indexOf(" (")), { Collections.synchronizedList([]) }).addAll(lines)
+            lines.size()
+        }
+    }
+
+    static class RecordingLoader extends PostgresLoader {
+
+        final List<String> statements = Collections.synchronizedList([])
+        final Connection connection
+
+        RecordingLoader(Connection connection) {
+            super(3)
+            this.connection = connection
+            PostgresLoader.getDeclaredField("chunkSize").with {
+                accessible = true
+                set(this, 500)
+            }
+        }
+
+        @Override
+        Connection connect(String url) {
+            connection
+        }
+
+        @Override
+        void execute(String url, List<String> statements) {
+            statements.each { this.statements.add(url + ": " + it) }
+        }
+
+        @Override
+        void executeInParallel(String step, String url, List<List<String>> transactions) {
+            transactions.each { execute(url, it) }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.dzakirin.dataset
+
+import spock.lang.Specification
+
+class ZipfSamplerTest extends Specification {
+
+    static final int DRAWS = 500_000
+
+    def "sample: should draw the item of rank k in proportion to 1 / k^exponent"() {
+        given:
+        def sampler = new ZipfSampler(1000, 1.0, 42, Seeds.PRODUCTS)
+        double harmonic = (1..1000).sum { 1d / it }
+
+        when:
+        def countsByRank = counts(sampler, 1000).sort { -it }
+
+        then:
+        Math.abs(countsByRank[0] / DRAWS - 1 / harmonic) < 0.005
+        Math.abs(countsByRank[1] / DRAWS - 1 / (2 * harmonic)) < 0.005
+        Math.abs(countsByRank.take(10).sum() / DRAWS - (1..10).sum { 1d / it } / harmonic) < 0.01
+        Math.abs(countsByRank.drop(500).sum() / DRAWS - (501..1000).sum { 1d / it } / harmonic) < 0.01
+    }
+
+    def "sample: should draw uniformly with exponent 0"() {
+        given:
+        def sampler = new ZipfSampler(100, 0, 42, Seeds.CUSTOMERS)
+
+        when:
+        def counts = counts(sampler, 100)
+
+        then:
+        counts.every { Math.abs(it - DRAWS / 100) < DRAWS / 100 * 0.1 }
+    }
+
+    def "sample: should rank the items by a shuffle of the seed, not by index"() {
+        given:
+        def sampler = new ZipfSampler(1000, 1.0, 42, Seeds.PRODUCTS)
+        def sameSeed = new ZipfSampler(1000, 1.0, 42, Seeds.PRODUCTS)
+        def otherSeed = new ZipfSampler(1000, 1.0, 43, Seeds.PRODUCTS)
+
+        expect:
+        draws(sampler) == draws(sameSeed)
+        draws(sampler) != draws(otherSeed)
+        mostDrawn(sampler) != 0
+    }
+
+    private static List<Integer> counts(ZipfSampler sampler, int n) {
+        def counts = new int[n]
+        def random = new SplittableRandom(7)
+        DRAWS.times { counts[sampler.sample(random)]++ }
+        counts.toList()
+    }
+
+    private static List<Integer> draws(ZipfSampler sampler) {
+        def random = new SplittableRandom(7)
+        (1..1000).collect { sampler.sample(random) }
+    }
+
+    private static int mostDrawn(ZipfSampler sampler) {
+        def counts = counts(sampler, 1000)
+        counts.indexOf(counts.max())
+    }
+}
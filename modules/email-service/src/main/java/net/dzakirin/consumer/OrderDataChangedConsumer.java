@@ -3,10 +3,14 @@ package net.dzakirin.consumer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.common.codec.EventPayloads;
 import net.dzakirin.common.dto.event.EventWrapper;
 import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.common.latency.PipelineLatencyTracker;
 import net.dzakirin.service.OrderProcessingService;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
@@ -16,14 +20,16 @@ import org.springframework.stereotype.Service;
 public class OrderDataChangedConsumer {
     private final ObjectMapper objectMapper;
     private final OrderProcessingService orderProcessingService;
+    private final PipelineLatencyTracker pipelineLatencyTracker;
 
     @KafkaListener(
             topics = "${kafka.consumer.topic.order-data-changed}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void consume(@Payload EventWrapper<?> event) {
+    public void consume(@Payload EventWrapper<?> event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long producedAt) {
+        long consumedAt = System.currentTimeMillis();
         try {
-            OrderEvent orderEvent = objectMapper.convertValue(event.getPayload(), OrderEvent.class);
+            OrderEvent orderEvent = EventPayloads.convert(event, OrderEvent.class, objectMapper);
             log.info("Received order event: ID={}, Type={}, Source={}, Timestamp={}, Payload={}",
                     event.getEventId(),
                     event.getEventType(),
@@ -31,7 +37,9 @@ public class OrderDataChangedConsumer {
                     event.getTimestamp(),
                     orderEvent);
 
-            orderProcessingService.sendOrderConfirmationEmail(orderEvent);
+            if (orderProcessingService.sendOrderConfirmationEmail(orderEvent)) {
+                pipelineLatencyTracker.record(event, producedAt, consumedAt, System.currentTimeMillis());
+            }
         } catch (Exception e) {
             log.error("Error processing event: {}", e.getMessage(), e);
         }
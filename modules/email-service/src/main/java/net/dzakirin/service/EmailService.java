@@ -1,5 +1,7 @@
 package net.dzakirin.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dzakirin.model.EmailDetails;
@@ -16,8 +18,16 @@ public class EmailService {
     @Value("${spring.mail.username}")
     private String senderEmail;
     private final JavaMailSender javaMailSender;
+    private final MeterRegistry meterRegistry;
 
-    public void sendEmail(EmailDetails emailDetails) {
+    /**
+     * Failures are logged, not thrown. The SMTP round trip is timed as email.send, tagged outcome=success|failure.
+     *
+     * @return whether the email was sent
+     */
+    public boolean sendEmail(EmailDetails emailDetails) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
         try {
             SimpleMailMessage mailMessage = new SimpleMailMessage();
             mailMessage.setFrom(senderEmail);
@@ -26,9 +36,18 @@ public class EmailService {
             mailMessage.setText(emailDetails.getMsgBody());
 
             javaMailSender.send(mailMessage);
+            outcome = "success";
             log.info("Email sent to {}", emailDetails.getRecipient());
+            return true;
         } catch (Exception e) {
             log.error("Error while sending email: {}", e.toString());
+            return false;
+        } finally {
+            sample.stop(Timer.builder("email.send")
+                    .tag("outcome", outcome)
+                    .description("Time to hand an email to the SMTP server")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
         }
     }
 }
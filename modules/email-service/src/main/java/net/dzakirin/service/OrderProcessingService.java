@@ -8,6 +8,8 @@ import net.dzakirin.model.EmailDetails;
 import net.dzakirin.template.EmailTemplate;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -15,15 +17,16 @@ public class OrderProcessingService {
 
     private final EmailService emailService;
 
-    public void sendOrderConfirmationEmail(OrderEvent orderEvent) {
+    /**
+     * @return whether the email was sent
+     */
+    public boolean sendOrderConfirmationEmail(OrderEvent orderEvent) {
         log.info("Processing order data for emailing: CustomerId={}, OrderId={}",
                 orderEvent.getCustomerId(),
                 orderEvent.getId()
         );
 
-        double totalAmount = orderEvent.getOrderProducts().stream()
-                .mapToDouble(product -> product.getPrice().doubleValue() * product.getQuantity())
-                .sum();
+        BigDecimal totalAmount = getOrderTotal(orderEvent);
 
         EmailDetails emailDetails = EmailDetails.builder()
                 .recipient(orderEvent.getCustomerEmail())
@@ -31,8 +34,23 @@ public class OrderProcessingService {
                 .msgBody(EmailTemplate.orderConfirmationTemplate(orderEvent, totalAmount))
                 .build();
 
-        emailService.sendEmail(emailDetails);
+        if (!emailService.sendEmail(emailDetails)) {
+            return false;
+        }
         log.info("Order confirmation email has been sent to {}", emailDetails.getRecipient());
+        return true;
+    }
+
+    /**
+     * Order total carried in the event, summed from the lines only for events published before it was carried.
+     */
+    private BigDecimal getOrderTotal(OrderEvent orderEvent) {
+        if (orderEvent.getTotalAmount() != null) {
+            return orderEvent.getTotalAmount();
+        }
+        return orderEvent.getOrderProducts().stream()
+                .map(product -> product.getPrice().multiply(BigDecimal.valueOf(product.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
     public void sendLoyaltyPointsEmail(EmailRequest emailRequest) {
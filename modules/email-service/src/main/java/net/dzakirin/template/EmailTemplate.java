@@ -4,10 +4,12 @@ import lombok.experimental.UtilityClass;
 import net.dzakirin.common.dto.event.OrderEvent;
 import net.dzakirin.common.dto.request.EmailRequest;
 
+import java.math.BigDecimal;
+
 @UtilityClass
 public class EmailTemplate {
 
-    public static String orderConfirmationTemplate(OrderEvent orderEvent, double totalAmount) {
+    public static String orderConfirmationTemplate(OrderEvent orderEvent, BigDecimal totalAmount) {
         StringBuilder orderProductsInfo = new StringBuilder();
         orderEvent.getOrderProducts().forEach(product ->
                 orderProductsInfo.append("  - %s (Qty: %d) - RM %.2f\n".formatted(
@@ -0,0 +1,88 @@
+package net.dzakirin.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Creates the products and customers the traffic refers to through the order-management API: products in one CSV
+ * import with IDs from loadtest.seed, customers one by one with e-mail addresses unique to the run. One more product,
+ * the hot product, has only loadtest.hot-product-stock units, so the orders contending for it run out of stock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataSeeder {
+
+    private static final int STOCK = 1_000_000_000;
+
+    public record SeedData(List<UUID> productIds, List<UUID> customerIds, UUID hotProductId, int hotProductStock) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Value("${loadtest.seed-products:1000}")
+    private int productCount;
+    @Value("${loadtest.seed-customers:200}")
+    private int customerCount;
+    @Value("${loadtest.hot-product-stock:200}")
+    private int hotProductStock;
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    public SeedData seed(String orderManagementUrl) throws IOException, InterruptedException {
+        Random random = new Random(seed);
+        List<UUID> productIds = new ArrayList<>(productCount);
+        StringBuilder csv = new StringBuilder("id,title,price,stock\n");
+        for (int i = 0; i < productCount; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            productIds.add(id);
+            BigDecimal price = BigDecimal.valueOf(500 + random.nextInt(14_500), 2);
+            csv.append(id).append(",Load Test Product ").append(i).append(',').append(price).append(',').append(STOCK).append('\n');
+        }
+        UUID hotProductId = new UUID(random.nextLong(), random.nextLong());
+        csv.append(hotProductId).append(",Load Test Hot Product,10.00,").append(hotProductStock).append('\n');
+        post(orderManagementUrl + "/v1/products/import", "text/csv", csv.toString());
+
+        long run = System.currentTimeMillis();
+        List<UUID> customerIds = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            String customer = objectMapper.writeValueAsString(Map.of(
+                    "firstName", "Load",
+                    "lastName", "Tester " + i,
+                    "email", "load-test-%d-%d@example.com".formatted(run, i)));
+            JsonNode response = post(orderManagementUrl + "/v1/customers", "application/json", customer);
+            customerIds.add(UUID.fromString(response.path("data").path("id").asText()));
+        }
+        log.info("Seeded {} products and {} customers", productIds.size(), customerIds.size());
+        return new SeedData(productIds, customerIds, hotProductId, hotProductStock);
+    }
+
+    private JsonNode post(String url, String contentType, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding failed, POST %s returned %d: %s".formatted(url, response.statusCode(), response.body()));
+        }
+        return objectMapper.readTree(response.body());
+    }
+}
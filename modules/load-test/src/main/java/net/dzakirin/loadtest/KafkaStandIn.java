@@ -0,0 +1,37 @@
+package net.dzakirin.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.stereotype.Component;
+
+/**
+ * A single KRaft broker in the harness JVM, with the topics the services produce to and consume from.
+ */
+@Slf4j
+@Component
+public class KafkaStandIn implements DisposableBean {
+
+    @Value("${loadtest.kafka.partitions:3}")
+    private int partitions;
+
+    private EmbeddedKafkaKraftBroker broker;
+
+    /**
+     * @return bootstrap servers of the broker
+     */
+    public String start() {
+        broker = new EmbeddedKafkaKraftBroker(1, partitions, "order-data-changed", "product-cache-invalidation");
+        broker.afterPropertiesSet();
+        log.info("Kafka at {}", broker.getBrokersAsString());
+        return broker.getBrokersAsString();
+    }
+
+    @Override
+    public void destroy() {
+        if (broker != null) {
+            broker.destroy();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package net.dzakirin.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Throughput and latency percentiles of each operation and of order-to-email delivery, the orders per second the hot
+ * product sold and whether its stock was oversold, followed by the pipeline SLO
+ * the loyalty and email services measured themselves. The report is logged and written to report.txt in
+ * loadtest.output-dir next to one HdrHistogram percentile distribution (.hgrm, in milliseconds) per row, which
+ * HistogramLogAnalyzer or the online plotter can chart and compare across runs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadTestReport {
+
+    private static final double MICROS_PER_MILLI = 1_000.0;
+    private static final String ROW = "%-24s %9s %9s %9s %7s %7s %7s %8s %9s %9s %9s %9s %9s%n";
+
+    /**
+     * @param ordersAccepted hot product orders accepted, warmup included, one unit each
+     */
+    public record HotProductStock(int initialStock, int stockLeft, long ordersAccepted) {
+
+        boolean oversold() {
+            return stockLeft < 0 || ordersAccepted > initialStock;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Value("${loadtest.output-dir:target/load-test}")
+    private Path outputDir;
+
+    public void write(Map<Operation, OperationStats> stats,
+                      OrderEmailLatency orderEmailLatency,
+                      HotProductStock hotProduct,
+                      double offeredRate,
+                      long durationSeconds,
+                      ServiceProcesses services) throws IOException, InterruptedException {
+        StringBuilder report = new StringBuilder();
+        report.append("Offered %.1f requests/s for %d s%n%n".formatted(offeredRate, durationSeconds));
+        report.append(ROW.formatted("operation", "requests", "rate/s", "2xx", "4xx", "5xx", "failed", "dropped",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats operation = entry.getValue();
+            Histogram histogram = operation.histogram();
+            report.append(row(entry.getKey().getName(), histogram, durationSeconds, operation.getSuccessful(),
+                    operation.getClientErrors(), operation.getServerErrors(), operation.getFailed(), operation.getDropped()));
+            writeHistogram(entry.getKey().getName(), histogram);
+        }
+        Histogram endToEnd = orderEmailLatency.histogram();
+        report.append(row("order-to-email", endToEnd, durationSeconds, endToEnd.getTotalCount(), 0, 0,
+                orderEmailLatency.getAwaitingEmails(), 0));
+        writeHistogram("order-to-email", endToEnd);
+        report.append("%norder-to-email: failed are confirmations that never arrived, %d other emails (loyalty points) were received%n"
+                .formatted(orderEmailLatency.getOtherEmails()));
+
+        OperationStats hotProductOrders = stats.get(Operation.CREATE_HOT_PRODUCT_ORDER);
+        if (hotProductOrders != null) {
+            report.append(("%n%s: %.1f orders/s accepted on one product, %d orders accepted in all (warmup included), "
+                    + "%d of %d units sold, %d left, %s%n").formatted(Operation.CREATE_HOT_PRODUCT_ORDER.getName(),
+                    (double) hotProductOrders.getSuccessful() / durationSeconds, hotProduct.ordersAccepted(),
+                    hotProduct.initialStock() - hotProduct.stockLeft(), hotProduct.initialStock(), hotProduct.stockLeft(),
+                    hotProduct.oversold() ? "OVERSOLD" : "not oversold"));
+        }
+
+        report.append("%nloyalty-service pipeline SLO:%n%s".formatted(pipelineSlo(services.loyaltyUrl())));
+        report.append("%nemail-service pipeline SLO:%n%s".formatted(pipelineSlo(services.emailUrl())));
+
+        Files.writeString(outputDir.resolve("report.txt"), report);
+        log.info("Load test report, histograms in {}\n{}", outputDir, report);
+    }
+
+    private static String row(String name, Histogram histogram, long durationSeconds, long successful, long clientErrors,
+                              long serverErrors, long failed, long dropped) {
+        long requests = successful + clientErrors + serverErrors + failed;
+        return ROW.formatted(name, requests, "%.1f".formatted((double) requests / durationSeconds), successful, clientErrors,
+                serverErrors, failed, dropped, millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+                millis(histogram, 99.9), millis(histogram, 100));
+    }
+
+    private static String millis(Histogram histogram, double percentile) {
+        return histogram.getTotalCount() == 0 ? "-" : "%.1f".formatted(histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+    }
+
+    private void writeHistogram(String name, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(outputDir.resolve(name + ".hgrm")), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    private String pipelineSlo(String serviceUrl) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(serviceUrl + "/v1/pipeline/slo")).build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(objectMapper.readTree(response.body()).path("data"))
+                    + System.lineSeparator();
+        } catch (IOException e) {
+            return "unavailable: " + e.getMessage() + System.lineSeparator();
+        }
+    }
+}
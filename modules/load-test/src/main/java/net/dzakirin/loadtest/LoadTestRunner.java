@@ -0,0 +1,52 @@
+package net.dzakirin.loadtest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts Postgres, Kafka, the SMTP sink and the three services, seeds data, sends the traffic, waits up to
+ * loadtest.drain-seconds for the outstanding confirmation emails and reports. Everything is stopped when the
+ * application context closes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadTestRunner implements CommandLineRunner {
+
+    private final PostgresStandIn postgres;
+    private final KafkaStandIn kafka;
+    private final SmtpSink smtpSink;
+    private final ServiceProcesses services;
+    private final DataSeeder dataSeeder;
+    private final TrafficGenerator trafficGenerator;
+    private final LoadTestReport report;
+
+    @Value("${loadtest.drain-seconds:30}")
+    private long drainSeconds;
+
+    @Override
+    public void run(String... args) throws Exception {
+        OrderEmailLatency orderEmailLatency = new OrderEmailLatency();
+        String postgresUrl = postgres.start();
+        String kafkaBootstrapServers = kafka.start();
+        int smtpPort = smtpSink.start(orderEmailLatency::emailReceived);
+        services.start(postgresUrl, postgres.getUsername(), postgres.getPassword(), kafkaBootstrapServers, smtpPort);
+
+        DataSeeder.SeedData data = dataSeeder.seed(services.orderManagementUrl());
+        Map<Operation, OperationStats> stats = trafficGenerator.run(services, data, orderEmailLatency);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (orderEmailLatency.getAwaitingEmails() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(500);
+        }
+        LoadTestReport.HotProductStock hotProduct = new LoadTestReport.HotProductStock(data.hotProductStock(),
+                postgres.productStock(data.hotProductId()), trafficGenerator.getHotProductOrdersAccepted());
+        report.write(stats, orderEmailLatency, hotProduct, trafficGenerator.getRate(), trafficGenerator.getDurationSeconds(), services);
+    }
+}
@@ -0,0 +1,22 @@
+package net.dzakirin.loadtest;
+
+/**
+ * Requests the traffic is made of, named like their loadtest.mix.* weights.
+ */
+public enum Operation {
+
+    CREATE_ORDER("create-order"),
+    CREATE_HOT_PRODUCT_ORDER("create-hot-product-order"),
+    GET_PRODUCT("get-product"),
+    GET_LOYALTY_POINTS("get-loyalty-points");
+
+    private final String name;
+
+    Operation(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
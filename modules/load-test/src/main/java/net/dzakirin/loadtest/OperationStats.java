@@ -0,0 +1,74 @@
+package net.dzakirin.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Responses of one operation by status class and their latency in microseconds, measured from the moment each request
+ * was due rather than sent, so a stalled service cannot hide the requests it delayed (coordinated omission).
+ */
+public class OperationStats {
+
+    private final Recorder latency = new Recorder(3);
+    private final LongAdder successful = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private Histogram histogram;
+
+    /**
+     * @param status HTTP status, or -1 when no response arrived
+     */
+    public void record(long latencyMicros, int status) {
+        latency.recordValue(latencyMicros);
+        if (status < 0) {
+            failed.increment();
+        } else if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            successful.increment();
+        }
+    }
+
+    /**
+     * A request that was due while max-in-flight requests were outstanding, so the harness itself could not send it.
+     */
+    public void drop() {
+        dropped.increment();
+    }
+
+    /**
+     * @return every latency recorded so far, call once the traffic is over
+     */
+    public synchronized Histogram histogram() {
+        if (histogram == null) {
+            histogram = latency.getIntervalHistogram();
+        }
+        return histogram;
+    }
+
+    public long getSuccessful() {
+        return successful.sum();
+    }
+
+    public long getClientErrors() {
+        return clientErrors.sum();
+    }
+
+    public long getServerErrors() {
+        return serverErrors.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,81 @@
+package net.dzakirin.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End to end latency in microseconds from the moment an order creation was due until its confirmation email reached
+ * the SMTP sink, through the outbox, Kafka and the email service. The email can arrive before the response to the
+ * order creation is read, so whichever comes second records the latency.
+ */
+public class OrderEmailLatency {
+
+    private static final Pattern ORDER_ID = Pattern.compile("Order ID: ([0-9a-fA-F-]{36})");
+
+    private record CreatedOrder(long dueNanos, boolean measured) {
+    }
+
+    private final Map<String, CreatedOrder> awaitingEmail = new HashMap<>();
+    private final Map<String, Long> awaitingOrder = new HashMap<>();
+    private final Recorder latency = new Recorder(3);
+    private final LongAdder otherEmails = new LongAdder();
+    private Histogram histogram;
+
+    public synchronized void orderCreated(String orderId, long dueNanos, boolean measured) {
+        Long receivedNanos = awaitingOrder.remove(orderId);
+        if (receivedNanos == null) {
+            awaitingEmail.put(orderId, new CreatedOrder(dueNanos, measured));
+        } else if (measured) {
+            latency.recordValue(TimeUnit.NANOSECONDS.toMicros(receivedNanos - dueNanos));
+        }
+    }
+
+    public void emailReceived(String subject) {
+        long receivedNanos = System.nanoTime();
+        Matcher matcher = ORDER_ID.matcher(subject);
+        if (!matcher.find()) {
+            otherEmails.increment();
+            return;
+        }
+        String orderId = matcher.group(1);
+        synchronized (this) {
+            CreatedOrder order = awaitingEmail.remove(orderId);
+            if (order == null) {
+                awaitingOrder.put(orderId, receivedNanos);
+            } else if (order.measured()) {
+                latency.recordValue(TimeUnit.NANOSECONDS.toMicros(receivedNanos - order.dueNanos()));
+            }
+        }
+    }
+
+    /**
+     * @return measured orders whose confirmation email has not arrived yet
+     */
+    public synchronized long getAwaitingEmails() {
+        return awaitingEmail.values().stream().filter(CreatedOrder::measured).count();
+    }
+
+    /**
+     * @return emails other than order confirmations, i.e. loyalty points notifications
+     */
+    public long getOtherEmails() {
+        return otherEmails.sum();
+    }
+
+    /**
+     * @return every latency recorded so far, call once the emails are drained
+     */
+    public synchronized Histogram histogram() {
+        if (histogram == null) {
+            histogram = latency.getIntervalHistogram();
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,115 @@
+package net.dzakirin.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The Postgres server of the services: a Testcontainers container, or an existing server when loadtest.postgres.url is
+ * set. Either way the databases and schemas of docker/init.sql are created if they do not exist yet, the tables are
+ * left to each service's Liquibase changelog.
+ */
+@Slf4j
+@Component
+public class PostgresStandIn implements DisposableBean {
+
+    static final Map<String, String> SCHEMAS = Map.of(
+            "order_management_service_db", "order_management_service",
+            "loyalty_service_db", "loyalty_service");
+
+    @Value("${loadtest.postgres.image:postgres:alpine}")
+    private String image;
+    @Value("${loadtest.postgres.url:}")
+    private String externalUrl;
+    @Value("${loadtest.postgres.username:postgres}")
+    private String username;
+    @Value("${loadtest.postgres.password:postgres}")
+    private String password;
+
+    private PostgreSQLContainer<?> container;
+    private String serverUrl;
+
+    /**
+     * @return JDBC URL of the server without a database, e.g. jdbc:postgresql://localhost:32768/
+     */
+    public String start() throws SQLException {
+        if (externalUrl.isBlank()) {
+            container = new PostgreSQLContainer<>(DockerImageName.parse(image).asCompatibleSubstituteFor("postgres"))
+                    .withUsername(username)
+                    .withPassword(password);
+            try {
+                container.start();
+            } catch (IllegalStateException e) {
+                throw new IllegalStateException("Postgres container did not start, set loadtest.postgres.url to use an existing server", e);
+            }
+            serverUrl = "jdbc:postgresql://%s:%d/".formatted(container.getHost(), container.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT));
+        } else {
+            serverUrl = externalUrl.endsWith("/") ? externalUrl : externalUrl + "/";
+        }
+        log.info("Postgres at {}", serverUrl);
+
+        for (Map.Entry<String, String> database : SCHEMAS.entrySet()) {
+            createDatabase(database.getKey(), database.getValue());
+        }
+        return serverUrl;
+    }
+
+    /**
+     * Stock of a product as stored in the order-management database, not as cached by the service.
+     */
+    public int productStock(UUID productId) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(serverUrl + "order_management_service_db", username, password);
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT stock FROM order_management_service.products WHERE id = ?")) {
+            statement.setObject(1, productId);
+            ResultSet resultSet = statement.executeQuery();
+            if (!resultSet.next()) {
+                throw new IllegalStateException("Product " + productId + " not found");
+            }
+            return resultSet.getInt(1);
+        }
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    private void createDatabase(String database, String schema) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(serverUrl + "postgres", username, password);
+             PreparedStatement exists = connection.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?")) {
+            exists.setString(1, database);
+            if (!exists.executeQuery().next()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE DATABASE " + database);
+                }
+            }
+        }
+        try (Connection connection = DriverManager.getConnection(serverUrl + database, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS " + schema);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
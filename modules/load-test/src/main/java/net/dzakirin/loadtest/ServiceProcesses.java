@@ -0,0 +1,156 @@
+package net.dzakirin.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs order-management, loyalty and email service from their repackaged jars, one JVM each since they share the
+ * net.dzakirin packages, configured for the stand-ins through command line arguments. Their output goes to
+ * &lt;service&gt;.log in loadtest.output-dir.
+ */
+@Slf4j
+@Component
+public class ServiceProcesses implements DisposableBean {
+
+    @Value("${loadtest.services.order-management-jar}")
+    private String orderManagementJar;
+    @Value("${loadtest.services.loyalty-jar}")
+    private String loyaltyJar;
+    @Value("${loadtest.services.email-jar}")
+    private String emailJar;
+    @Value("${loadtest.services.order-management-port:10001}")
+    private int orderManagementPort;
+    @Value("${loadtest.services.email-port:10002}")
+    private int emailPort;
+    @Value("${loadtest.services.loyalty-port:10003}")
+    private int loyaltyPort;
+    @Value("${loadtest.services.jvm-options:}")
+    private String jvmOptions;
+    @Value("${loadtest.services.startup-timeout-seconds:180}")
+    private long startupTimeoutSeconds;
+    @Value("${loadtest.output-dir:target/load-test}")
+    private Path outputDir;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final Map<String, Process> processes = new LinkedHashMap<>();
+
+    public void start(String postgresUrl, String username, String password, String kafkaBootstrapServers, int smtpPort)
+            throws IOException, InterruptedException {
+        Files.createDirectories(outputDir);
+        List<String> datasource = List.of("--spring.datasource.username=" + username, "--spring.datasource.password=" + password,
+                "--datasource.replica.enabled=false");
+
+        List<String> orderManagement = new ArrayList<>(datasource);
+        orderManagement.add("--spring.datasource.url=" + postgresUrl
+                + "order_management_service_db?currentSchema=order_management_service&reWriteBatchedInserts=true");
+        orderManagement.add("--spring.kafka.producer.bootstrap-servers=" + kafkaBootstrapServers);
+        orderManagement.add("--spring.kafka.consumer.bootstrap-servers=" + kafkaBootstrapServers);
+        start("order-management-service", orderManagementJar, orderManagementPort, orderManagement);
+
+        start("email-service", emailJar, emailPort, List.of(
+                "--spring.kafka.consumer.bootstrap-servers=" + kafkaBootstrapServers,
+                "--spring.mail.host=localhost",
+                "--spring.mail.port=" + smtpPort,
+                "--spring.mail.username=load-test@localhost",
+                "--spring.mail.password=load-test",
+                "--spring.mail.properties.mail.smtp.auth=false",
+                "--spring.mail.properties.mail.smtp.starttls.enable=false"));
+
+        List<String> loyalty = new ArrayList<>(datasource);
+        loyalty.add("--spring.datasource.url=" + postgresUrl + "loyalty_service_db?currentSchema=loyalty_service");
+        loyalty.add("--spring.kafka.consumer.bootstrap-servers=" + kafkaBootstrapServers);
+        loyalty.add("--client.internal.email-service.baseurl=http://localhost:%d/v1".formatted(emailPort));
+        start("loyalty-service", loyaltyJar, loyaltyPort, loyalty);
+
+        awaitHealthy("order-management-service", orderManagementPort);
+        awaitHealthy("email-service", emailPort);
+        awaitHealthy("loyalty-service", loyaltyPort);
+    }
+
+    public String orderManagementUrl() {
+        return "http://localhost:" + orderManagementPort;
+    }
+
+    public String loyaltyUrl() {
+        return "http://localhost:" + loyaltyPort;
+    }
+
+    public String emailUrl() {
+        return "http://localhost:" + emailPort;
+    }
+
+    private void start(String service, String jar, int port, List<String> arguments) throws IOException {
+        if (!Files.isRegularFile(Path.of(jar))) {
+            throw new IllegalStateException("%s not found, build the services first".formatted(jar));
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmOptions.isBlank()) {
+            command.addAll(Arrays.asList(jvmOptions.trim().split("\\s+")));
+        }
+        command.addAll(List.of("-jar", jar, "--server.port=" + port));
+        command.addAll(arguments);
+
+        Path logFile = outputDir.resolve(service + ".log");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        processes.put(service, process);
+        log.info("Started {} on port {}, logging to {}", service, port, logFile);
+    }
+
+    private void awaitHealthy(String service, int port) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:%d/actuator/health".formatted(port)))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(startupTimeoutSeconds);
+        while (System.nanoTime() < deadline) {
+            if (!processes.get(service).isAlive()) {
+                throw new IllegalStateException("%s exited with %d, see %s".formatted(
+                        service, processes.get(service).exitValue(), outputDir.resolve(service + ".log")));
+            }
+            try {
+                if (httpClient.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    log.info("{} is up", service);
+                    return;
+                }
+            } catch (ConnectException e) {
+                // not listening yet
+            } catch (IOException e) {
+                log.warn("{} health check failed: {}", service, e.getMessage());
+            }
+            Thread.sleep(1_000);
+        }
+        throw new IllegalStateException("%s was not healthy within %d seconds, see %s".formatted(
+                service, startupTimeoutSeconds, outputDir.resolve(service + ".log")));
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        processes.values().forEach(Process::destroy);
+        for (Process process : processes.values()) {
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
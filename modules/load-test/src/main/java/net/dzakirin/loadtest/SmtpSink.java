@@ -0,0 +1,130 @@
+package net.dzakirin.loadtest;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * An SMTP server on a free local port that accepts every email without authentication and hands its decoded subject
+ * to a listener the moment the DATA command ends. Nothing is stored or relayed.
+ */
+@Slf4j
+@Component
+public class SmtpSink implements DisposableBean {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "smtp-sink");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Session session = Session.getInstance(new Properties());
+    private ServerSocket serverSocket;
+    private Consumer<String> subjectListener;
+
+    /**
+     * @return port the sink listens on
+     */
+    public int start(Consumer<String> subjectListener) {
+        this.subjectListener = subjectListener;
+        try {
+            serverSocket = new ServerSocket(0, 100, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        executor.execute(this::accept);
+        log.info("SMTP sink at localhost:{}", serverSocket.getLocalPort());
+        return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> converse(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("SMTP sink stopped accepting connections: {}", e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    private void converse(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             OutputStream out = socket.getOutputStream()) {
+            reply(out, "220 load-test SMTP sink");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase(Locale.ROOT) : line.substring(0, 4).toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        received(readData(in));
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            log.warn("SMTP sink connection failed: {}", e.getMessage());
+        }
+    }
+
+    private static byte[] readData(BufferedReader in) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        String line;
+        while ((line = in.readLine()) != null && !line.equals(".")) {
+            data.writeBytes((line.startsWith(".") ? line.substring(1) : line).getBytes(StandardCharsets.UTF_8));
+            data.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+        return data.toByteArray();
+    }
+
+    private void received(byte[] data) {
+        try {
+            String subject = new MimeMessage(session, new ByteArrayInputStream(data)).getSubject();
+            subjectListener.accept(subject == null ? "" : subject);
+        } catch (MessagingException e) {
+            log.warn("SMTP sink received an unreadable email: {}", e.getMessage());
+        }
+    }
+
+    private static void reply(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        executor.shutdownNow();
+    }
+}
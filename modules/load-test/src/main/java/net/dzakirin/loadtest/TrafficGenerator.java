@@ -0,0 +1,228 @@
+package net.dzakirin.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model traffic: requests arrive at loadtest.rate per second with exponential gaps (a Poisson process) whatever
+ * the services' response times, and each is sent without waiting for the ones before it. Which operation arrives is
+ * drawn by the loadtest.mix.* weights, and from loadtest.seed, so two runs send the same sequence of requests.
+ * Requests due during the warmup are sent but not recorded. Hot product orders are for one unit of the same product each,
+ * so they queue on its row lock.
+ */
+@Slf4j
+@Component
+public class TrafficGenerator {
+
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoTime;
+
+    @Value("${loadtest.rate:50}")
+    private double rate;
+    @Value("${loadtest.warmup-seconds:10}")
+    private long warmupSeconds;
+    @Value("${loadtest.duration-seconds:60}")
+    private long durationSeconds;
+    @Value("${loadtest.mix.create-order:20}")
+    private int createOrderWeight;
+    @Value("${loadtest.mix.create-hot-product-order:10}")
+    private int createHotProductOrderWeight;
+    @Value("${loadtest.mix.get-product:60}")
+    private int getProductWeight;
+    @Value("${loadtest.mix.get-loyalty-points:10}")
+    private int getLoyaltyPointsWeight;
+    @Value("${loadtest.max-order-lines:3}")
+    private int maxOrderLines;
+    @Value("${loadtest.max-in-flight:2000}")
+    private int maxInFlight;
+    @Value("${loadtest.request-timeout-seconds:30}")
+    private long requestTimeoutSeconds;
+    @Value("${loadtest.seed:42}")
+    private long seed;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder hotProductOrdersAccepted = new LongAdder();
+
+    @Autowired
+    public TrafficGenerator(ObjectMapper objectMapper) {
+        this(objectMapper, System::nanoTime);
+    }
+
+    TrafficGenerator(ObjectMapper objectMapper, LongSupplier nanoTime) {
+        this.objectMapper = objectMapper;
+        this.nanoTime = nanoTime;
+    }
+
+    public Map<Operation, OperationStats> run(ServiceProcesses services,
+                                              DataSeeder.SeedData data,
+                                              OrderEmailLatency orderEmailLatency) throws InterruptedException {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        List<Operation> weighted = new ArrayList<>();
+        addWeighted(weighted, Operation.CREATE_ORDER, createOrderWeight);
+        addWeighted(weighted, Operation.CREATE_HOT_PRODUCT_ORDER, createHotProductOrderWeight);
+        addWeighted(weighted, Operation.GET_PRODUCT, getProductWeight);
+        addWeighted(weighted, Operation.GET_LOYALTY_POINTS, getLoyaltyPointsWeight);
+        if (weighted.isEmpty()) {
+            throw new IllegalStateException("Every loadtest.mix.* weight is 0");
+        }
+        weighted.forEach(operation -> stats.putIfAbsent(operation, new OperationStats()));
+
+        Random random = new Random(seed);
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = nanoTime.getAsLong();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        log.info("Sending {} requests per second for {} s of warmup and {} s measured", rate, warmupSeconds, durationSeconds);
+
+        long due = start;
+        while (due < end) {
+            long wait = due - nanoTime.getAsLong();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = weighted.get(random.nextInt(weighted.size()));
+            HttpRequest request = request(operation, services, data, random);
+            boolean measured = due >= measureFrom;
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                if (measured) {
+                    stats.get(operation).drop();
+                }
+            } else {
+                long dueNanos = due;
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, error) -> completed(operation, dueNanos, measured, response, error,
+                                stats.get(operation), orderEmailLatency));
+            }
+            due += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+        }
+
+        long deadline = nanoTime.getAsLong() + TimeUnit.SECONDS.toNanos(requestTimeoutSeconds);
+        while (inFlight.get() > 0 && nanoTime.getAsLong() < deadline) {
+            Thread.sleep(100);
+        }
+        return stats;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return hot product orders the service accepted, warmup included, each took one unit of its stock
+     */
+    public long getHotProductOrdersAccepted() {
+        return hotProductOrdersAccepted.sum();
+    }
+
+    private static void addWeighted(List<Operation> weighted, Operation operation, int weight) {
+        for (int i = 0; i < weight; i++) {
+            weighted.add(operation);
+        }
+    }
+
+    private HttpRequest request(Operation operation, ServiceProcesses services, DataSeeder.SeedData data, Random random) {
+        HttpRequest.Builder request = switch (operation) {
+            case CREATE_ORDER -> HttpRequest.newBuilder(URI.create(services.orderManagementUrl() + "/v1/orders"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(orderRequest(data, random)));
+            case CREATE_HOT_PRODUCT_ORDER -> HttpRequest.newBuilder(URI.create(services.orderManagementUrl() + "/v1/orders"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(hotProductOrderRequest(data, random)));
+            case GET_PRODUCT -> HttpRequest.newBuilder(URI.create(services.orderManagementUrl() + "/v1/products/"
+                    + pick(data.productIds(), random)));
+            case GET_LOYALTY_POINTS -> HttpRequest.newBuilder(URI.create(services.loyaltyUrl() + "/v1/loyalty-points/"
+                    + pick(data.customerIds(), random)));
+        };
+        return request.timeout(Duration.ofSeconds(requestTimeoutSeconds)).build();
+    }
+
+    private String orderRequest(DataSeeder.SeedData data, Random random) {
+        int lines = 1 + random.nextInt(maxOrderLines);
+        Set<UUID> productIds = new LinkedHashSet<>();
+        while (productIds.size() < Math.min(lines, data.productIds().size())) {
+            productIds.add(pick(data.productIds(), random));
+        }
+        List<Map<String, Object>> orderProducts = new ArrayList<>();
+        for (UUID productId : productIds) {
+            orderProducts.add(Map.of("productId", productId, "quantity", 1 + random.nextInt(3)));
+        }
+        return order(pick(data.customerIds(), random), orderProducts);
+    }
+
+    private String hotProductOrderRequest(DataSeeder.SeedData data, Random random) {
+        return order(pick(data.customerIds(), random), List.of(Map.of("productId", data.hotProductId(), "quantity", 1)));
+    }
+
+    private String order(UUID customerId, List<Map<String, Object>> orderProducts) {
+        try {
+            return objectMapper.writeValueAsString(Map.of(
+                    "customerId", customerId,
+                    "orderProducts", orderProducts));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static UUID pick(List<UUID> ids, Random random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private void completed(Operation operation,
+                           long dueNanos,
+                           boolean measured,
+                           HttpResponse<String> response,
+                           Throwable error,
+                           OperationStats stats,
+                           OrderEmailLatency orderEmailLatency) {
+        try {
+            if (measured) {
+                stats.record(TimeUnit.NANOSECONDS.toMicros(nanoTime.getAsLong() - dueNanos), error == null ? response.statusCode() : -1);
+            }
+            if (error != null || operation == Operation.GET_PRODUCT || operation == Operation.GET_LOYALTY_POINTS
+                    || response.statusCode() / 100 != 2) {
+                return;
+            }
+            if (operation == Operation.CREATE_HOT_PRODUCT_ORDER) {
+                hotProductOrdersAccepted.increment();
+            }
+            String orderId = objectMapper.readTree(response.body()).path("data").path("id").asText("");
+            if (!orderId.isEmpty()) {
+                orderEmailLatency.orderCreated(orderId, dueNanos, measured);
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable order creation response: {}", e.getMessage());
+        } finally {
+            // Only once recorded, so run never returns before the stats of its last response are in
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.dzakirin.loadtest
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.sun.net.httpserver.HttpServer
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.function.LongSupplier
+
+class TrafficGeneratorTest extends Specification {
+
+    static final long STALL_AT_NANOS = TimeUnit.MILLISECONDS.toNanos(500)
+    static final long STALL_NANOS = TimeUnit.SECONDS.toNanos(1)
+
+    HttpServer server
+    ServiceProcesses services = new ServiceProcesses()
+    DataSeeder.SeedData data = new DataSeeder.SeedData([UUID.randomUUID()], [UUID.randomUUID()], UUID.randomUUID(), 100)
+    List<String> orderBodies = Collections.synchronizedList([])
+
+    def setup() {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+        server.executor = Executors.newCachedThreadPool()
+        server.createContext("/") { exchange ->
+            if (exchange.requestMethod == "POST") {
+                orderBodies << exchange.requestBody.text
+            }
+            exchange.sendResponseHeaders(200, -1)
+            exchange.close()
+        }
+        server.start()
+        services.@orderManagementPort = server.address.port
+        services.@loyaltyPort = server.address.port
+    }
+
+    def cleanup() {
+        server.stop(0)
+        server.executor.shutdownNow()
+    }
+
+    def "run: should send every request of the schedule and measure latency from when it was due, across a harness stall"() {
+        given: "a clock that jumps one second ahead half a second into the run, as if the harness itself had paused"
+        def firstRead = new AtomicLong()
+        LongSupplier clock = {
+            long now = System.nanoTime()
+            firstRead.compareAndSet(0, now)
+            now - firstRead.get() >= STALL_AT_NANOS ? now + STALL_NANOS : now
+        }
+        def generator = generator(clock, 200, 2)
+
+        when:
+        def stats = generator.run(services, data, new OrderEmailLatency())[Operation.GET_PRODUCT]
+        def histogram = stats.histogram()
+
+        then: "the requests due during the stall are still sent, late, instead of being skipped"
+        histogram.totalCount >= 300 && histogram.totalCount <= 500
+        stats.dropped == 0
+
+        and: "they count the time they waited to be sent although the server answers right away"
+        histogram.maxValue >= TimeUnit.MILLISECONDS.toMicros(900)
+        histogram.getCountBetweenValues(TimeUnit.MILLISECONDS.toMicros(500), TimeUnit.MILLISECONDS.toMicros(1100)) >= 50
+    }
+
+    def "run: should draw the same number of arrivals from the same seed"() {
+        expect:
+        arrivals() == arrivals()
+    }
+
+    def "run: should order one unit of the hot product and count the accepted orders"() {
+        given:
+        def generator = generator({ System.nanoTime() }, 100, 1)
+        generator.@getProductWeight = 0
+        generator.@createHotProductOrderWeight = 1
+
+        when:
+        def stats = generator.run(services, data, new OrderEmailLatency())[Operation.CREATE_HOT_PRODUCT_ORDER]
+
+        then:
+        stats.successful > 0
+        generator.hotProductOrdersAccepted == stats.successful
+        orderBodies.size() == stats.successful
+        orderBodies.every {
+            def order = new ObjectMapper().readTree(it)
+            order.path("orderProducts").size() == 1
+                    && order.path("orderProducts").get(0).path("productId").asText() == data.hotProductId().toString()
+                    && order.path("orderProducts").get(0).path("quantity").asInt() == 1
+        }
+    }
+
+    private long arrivals() {
+        generator({ System.nanoTime() }, 200, 1).run(services, data, new OrderEmailLatency())[Operation.GET_PRODUCT].histogram().totalCount
+    }
+
+    private static TrafficGenerator generator(LongSupplier clock, double rate, long durationSeconds) {
+        def generator = new TrafficGenerator(new ObjectMapper(), clock)
+        generator.@rate = rate
+        generator.@warmupSeconds = 0L
+        generator.@durationSeconds = durationSeconds
+        generator.@createOrderWeight = 0
+        generator.@getProductWeight = 1
+        generator.@getLoyaltyPointsWeight = 0
+        generator.@maxOrderLines = 1
+        generator.@maxInFlight = 1000
+        generator.@requestTimeoutSeconds = 5L
+        generator.@seed = 42L
+        generator
+    }
+}
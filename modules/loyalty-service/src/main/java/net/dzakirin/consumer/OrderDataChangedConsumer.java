@@ -3,10 +3,14 @@ package net.dzakirin.consumer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.common.codec.EventPayloads;
 import net.dzakirin.common.dto.event.EventWrapper;
 import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.common.latency.PipelineLatencyTracker;
 import net.dzakirin.service.RewardService;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
@@ -17,14 +21,16 @@ public class OrderDataChangedConsumer {
     
     private final ObjectMapper objectMapper;
     private final RewardService rewardService;
+    private final PipelineLatencyTracker pipelineLatencyTracker;
 
     @KafkaListener(
             topics = "${kafka.consumer.topic.order-data-changed}",
             groupId = "${spring.kafka.consumer.group-id}"
     )
-    public void consume(@Payload EventWrapper<?> event) {
+    public void consume(@Payload EventWrapper<?> event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long producedAt) {
+        long consumedAt = System.currentTimeMillis();
         try {
-            OrderEvent orderEvent = objectMapper.convertValue(event.getPayload(), OrderEvent.class);
+            OrderEvent orderEvent = EventPayloads.convert(event, OrderEvent.class, objectMapper);
             log.info("Received order event: ID={}, Type={}, Source={}, Timestamp={}, Payload={}",
                     event.getEventId(),
                     event.getEventType(),
@@ -34,6 +40,7 @@ public class OrderDataChangedConsumer {
 
             // Process Order for Loyalty Points
             rewardService.processLoyaltyPoints(orderEvent);
+            pipelineLatencyTracker.record(event, producedAt, consumedAt, System.currentTimeMillis());
         } catch (Exception e) {
             log.error("Error processing event: {}", e.getMessage(), e);
         }
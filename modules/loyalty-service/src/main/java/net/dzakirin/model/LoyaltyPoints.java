@@ -2,6 +2,7 @@ package net.dzakirin.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import net.dzakirin.common.id.UuidV7Id;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -16,7 +17,7 @@ import java.util.UUID;
 public class LoyaltyPoints {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false, unique = true)
@@ -2,6 +2,7 @@ package net.dzakirin.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import net.dzakirin.common.id.UuidV7Id;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,7 +18,7 @@ import java.util.UUID;
 public class LoyaltyRules {
 
     @Id
-    @GeneratedValue
+    @UuidV7Id
     private UUID id;
 
     @Column(nullable = false)
@@ -12,6 +12,7 @@ import net.dzakirin.repository.LoyaltyPointsRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.UUID;
 
@@ -21,6 +22,7 @@ public class LoyaltyPointsService {
 
     private final LoyaltyPointsRepository loyaltyPointsRepository;
 
+    @Transactional(readOnly = true)
     public BaseListResponse<LoyaltyPointsResponse> getAllLoyaltyPoints(Pageable pageable) {
         Page<LoyaltyPoints> loyaltyPointsPage = loyaltyPointsRepository.findAll(pageable);
 
@@ -33,6 +35,7 @@ public class LoyaltyPointsService {
                 .build();
     }
 
+    @Transactional(readOnly = true)
     public BaseResponse<LoyaltyPointsResponse> getLoyaltyPointsByCustomerId(UUID customerId) {
         LoyaltyPoints product = loyaltyPointsRepository.findByCustomerId(customerId)
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorCodes.LOYALTY_POINTS_NOT_FOUND.getMessage(customerId.toString())));
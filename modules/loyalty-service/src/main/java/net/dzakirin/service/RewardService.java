@@ -1,5 +1,7 @@
 package net.dzakirin.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.dzakirin.client.EmailClient;
@@ -13,6 +15,8 @@ import net.dzakirin.repository.LoyaltyRulesRepository;
 import net.dzakirin.repository.LoyaltyTransactionRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -27,9 +31,11 @@ public class RewardService {
     private final LoyaltyTransactionRepository loyaltyTransactionRepository;
     private final LoyaltyRulesRepository loyaltyRulesRepository;
     private final EmailClient emailClient;
+    private final MeterRegistry meterRegistry;
 
     @Transactional
     public void processLoyaltyPoints(OrderEvent orderEvent) {
+        recordProcessing();
         log.info("Processing loyalty points for OrderID={}, CustomerID={}",
                 orderEvent.getId(), orderEvent.getCustomerId());
 
@@ -44,8 +50,7 @@ public class RewardService {
                     return loyaltyPointsRepository.save(newLoyalty);
                 });
 
-        // Calculate the total order amount
-        BigDecimal orderTotal = calculateOrderTotal(orderEvent);
+        BigDecimal orderTotal = getOrderTotal(orderEvent);
 
         // Dynamically fetch applicable rule
         int pointsEarned = calculateLoyaltyPoints(orderTotal);
@@ -75,6 +80,24 @@ public class RewardService {
         }
     }
 
+    /**
+     * Time processLoyaltyPoints as loyalty.points.process until its transaction completed, tagged outcome=success
+     * when it committed and outcome=failure when it rolled back.
+     */
+    private void recordProcessing() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                sample.stop(Timer.builder("loyalty.points.process")
+                        .tag("outcome", status == STATUS_COMMITTED ? "success" : "failure")
+                        .description("Time to award the loyalty points of an order, including its commit")
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+            }
+        });
+    }
+
     /**
      * Dynamically calculate loyalty points based on the order total using the latest rule.
      */
@@ -82,18 +105,25 @@ public class RewardService {
         Optional<LoyaltyRules> rule = loyaltyRulesRepository
                 .findFirstByMinOrderAmountLessThanEqualAndRuleActiveTrue(orderTotal);
 
-        return rule.map(
-                        loyaltyRule -> {
-                            BigDecimal multiplier = orderTotal.divide(loyaltyRule.getMinOrderAmount(), BigDecimal.ROUND_DOWN);
-                            return multiplier.multiply(BigDecimal.valueOf(loyaltyRule.getPointsAwarded())).intValue();
-                        })
+        return rule.map(loyaltyRule -> calculateLoyaltyPoints(orderTotal, loyaltyRule))
                 .orElse(0);
     }
 
     /**
-     * Calculate the total order amount.
+     * Points awarded per whole multiple of the rule's minimum order amount.
      */
-    private BigDecimal calculateOrderTotal(OrderEvent orderEvent) {
+    static int calculateLoyaltyPoints(BigDecimal orderTotal, LoyaltyRules loyaltyRule) {
+        BigDecimal multiplier = orderTotal.divide(loyaltyRule.getMinOrderAmount(), BigDecimal.ROUND_DOWN);
+        return multiplier.multiply(BigDecimal.valueOf(loyaltyRule.getPointsAwarded())).intValue();
+    }
+
+    /**
+     * Order total carried in the event, summed from the lines only for events published before it was carried.
+     */
+    static BigDecimal getOrderTotal(OrderEvent orderEvent) {
+        if (orderEvent.getTotalAmount() != null) {
+            return orderEvent.getTotalAmount();
+        }
         return orderEvent.getOrderProducts().stream()
                 .map(orderProduct -> orderProduct.getPrice().multiply(BigDecimal.valueOf(orderProduct.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
@@ -0,0 +1,75 @@
+package net.dzakirin.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.dzakirin.common.datasource.ReadReplicaRoutingDataSource;
+import net.dzakirin.dto.response.OrderResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+/**
+ * Newest orders of recently active customers, the first page of their order history. Each entry holds up to
+ * {@code pageSize + 1} orders so any first page up to {@code pageSize} can be cut from it and still tell whether a
+ * next page exists. Order creation evicts the customer's entry, on every replica through
+ * {@link net.dzakirin.consumer.OrderDataChangedConsumer}.
+ */
+@Component
+public class CustomerOrdersCache {
+
+    private final Cache<UUID, List<OrderResponse>> cache;
+    private final int pageSize;
+
+    public CustomerOrdersCache(MeterRegistry meterRegistry,
+                               @Value("${customer.orders.cache.maximum-size:10000}") long maximumSize,
+                               @Value("${customer.orders.cache.expire-after-write-seconds:30}") long expireAfterWriteSeconds,
+                               @Value("${customer.orders.cache.page-size:20}") int pageSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        this.pageSize = pageSize;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "customer-orders");
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Newest orders of a customer, loading up to {@code pageSize + 1} of them from the primary on a miss, so a
+     * lagging read replica cannot cache the history from before the customer's last order.
+     */
+    public List<OrderResponse> getNewest(UUID customerId, IntFunction<List<OrderResponse>> loader) {
+        return cache.get(customerId, id -> List.copyOf(ReadReplicaRoutingDataSource.onPrimary(() -> loader.apply(pageSize + 1))));
+    }
+
+    /**
+     * Evict once the current transaction commits, so a reload cannot pick up the state before the new order.
+     */
+    public void evictAfterCommit(UUID customerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(customerId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(customerId);
+            }
+        });
+    }
+
+    public void evict(UUID customerId) {
+        cache.invalidate(customerId);
+    }
+}
@@ -0,0 +1,111 @@
+package net.dzakirin.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.dzakirin.common.datasource.ReadReplicaRoutingDataSource;
+import net.dzakirin.model.Product;
+import net.dzakirin.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-memory cache of products, shared by product reads and order creation.
+ * <p>
+ * Entries are detached copies and must not be modified. Their stock is only a snapshot for display: stock is
+ * reserved with a guarded UPDATE in the database, so a stale entry can never cause an oversell. Entries expire
+ * after a short time and are replaced or dropped when a product changes, on every replica through
+ * {@link net.dzakirin.consumer.ProductCacheInvalidationConsumer}. Misses are loaded from the primary, a lagging read
+ * replica could put the state before an eviction back for the whole expiry time.
+ */
+@Component
+public class ProductCache {
+
+    private final ProductRepository productRepository;
+    private final Cache<UUID, Product> cache;
+
+    public ProductCache(ProductRepository productRepository,
+                        MeterRegistry meterRegistry,
+                        @Value("${product.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${product.cache.expire-after-write-seconds:60}") long expireAfterWriteSeconds) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=products
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    public Optional<Product> get(UUID productId) {
+        return Optional.ofNullable(cache.get(productId, id -> ReadReplicaRoutingDataSource.onPrimary(() -> productRepository.findById(id)
+                .map(ProductCache::snapshot)
+                .orElse(null))));
+    }
+
+    /**
+     * Cached products for the given IDs, loading all misses with a single query. Unknown IDs are left out.
+     */
+    public Map<UUID, Product> getAll(Collection<UUID> productIds) {
+        return cache.getAll(productIds, missingIds -> ReadReplicaRoutingDataSource.onPrimary(() -> productRepository.findAllById(new ArrayList<>(missingIds)).stream()
+                .collect(Collectors.toMap(Product::getId, ProductCache::snapshot))));
+    }
+
+    /**
+     * Replace the entry once the current transaction commits, so a rollback never leaves uncommitted data behind.
+     */
+    public void putAfterCommit(Product product) {
+        Product snapshot = snapshot(product);
+        afterCommit(() -> cache.put(snapshot.getId(), snapshot));
+    }
+
+    public void evictAfterCommit(UUID productId) {
+        afterCommit(() -> evict(productId));
+    }
+
+    public void evict(UUID productId) {
+        cache.invalidate(productId);
+    }
+
+    public void evictAllAfterCommit(Collection<UUID> productIds) {
+        afterCommit(() -> evictAll(productIds));
+    }
+
+    public void evictAll(Collection<UUID> productIds) {
+        cache.invalidateAll(productIds);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Product snapshot(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .title(product.getTitle())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package net.dzakirin.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.dzakirin.limiter.AdaptiveConcurrencyLimiter;
+import net.dzakirin.limiter.ConcurrencyLimitInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Set;
+
+/**
+ * Admission control for the HTTP API. Order writes and reads get separate adaptive limits, so a database slowdown
+ * that backs up order creation cannot take every Tomcat worker away from the read endpoints, and the other way round.
+ * The order export streams for minutes and is left out, as are the product admin writes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    private final AdaptiveConcurrencyLimiter orderWriteLimiter;
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final long retryAfterSeconds;
+
+    public ConcurrencyLimitConfig(@Qualifier("orderWriteLimiter") AdaptiveConcurrencyLimiter orderWriteLimiter,
+                                  @Qualifier("readLimiter") AdaptiveConcurrencyLimiter readLimiter,
+                                  @Value("${limiter.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.orderWriteLimiter = orderWriteLimiter;
+        this.readLimiter = readLimiter;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(orderWriteLimiter, Set.of("POST"), retryAfterSeconds))
+                .addPathPatterns("/v1/orders", "/v1/orders/batch");
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(readLimiter, Set.of("GET"), retryAfterSeconds))
+                .addPathPatterns("/v1/**")
+                .excludePathPatterns("/v1/orders/export");
+    }
+
+    @Configuration
+    static class Limiters {
+
+        @Bean
+        AdaptiveConcurrencyLimiter orderWriteLimiter(MeterRegistry meterRegistry,
+                                                     @Value("${limiter.order-writes.initial-limit:10}") int initialLimit,
+                                                     @Value("${limiter.order-writes.min-limit:2}") int minLimit,
+                                                     @Value("${limiter.order-writes.max-limit:50}") int maxLimit,
+                                                     @Value("${limiter.order-writes.max-queue-size:25}") int maxQueueSize,
+                                                     @Value("${limiter.order-writes.max-queue-wait-ms:200}") long maxQueueWaitMs) {
+            return new AdaptiveConcurrencyLimiter("order-writes", meterRegistry, initialLimit, minLimit, maxLimit, maxQueueSize, maxQueueWaitMs);
+        }
+
+        @Bean
+        AdaptiveConcurrencyLimiter readLimiter(MeterRegistry meterRegistry,
+                                               @Value("${limiter.reads.initial-limit:20}") int initialLimit,
+                                               @Value("${limiter.reads.min-limit:5}") int minLimit,
+                                               @Value("${limiter.reads.max-limit:100}") int maxLimit,
+                                               @Value("${limiter.reads.max-queue-size:25}") int maxQueueSize,
+                                               @Value("${limiter.reads.max-queue-wait-ms:100}") long maxQueueWaitMs) {
+            return new AdaptiveConcurrencyLimiter("reads", meterRegistry, initialLimit, minLimit, maxLimit, maxQueueSize, maxQueueWaitMs);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package net.dzakirin.config;
+
+import net.dzakirin.common.codec.EventCodec;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+/**
+ * Error handling for every listener container of this service. A listener that throws gets the record redelivered
+ * with exponential backoff, and after max-retries the record is published to {topic}-dlt on the same partition and
+ * its offset is committed. Payloads that cannot be converted (IllegalArgumentException) and records that cannot be
+ * deserialized (DeserializationException from ErrorHandlingDeserializer) go to the DLT at once.
+ */
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(
+            KafkaOperations<?, ?> kafkaTemplate,
+            @Value("${kafka.consumer.retry.max-retries:4}") int maxRetries,
+            @Value("${kafka.consumer.retry.initial-interval-ms:500}") long initialIntervalMs,
+            @Value("${kafka.consumer.retry.max-interval-ms:10000}") long maxIntervalMs
+    ) {
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(maxRetries);
+        backOff.setInitialInterval(initialIntervalMs);
+        backOff.setMaxInterval(maxIntervalMs);
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(new CodecAwareDeadLetterPublishingRecoverer(kafkaTemplate), backOff);
+        errorHandler.addNotRetryableExceptions(IllegalArgumentException.class);
+        return errorHandler;
+    }
+
+    /**
+     * Dead letters are serialized again with this service's codec, which writes its own codec headers. The ones
+     * copied from the failed record are dropped so they cannot describe a payload in another encoding. Records that
+     * could not be deserialized keep them, their original bytes are published as they are.
+     */
+    static class CodecAwareDeadLetterPublishingRecoverer extends DeadLetterPublishingRecoverer {
+
+        CodecAwareDeadLetterPublishingRecoverer(KafkaOperations<?, ?> kafkaTemplate) {
+            super(kafkaTemplate);
+        }
+
+        @Override
+        protected ProducerRecord<Object, Object> createProducerRecord(ConsumerRecord<?, ?> record, TopicPartition topicPartition,
+                                                                      Headers headers, byte[] key, byte[] value) {
+            if (value == null) {
+                headers.remove(EventCodec.CODEC_HEADER);
+                headers.remove(EventCodec.SCHEMA_VERSION_HEADER);
+            }
+            return super.createProducerRecord(record, topicPartition, headers, key, value);
+        }
+    }
+}
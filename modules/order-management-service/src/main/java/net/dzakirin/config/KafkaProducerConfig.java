@@ -0,0 +1,40 @@
+package net.dzakirin.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.record.CompressionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Batching, compression and idempotence for the producer behind every KafkaTemplate. Records are held for up to
+ * linger-ms to fill batches of batch-size bytes, which are compressed as a whole; the idempotent producer (which
+ * implies acks=all) keeps the client's own retries from writing duplicates or reordering records of a partition.
+ * compression-type is checked at startup against the codecs the client knows: none, gzip, snappy, lz4 or zstd.
+ */
+@Configuration
+public class KafkaProducerConfig {
+
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer producerTuningCustomizer(
+            @Value("${kafka.producer.tuning.linger-ms:10}") long lingerMs,
+            @Value("${kafka.producer.tuning.batch-size:64KB}") DataSize batchSize,
+            @Value("${kafka.producer.tuning.compression-type:lz4}") String compressionType,
+            @Value("${kafka.producer.tuning.idempotence:true}") boolean idempotence
+    ) {
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configs.put(ProducerConfig.BATCH_SIZE_CONFIG, Math.toIntExact(batchSize.toBytes()));
+        configs.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, CompressionType.forName(compressionType).name);
+        configs.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence);
+        if (idempotence) {
+            configs.put(ProducerConfig.ACKS_CONFIG, "all");
+        }
+        return producerFactory -> producerFactory.updateConfigs(configs);
+    }
+}
@@ -10,10 +10,38 @@ public enum ErrorCodes {
     PRODUCT_PRICE_VALIDATION("Product price must be greater than or equal to zero"),
     PRODUCT_STOCK_VALIDATION("Product stock must be greater than or equal to zero"),
     INSUFFICIENT_STOCK("Insufficient stock for products: %s"),
+    PRODUCT_SEARCH_QUERY_INVALID("Search query must be between %s and %s characters"),
+    PRODUCT_SEARCH_INDEX_LOADING("Product search index is loading, please retry later"),
+    TRENDING_WINDOW_INVALID("Trending window must be between 1 and %s minutes"),
+    TRENDING_LIMIT_INVALID("Trending limit must be between 1 and %s"),
+
+    // Product import errors
+    PRODUCT_IMPORT_HEADER_INVALID("CSV header must name the columns title, price and stock, optionally id, found: %s"),
+    PRODUCT_IMPORT_RECORD_TOO_LONG("CSV record starting at line %s is longer than %s characters, check for an unclosed quote"),
+    PRODUCT_IMPORT_COLUMN_COUNT("Expected %s columns but found %s"),
+    PRODUCT_IMPORT_VALUE_MISSING("Missing %s"),
+    PRODUCT_IMPORT_VALUE_INVALID("Invalid %s: %s"),
 
     // Order error
     ORDER_NOT_FOUND("Order not found with ID: %s"),
     MINIMUM_ORDER_QUANTITY("Minimum order quantity is 1 for product: %s"),
+    ORDER_INTAKE_FULL("Order intake queue is full, please retry later"),
+    ORDER_PERSIST_FAILED("Order could not be saved, please resubmit: %s"),
+
+    // Export errors
+    EXPORT_FORMAT_INVALID("Unsupported export format: %s, expected ndjson or csv"),
+    EXPORT_RANGE_INVALID("Export start must be before its end"),
+
+    // Report errors
+    SALES_REPORT_GROUPING_INVALID("Unsupported sales report grouping: %s, expected product or customer"),
+    SALES_REPORT_RANGE_INVALID("Sales report start must not be after its end, and the range may cover at most %s days"),
+
+    // Admission control errors
+    SERVICE_OVERLOADED("Too many concurrent %s requests, please retry later"),
+
+    // Pagination errors
+    CURSOR_INVALID("Invalid pagination cursor"),
+    CURSOR_PAGE_SIZE_INVALID("Page size must be between 1 and %s"),
 
     // Customer errors
     CUSTOMER_NOT_FOUND("Customer not found with ID: %s"),
@@ -7,7 +7,11 @@ import lombok.Getter;
 @AllArgsConstructor
 public enum EventType {
 
-    ORDER_CREATED("Order created");
+    ORDER_CREATED("Order created"),
+    PRODUCT_CREATED("Product created"),
+    PRODUCT_UPDATED("Product updated"),
+    PRODUCT_DELETED("Product deleted"),
+    PRODUCTS_IMPORTED("Products imported");
 
     public final String eventName;
 }
@@ -0,0 +1,28 @@
+package net.dzakirin.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.dzakirin.exception.ValidationException;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+@Getter
+@AllArgsConstructor
+public enum ExportFormat {
+
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    public static ExportFormat from(String format) {
+        for (ExportFormat exportFormat : values()) {
+            if (exportFormat.fileExtension.equalsIgnoreCase(format)) {
+                return exportFormat;
+            }
+        }
+        throw new ValidationException(ErrorCodes.EXPORT_FORMAT_INVALID.getMessage(format));
+    }
+}
@@ -0,0 +1,10 @@
+package net.dzakirin.constant;
+
+public enum OrderStatus {
+
+    PENDING,
+    CREATED,
+    REJECTED,
+    FAILED
+
+}
@@ -0,0 +1,24 @@
+package net.dzakirin.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.dzakirin.exception.ValidationException;
+
+@Getter
+@AllArgsConstructor
+public enum SalesReportGrouping {
+
+    PRODUCT("product"),
+    CUSTOMER("customer");
+
+    private final String value;
+
+    public static SalesReportGrouping from(String groupBy) {
+        for (SalesReportGrouping grouping : values()) {
+            if (grouping.value.equalsIgnoreCase(groupBy)) {
+                return grouping;
+            }
+        }
+        throw new ValidationException(ErrorCodes.SALES_REPORT_GROUPING_INVALID.getMessage(groupBy));
+    }
+}
@@ -0,0 +1,45 @@
+package net.dzakirin.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.cache.CustomerOrdersCache;
+import net.dzakirin.common.codec.EventPayloads;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.constant.EventType;
+import net.dzakirin.trending.TrendingProductsTracker;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderDataChangedConsumer {
+
+    private final ObjectMapper objectMapper;
+    private final CustomerOrdersCache customerOrdersCache;
+    private final TrendingProductsTracker trendingProductsTracker;
+
+    /**
+     * Drops the cached newest orders of the customer and counts the units sold towards trending products on every
+     * replica, each one listens in its own consumer group.
+     */
+    @KafkaListener(
+            topics = "${kafka.consumer.topic.order-data-changed}",
+            groupId = "${spring.application.name}-customer-orders-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void consume(@Payload EventWrapper<?> event) {
+        try {
+            OrderEvent orderEvent = EventPayloads.convert(event, OrderEvent.class, objectMapper);
+            customerOrdersCache.evict(orderEvent.getCustomerId());
+            if (EventType.ORDER_CREATED.getEventName().equals(event.getEventType())) {
+                trendingProductsTracker.record(orderEvent);
+            }
+        } catch (Exception e) {
+            log.error("Error processing event: {}", e.getMessage(), e);
+        }
+    }
+}
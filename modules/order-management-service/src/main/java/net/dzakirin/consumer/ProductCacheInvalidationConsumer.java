@@ -0,0 +1,57 @@
+package net.dzakirin.consumer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.cache.ProductCache;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.search.ProductSearchIndex;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductCacheInvalidationConsumer {
+
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+
+    /**
+     * Every replica listens in its own consumer group so each one receives every invalidation, starting from
+     * the latest offset since its cache starts empty anyway.
+     */
+    @KafkaListener(
+            topics = "${kafka.consumer.topic.product-cache-invalidation}",
+            groupId = "${spring.application.name}-product-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void consume(@Payload EventWrapper<?> event) {
+        try {
+            List<UUID> productIds = productIds(event.getPayload());
+            log.debug("Evicting {} products from cache, Type={}, Source={}", productIds.size(), event.getEventType(), event.getEventSource());
+            productCache.evictAll(productIds);
+            if (productSearchIndex.appliedLocally(event.getEventId())) {
+                log.debug("Search index already reloaded for event {}", event.getEventId());
+                return;
+            }
+            productSearchIndex.reload(productIds);
+        } catch (Exception e) {
+            log.error("Error processing product cache invalidation: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The payload is a list of product IDs, or a single ID in events published before imports were batched.
+     */
+    private static List<UUID> productIds(Object payload) {
+        if (payload instanceof Collection<?> ids) {
+            return ids.stream().map(id -> UUID.fromString(String.valueOf(id))).toList();
+        }
+        return List.of(UUID.fromString(String.valueOf(payload)));
+    }
+}
@@ -0,0 +1,37 @@
+package net.dzakirin.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import net.dzakirin.common.codec.EventPayloads;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.constant.EventType;
+import net.dzakirin.service.SalesRollupService;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class SalesRollupConsumer {
+
+    private final ObjectMapper objectMapper;
+    private final SalesRollupService salesRollupService;
+
+    /**
+     * Adds created orders to the sales rollups. All replicas share one consumer group, so each event is applied once.
+     * Failures are left to the container's error handler (see KafkaConsumerConfig), which retries the record and
+     * dead-letters it when retries run out. Applying an order twice is a no-op, so redelivery is safe.
+     */
+    @KafkaListener(
+            topics = "${kafka.consumer.topic.order-data-changed}",
+            groupId = "${spring.application.name}-sales-rollup"
+    )
+    public void consume(@Payload EventWrapper<?> event) {
+        if (!EventType.ORDER_CREATED.getEventName().equals(event.getEventType())) {
+            return;
+        }
+        OrderEvent orderEvent = EventPayloads.convert(event, OrderEvent.class, objectMapper);
+        salesRollupService.applyOrderCreated(orderEvent);
+    }
+}
@@ -9,8 +9,11 @@ import lombok.RequiredArgsConstructor;
 import net.dzakirin.dto.request.CustomerUpsertRequest;
 import net.dzakirin.common.dto.response.BaseListResponse;
 import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.dto.response.CursorListResponse;
 import net.dzakirin.dto.response.CustomerResponse;
+import net.dzakirin.dto.response.OrderResponse;
 import net.dzakirin.service.CustomerService;
+import net.dzakirin.service.OrderService;
 import net.dzakirin.utils.PaginationUtils;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +27,7 @@ import java.util.UUID;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final OrderService orderService;
 
     @GetMapping
     private ResponseEntity<BaseListResponse<CustomerResponse>> getAllCustomers(
@@ -41,6 +45,30 @@ public class CustomerController {
         return ResponseEntity.ok(customerService.getAllCustomers(pageable));
     }
 
+    @Operation(summary = "Get customers with cursor pagination, ordered by email descending (no total count)")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorListResponse<CustomerResponse>> getCustomersAfter(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page, omit for the first page")
+            @RequestParam(required = false) String after,
+
+            @Parameter(description = "Page size", example = "5")
+            @RequestParam(defaultValue = "5") int size) {
+        return ResponseEntity.ok(customerService.getCustomersAfter(after, size));
+    }
+
+    @Operation(summary = "Get a customer's orders with cursor pagination, newest first")
+    @GetMapping("/{id}/orders")
+    public ResponseEntity<CursorListResponse<OrderResponse>> getCustomerOrders(
+            @PathVariable UUID id,
+
+            @Parameter(description = "Cursor returned as nextCursor by the previous page, omit for the first page")
+            @RequestParam(required = false) String after,
+
+            @Parameter(description = "Page size", example = "5")
+            @RequestParam(defaultValue = "5") int size) {
+        return ResponseEntity.ok(orderService.getCustomerOrders(id, after, size));
+    }
+
     @Operation(summary = "Create a new customer")
     @PostMapping
     public ResponseEntity<BaseResponse<CustomerResponse>> createCustomer(@Valid @RequestBody CustomerUpsertRequest customerUpsertRequest) {
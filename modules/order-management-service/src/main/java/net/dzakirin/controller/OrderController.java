@@ -6,16 +6,30 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import net.dzakirin.dto.request.OrderBatchRequest;
 import net.dzakirin.dto.request.OrderRequest;
 import net.dzakirin.common.dto.response.BaseListResponse;
 import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.dto.response.CursorListResponse;
+import net.dzakirin.dto.response.OrderBatchResponse;
 import net.dzakirin.dto.response.OrderResponse;
+import net.dzakirin.constant.ExportFormat;
+import net.dzakirin.constant.OrderStatus;
+import net.dzakirin.service.OrderExportService;
+import net.dzakirin.service.OrderIntakeService;
 import net.dzakirin.service.OrderService;
+import net.dzakirin.utils.ContentEncodingUtils;
 import net.dzakirin.utils.PaginationUtils;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @RestController
@@ -24,6 +38,8 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderExportService orderExportService;
 
     @Operation(summary = "Get all orders with pagination")
     @GetMapping
@@ -42,16 +58,70 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getAllOrders(pageable));
     }
 
+    @Operation(summary = "Get orders with cursor pagination, ordered by order date descending (no total count)")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorListResponse<OrderResponse>> getOrdersAfter(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page, omit for the first page")
+            @RequestParam(required = false) String after,
 
-    @Operation(summary = "Get order by ID")
+            @Parameter(description = "Page size", example = "5")
+            @RequestParam(defaultValue = "5") int size) {
+        return ResponseEntity.ok(orderService.getOrdersAfter(after, size));
+    }
+
+
+    @Operation(summary = "Stream all order lines as NDJSON or CSV, gzip compressed when the client accepts it")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Export format", schema = @Schema(allowableValues = {"ndjson", "csv"}))
+            @RequestParam(defaultValue = "ndjson") String format,
+
+            @Parameter(description = "Orders placed at or after this time", example = "2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+
+            @Parameter(description = "Orders placed before this time", example = "2025-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        orderExportService.validateRange(from, to);
+        boolean gzip = ContentEncodingUtils.acceptsGzip(acceptEncoding);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("orders." + exportFormat.getFileExtension())
+                        .build()
+                        .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(outputStream -> orderExportService.export(exportFormat, from, to, gzip, outputStream));
+    }
+
+    @Operation(summary = "Get order by ID (202 while an asynchronously accepted order is still pending)")
     @GetMapping("/{id}")
     public ResponseEntity<BaseResponse<OrderResponse>> getOrderById(@PathVariable UUID id) {
-        return ResponseEntity.ok(orderService.getOrderById(id));
+        return orderIntakeService.getStatus(id)
+                .map(response -> ResponseEntity
+                        .status(response.getData().getStatus() == OrderStatus.PENDING ? HttpStatus.ACCEPTED : HttpStatus.OK)
+                        .body(response))
+                .orElseGet(() -> ResponseEntity.ok(orderService.getOrderById(id)));
     }
 
-    @Operation(summary = "Create a new order")
+    @Operation(summary = "Create a new order (202 with a pending order ID when asynchronous intake is enabled)")
     @PostMapping
     public ResponseEntity<BaseResponse<OrderResponse>> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
+        if (orderIntakeService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(orderIntakeService.submit(orderRequest));
+        }
         return ResponseEntity.ok(orderService.createOrder(orderRequest));
     }
+
+    @Operation(summary = "Create multiple orders at once, reporting success or failure per order")
+    @PostMapping("/batch")
+    public ResponseEntity<BaseResponse<OrderBatchResponse>> createOrders(@Valid @RequestBody OrderBatchRequest orderBatchRequest) {
+        return ResponseEntity.ok(orderService.createOrders(orderBatchRequest));
+    }
 }
@@ -3,20 +3,30 @@ package net.dzakirin.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import net.dzakirin.dto.request.ProductRequest;
 import net.dzakirin.common.dto.response.BaseListResponse;
 import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.dto.response.CursorListResponse;
+import net.dzakirin.dto.response.ProductImportResponse;
 import net.dzakirin.dto.response.ProductResponse;
+import net.dzakirin.dto.response.TrendingProductResponse;
+import net.dzakirin.service.ProductImportService;
+import net.dzakirin.service.ProductSearchService;
 import net.dzakirin.service.ProductService;
 import net.dzakirin.utils.PaginationUtils;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequiredArgsConstructor
@@ -24,6 +34,8 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductImportService productImportService;
 
     @Operation(summary = "Get all products with pagination")
     @GetMapping
@@ -42,6 +54,39 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts(pageable));
     }
 
+    @Operation(summary = "Get products with cursor pagination, ordered by title descending (no total count)")
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorListResponse<ProductResponse>> getProductsAfter(
+            @Parameter(description = "Cursor returned as nextCursor by the previous page, omit for the first page")
+            @RequestParam(required = false) String after,
+
+            @Parameter(description = "Page size", example = "5")
+            @RequestParam(defaultValue = "5") int size) {
+        return ResponseEntity.ok(productService.getProductsAfter(after, size));
+    }
+
+    @Operation(summary = "Search products by title, matching word prefixes and small typos, most relevant first")
+    @GetMapping("/search")
+    public ResponseEntity<BaseListResponse<ProductResponse>> searchProducts(
+            @Parameter(description = "Search text, at least 2 characters", example = "java")
+            @RequestParam("q") String query,
+
+            @Parameter(description = "Maximum number of products", example = "10")
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(productSearchService.searchProducts(query, size));
+    }
+
+    @Operation(summary = "Get the best-selling products of the last few minutes (approximate, per replica)")
+    @GetMapping("/trending")
+    public ResponseEntity<BaseListResponse<TrendingProductResponse>> getTrendingProducts(
+            @Parameter(description = "Window in minutes, up to 60", example = "5")
+            @RequestParam(defaultValue = "5") int window,
+
+            @Parameter(description = "Number of products", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.getTrendingProducts(window, limit));
+    }
+
     @Operation(summary = "Get product by ID")
     @GetMapping("/{id}")
     public ResponseEntity<BaseResponse<ProductResponse>> getProductById(@PathVariable UUID id) {
@@ -54,6 +99,18 @@ public class ProductController {
         return ResponseEntity.ok(productService.createProduct(productRequest));
     }
 
+    @Operation(summary = "Create or update products from a CSV with the columns title, price, stock and optionally id, "
+            + "reporting rejected rows. Send Content-Encoding: gzip to upload it compressed")
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(mediaType = "text/csv",
+            schema = @Schema(type = "string", example = "id,title,price,stock\n,Java Programming Book,39.90,100")))
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain", "application/octet-stream"})
+    public ResponseEntity<BaseResponse<ProductImportResponse>> importProducts(
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) throws IOException {
+        InputStream csv = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+        return ResponseEntity.ok(productImportService.importProducts(csv));
+    }
+
     @Operation(summary = "Update an existing product (supports partial update)")
     @PutMapping("/{id}")
     public ResponseEntity<BaseResponse<ProductResponse>> updateProduct(
@@ -0,0 +1,40 @@
+package net.dzakirin.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.RequiredArgsConstructor;
+import net.dzakirin.common.dto.response.BaseListResponse;
+import net.dzakirin.constant.SalesReportGrouping;
+import net.dzakirin.dto.response.DailySalesResponse;
+import net.dzakirin.service.SalesReportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/v1/reports")
+public class ReportController {
+
+    private final SalesReportService salesReportService;
+
+    @Operation(summary = "Get units, revenue and order count per day for each product or customer, from the sales rollups")
+    @GetMapping("/sales")
+    public ResponseEntity<BaseListResponse<DailySalesResponse>> getSales(
+            @Parameter(description = "First day of the report", example = "2025-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+
+            @Parameter(description = "Last day of the report (inclusive)", example = "2025-01-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+
+            @Parameter(description = "Report grouping", schema = @Schema(allowableValues = {"product", "customer"}))
+            @RequestParam(defaultValue = "product") String groupBy) {
+        return ResponseEntity.ok(salesReportService.getSales(SalesReportGrouping.from(groupBy), from, to));
+    }
+}
@@ -0,0 +1,28 @@
+package net.dzakirin.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One day of sales for either a product or a customer, depending on the report grouping.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DailySalesResponse {
+    private LocalDate salesDate;
+    private UUID productId;
+    private UUID customerId;
+    private long units;
+    private BigDecimal revenue;
+    private long orderCount;
+}
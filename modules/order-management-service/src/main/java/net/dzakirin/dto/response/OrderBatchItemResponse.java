@@ -0,0 +1,20 @@
+package net.dzakirin.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchItemResponse {
+    /**
+     * Position of the order in the batch request.
+     */
+    private int index;
+    private boolean success;
+    private String message;
+    private OrderResponse order;
+}
@@ -0,0 +1,19 @@
+package net.dzakirin.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchResponse {
+    private int totalOrders;
+    private int successfulOrders;
+    private int failedOrders;
+    private List<OrderBatchItemResponse> results;
+}
@@ -5,6 +5,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
 @Data
@@ -15,4 +16,5 @@ public class OrderProductResponse {
     private UUID productId;
     private String productTitle;
     private int quantity;
+    private BigDecimal unitPrice;
 }
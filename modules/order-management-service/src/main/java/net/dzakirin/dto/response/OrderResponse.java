@@ -5,7 +5,9 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import net.dzakirin.constant.OrderStatus;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -16,8 +18,10 @@ import java.util.UUID;
 @AllArgsConstructor
 public class OrderResponse {
     private UUID id;
+    private OrderStatus status;
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss.SSS")
     private LocalDateTime orderDate;
     private UUID customerId;
+    private BigDecimal totalAmount;
     private List<OrderProductResponse> orderProducts;
 }
@@ -0,0 +1,18 @@
+package net.dzakirin.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportRejectionResponse {
+    /**
+     * Line of the file the row starts on, the header being line 1.
+     */
+    private long lineNumber;
+    private String message;
+}
@@ -0,0 +1,30 @@
+package net.dzakirin.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+    /**
+     * Data rows read from the file, excluding the header and blank lines.
+     */
+    private long totalRows;
+    private long createdProducts;
+    private long updatedProducts;
+    /**
+     * Valid rows identical to the stored product, or superseded by a later row with the same ID.
+     */
+    private long unchangedRows;
+    private long rejectedRows;
+    /**
+     * The first rejected rows, up to product.import.max-reported-rejections.
+     */
+    private List<ProductImportRejectionResponse> rejections;
+}
@@ -0,0 +1,21 @@
+package net.dzakirin.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingProductResponse {
+    private UUID productId;
+    private String productTitle;
+    /**
+     * Estimated units sold in the window, never below the true count.
+     */
+    private long units;
+}
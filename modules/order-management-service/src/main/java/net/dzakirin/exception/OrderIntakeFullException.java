@@ -0,0 +1,11 @@
+package net.dzakirin.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrderIntakeFullException extends RuntimeException {
+    public OrderIntakeFullException(String message) {
+        super(message);
+    }
+}
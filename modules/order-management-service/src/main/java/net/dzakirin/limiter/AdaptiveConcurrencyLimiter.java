@@ -0,0 +1,287 @@
+package net.dzakirin.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows the latency of the protected calls, in the style of TCP Vegas.
+ * <p>
+ * Each call's latency is compared with the no-load latency (the lowest seen) to estimate how many of the concurrent
+ * calls are queueing downstream, limit x (1 - noLoad / latency). Below log10(limit) queued calls the limit grows, above
+ * 6 x log10(limit) it shrinks, so it settles just above the concurrency the database actually serves in parallel.
+ * The no-load latency is measured again every ~30 x limit calls, so a database that became slower for good sets a new
+ * baseline instead of pinning the limit at min-limit. Failed calls (5xx) cut the limit by 10% at once.
+ * <p>
+ * While the limit is reached, callers wait in a bounded FIFO queue for at most max-queue-wait-ms, and are rejected at
+ * once when the queue is full, so blocked threads never pile up behind a slow dependency.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int PROBE_MULTIPLIER = 30;
+
+    @Getter
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final long maxQueueWaitNanos;
+    private final LongSupplier nanoTime;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private double noLoadRttNanos;
+    private long samplesUntilProbe;
+    private int inflight;
+    private int queued;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter timedOutCounter;
+    private final Timer queueWaitTimer;
+
+    public AdaptiveConcurrencyLimiter(String name, MeterRegistry meterRegistry, int initialLimit, int minLimit, int maxLimit,
+                                      int maxQueueSize, long maxQueueWaitMs) {
+        this(name, meterRegistry, initialLimit, minLimit, maxLimit, maxQueueSize, maxQueueWaitMs, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, MeterRegistry meterRegistry, int initialLimit, int minLimit, int maxLimit,
+                               int maxQueueSize, long maxQueueWaitMs, LongSupplier nanoTime) {
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs);
+        this.nanoTime = nanoTime;
+        resetProbe();
+
+        Gauge.builder("concurrency.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("limiter", name)
+                .description("Current concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limiter.inflight", this, AdaptiveConcurrencyLimiter::getInflight)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limiter.queued", this, AdaptiveConcurrencyLimiter::getQueued)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limiter.no.load.latency", this, limiter -> limiter.getNoLoadRttNanos() / 1e6)
+                .tag("limiter", name)
+                .description("Latency in milliseconds without queueing, the limit is measured against")
+                .register(meterRegistry);
+        this.acceptedCounter = outcomeCounter(meterRegistry, "accepted");
+        this.rejectedCounter = outcomeCounter(meterRegistry, "rejected");
+        this.timedOutCounter = outcomeCounter(meterRegistry, "timed_out");
+        this.queueWaitTimer = Timer.builder("concurrency.limiter.queue.wait")
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A permit to run one call, waiting in the queue if the limit is reached. Empty when the queue is full or the
+     * wait timed out; the caller should then shed the request.
+     */
+    public Optional<Permit> tryAcquire() {
+        lock.lock();
+        try {
+            if (inflight < (int) limit && queued == 0) {
+                return Optional.of(grant());
+            }
+            if (queued >= maxQueueSize) {
+                rejectedCounter.increment();
+                return Optional.empty();
+            }
+
+            long queuedAt = nanoTime.getAsLong();
+            long remainingNanos = maxQueueWaitNanos;
+            queued++;
+            try {
+                while (inflight >= (int) limit) {
+                    if (remainingNanos <= 0) {
+                        timedOutCounter.increment();
+                        return Optional.empty();
+                    }
+                    remainingNanos = permitReleased.awaitNanos(remainingNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                timedOutCounter.increment();
+                return Optional.empty();
+            } finally {
+                queued--;
+            }
+            queueWaitTimer.record(nanoTime.getAsLong() - queuedAt, TimeUnit.NANOSECONDS);
+            return Optional.of(grant());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double getNoLoadRttNanos() {
+        lock.lock();
+        try {
+            return noLoadRttNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit grant() {
+        inflight++;
+        acceptedCounter.increment();
+        return new Permit(nanoTime.getAsLong(), inflight);
+    }
+
+    private void release(Permit permit, Outcome outcome) {
+        long rttNanos = nanoTime.getAsLong() - permit.startNanos;
+        lock.lock();
+        try {
+            inflight--;
+            switch (outcome) {
+                case SUCCESS -> onSample(rttNanos, permit.inflightAtStart);
+                case DROPPED -> limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                case IGNORED -> {
+                }
+            }
+            // The limit may have grown, wake every waiter that now fits
+            int available = (int) limit - inflight;
+            for (int i = 0; i < Math.min(available, queued); i++) {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onSample(long rttNanos, int inflightAtStart) {
+        double rtt = Math.max(rttNanos, 1);
+        if (--samplesUntilProbe <= 0) {
+            resetProbe();
+            noLoadRttNanos = rtt;
+            return;
+        }
+        if (noLoadRttNanos == 0 || rtt < noLoadRttNanos) {
+            noLoadRttNanos = rtt;
+            return;
+        }
+        // Too little traffic to say anything about the limit
+        if (inflightAtStart * 2 < limit) {
+            return;
+        }
+
+        double log = Math.max(1, Math.log10(limit));
+        double queueing = Math.ceil(limit * (1 - noLoadRttNanos / rtt));
+        double newLimit;
+        if (queueing <= log) {
+            newLimit = limit + 6 * log;
+        } else if (queueing < 3 * log) {
+            newLimit = limit + log;
+        } else if (queueing > 6 * log) {
+            newLimit = limit - log;
+        } else {
+            return;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * Jittered so replicas do not all measure at once.
+     */
+    private void resetProbe() {
+        samplesUntilProbe = (long) (PROBE_MULTIPLIER * limit * ThreadLocalRandom.current().nextDouble(0.5, 1));
+    }
+
+    private Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("concurrency.limiter.requests")
+                .tag("limiter", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private enum Outcome {
+        SUCCESS, DROPPED, IGNORED
+    }
+
+    /**
+     * Must be released exactly once, with the outcome of the call.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inflightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, int inflightAtStart) {
+            this.startNanos = startNanos;
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /**
+         * The call completed, its latency adjusts the limit.
+         */
+        public void onSuccess() {
+            release(Outcome.SUCCESS);
+        }
+
+        /**
+         * The call failed because of overload, such as a database timeout. The limit backs off.
+         */
+        public void onDropped() {
+            release(Outcome.DROPPED);
+        }
+
+        /**
+         * The call ended early for a reason unrelated to load, such as a validation error. The limit is unchanged.
+         */
+        public void onIgnored() {
+            release(Outcome.IGNORED);
+        }
+
+        private void release(Outcome outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            AdaptiveConcurrencyLimiter.this.release(this, outcome);
+        }
+    }
+}
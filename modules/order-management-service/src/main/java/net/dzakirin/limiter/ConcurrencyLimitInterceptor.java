@@ -0,0 +1,57 @@
+package net.dzakirin.limiter;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.dzakirin.constant.ErrorCodes;
+import net.dzakirin.exception.ServiceOverloadedException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Runs the matched requests under an {@link AdaptiveConcurrencyLimiter}, answering 503 with Retry-After when it sheds
+ * them. Responses with a 5xx status count as dropped calls, 4xx ones are ignored by the limit.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Set<String> methods;
+    private final long retryAfterSeconds;
+    private final String permitAttribute;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter, Set<String> methods, long retryAfterSeconds) {
+        this.limiter = limiter;
+        this.methods = methods;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permitAttribute = ConcurrencyLimitInterceptor.class.getName() + "." + limiter.getName();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async dispatch still holds the permit taken by the original request
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !methods.contains(request.getMethod())) {
+            return true;
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire()
+                .orElseThrow(() -> new ServiceOverloadedException(
+                        ErrorCodes.SERVICE_OVERLOADED.getMessage(limiter.getName()), retryAfterSeconds));
+        request.setAttribute(permitAttribute, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(permitAttribute) instanceof AdaptiveConcurrencyLimiter.Permit permit)) {
+            return;
+        }
+        request.removeAttribute(permitAttribute);
+        if (ex != null || response.getStatus() >= 500) {
+            permit.onDropped();
+        } else if (response.getStatus() >= 400) {
+            permit.onIgnored();
+        } else {
+            permit.onSuccess();
+        }
+    }
+}
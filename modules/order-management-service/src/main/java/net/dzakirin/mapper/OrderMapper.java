@@ -3,6 +3,7 @@ package net.dzakirin.mapper;
 import lombok.experimental.UtilityClass;
 import net.dzakirin.common.dto.event.OrderEvent;
 import net.dzakirin.common.dto.event.OrderProductEvent;
+import net.dzakirin.constant.OrderStatus;
 import net.dzakirin.dto.response.OrderProductResponse;
 import net.dzakirin.dto.response.OrderResponse;
 import net.dzakirin.model.Order;
@@ -21,8 +22,10 @@ public class OrderMapper {
 
         return OrderResponse.builder()
                 .id(order.getId())
+                .status(OrderStatus.CREATED)
                 .customerId(order.getCustomer().getId())
                 .orderDate(order.getOrderDate())
+                .totalAmount(order.getTotalAmount())
                 .orderProducts(toOrderProductResponseList(order.getOrderProducts()))
                 .build();
     }
@@ -45,6 +48,7 @@ public class OrderMapper {
                     .productId(null)
                     .productTitle("Unknown Product")
                     .quantity(0)
+                    .unitPrice(BigDecimal.ZERO)
                     .build();
         }
 
@@ -52,6 +56,7 @@ public class OrderMapper {
                 .productId(orderProduct.getProduct().getId())
                 .productTitle(orderProduct.getProduct().getTitle())
                 .quantity(orderProduct.getQuantity())
+                .unitPrice(orderProduct.getUnitPrice())
                 .build();
     }
 
@@ -65,6 +70,7 @@ public class OrderMapper {
                 .customerId(order.getCustomer().getId())
                 .customerEmail(order.getCustomer().getEmail())
                 .orderDate(order.getOrderDate())
+                .totalAmount(order.getTotalAmount())
                 .orderProducts(toOrderProductEventList(order.getOrderProducts()))
                 .build();
     }
@@ -89,7 +95,7 @@ public class OrderMapper {
                 .productId(orderProduct.getProduct().getId())
                 .productTitle(orderProduct.getProduct().getTitle())
                 .quantity(orderProduct.getQuantity())
-                .price(orderProduct.getProduct().getPrice())
+                .price(orderProduct.getUnitPrice())
                 .build();
     }
 }
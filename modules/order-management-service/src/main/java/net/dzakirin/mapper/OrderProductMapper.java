@@ -7,6 +7,7 @@ import net.dzakirin.model.Order;
 import net.dzakirin.model.OrderProduct;
 import net.dzakirin.model.Product;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -14,12 +15,29 @@ import java.util.UUID;
 @UtilityClass
 public class OrderProductMapper {
 
+    /**
+     * Order lines without a unit price, see {@link #applyUnitPrices(List, Map)}.
+     */
     public static List<OrderProduct> toOrderProductList(OrderRequest orderRequest, Order order, Map<UUID, Product> productMap) {
         return orderRequest.getOrderProducts().stream()
                 .map(request -> toOrderProduct(request, order, productMap))
                 .toList();
     }
 
+    /**
+     * Fix the unit price of every line. Prices must come from the product rows locked by the stock deduction, the
+     * products the lines were built from may be cached and stale.
+     */
+    public static void applyUnitPrices(List<OrderProduct> orderProducts, Map<UUID, BigDecimal> unitPrices) {
+        orderProducts.forEach(orderProduct -> orderProduct.setUnitPrice(unitPrices.get(orderProduct.getProduct().getId())));
+    }
+
+    public static BigDecimal calculateTotalAmount(List<OrderProduct> orderProducts) {
+        return orderProducts.stream()
+                .map(orderProduct -> orderProduct.getUnitPrice().multiply(BigDecimal.valueOf(orderProduct.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     private static OrderProduct toOrderProduct(OrderProductRequest request, Order order, Map<UUID, Product> productMap) {
         Product product = productMap.get(request.getProductId());
         return OrderProduct.builder()
@@ -3,6 +3,7 @@ package net.dzakirin.mapper;
 import lombok.experimental.UtilityClass;
 import net.dzakirin.dto.request.ProductRequest;
 import net.dzakirin.dto.response.ProductResponse;
+import net.dzakirin.dto.response.TrendingProductResponse;
 import net.dzakirin.model.Product;
 
 import java.util.List;
@@ -40,4 +41,12 @@ public class ProductMapper {
                 .stock(productRequest.getStock())
                 .build();
     }
+
+    public static TrendingProductResponse toTrendingProductResponse(Product product, long units) {
+        return TrendingProductResponse.builder()
+                .productId(product.getId())
+                .productTitle(product.getTitle())
+                .units(units)
+                .build();
+    }
 }
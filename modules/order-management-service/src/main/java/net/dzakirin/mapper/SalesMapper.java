@@ -0,0 +1,30 @@
+package net.dzakirin.mapper;
+
+import lombok.experimental.UtilityClass;
+import net.dzakirin.dto.response.DailySalesResponse;
+import net.dzakirin.model.CustomerDailySales;
+import net.dzakirin.model.ProductDailySales;
+
+@UtilityClass
+public class SalesMapper {
+
+    public static DailySalesResponse toDailySalesResponse(ProductDailySales productDailySales) {
+        return DailySalesResponse.builder()
+                .salesDate(productDailySales.getSalesDate())
+                .productId(productDailySales.getProductId())
+                .units(productDailySales.getUnits())
+                .revenue(productDailySales.getRevenue())
+                .orderCount(productDailySales.getOrderCount())
+                .build();
+    }
+
+    public static DailySalesResponse toDailySalesResponse(CustomerDailySales customerDailySales) {
+        return DailySalesResponse.builder()
+                .salesDate(customerDailySales.getSalesDate())
+                .customerId(customerDailySales.getCustomerId())
+                .units(customerDailySales.getUnits())
+                .revenue(customerDailySales.getRevenue())
+                .orderCount(customerDailySales.getOrderCount())
+                .build();
+    }
+}
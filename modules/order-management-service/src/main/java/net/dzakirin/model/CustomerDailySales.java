@@ -0,0 +1,46 @@
+package net.dzakirin.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Sales of one customer on one day, maintained from order events by SalesRollupService.
+ */
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "customer_daily_sales")
+@IdClass(CustomerDailySales.Key.class)
+public class CustomerDailySales {
+
+    @Id
+    private LocalDate salesDate;
+
+    @Id
+    private UUID customerId;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private UUID customerId;
+    }
+}
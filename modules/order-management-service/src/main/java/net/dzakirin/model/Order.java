@@ -2,7 +2,10 @@ package net.dzakirin.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import net.dzakirin.common.id.UuidV7Id;
+import org.springframework.data.domain.Persistable;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
@@ -15,19 +18,44 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "orders")
-public class Order {
+public class Order implements Persistable<UUID> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id(allowAssigned = true)
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
     @Column(nullable = false)
     private LocalDateTime orderDate = LocalDateTime.now();
 
+    /**
+     * Sum of quantity times unit price over the order lines, fixed when the order is placed.
+     */
+    @Column(nullable = false, updatable = false)
+    private BigDecimal totalAmount;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL)
     private List<OrderProduct> orderProducts;
+
+    /**
+     * Orders accepted asynchronously get their ID before they are saved, so a non-null ID does not mean the order
+     * already exists. This flag lets Spring Data persist them directly instead of merging (which costs a SELECT).
+     */
+    @Transient
+    @Builder.Default
+    private boolean persisted = false;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
 }
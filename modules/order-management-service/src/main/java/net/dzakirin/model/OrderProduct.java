@@ -2,7 +2,10 @@ package net.dzakirin.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import net.dzakirin.common.id.UuidV7Id;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Builder
@@ -15,17 +18,34 @@ import java.util.UUID;
 public class OrderProduct {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @UuidV7Id
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
     @Column(nullable = false)
     private int quantity;
+
+    /**
+     * Product price at the time the order was placed.
+     */
+    @Column(nullable = false, updatable = false)
+    private BigDecimal unitPrice;
+
+    /**
+     * Copy of the order date, the partition key of order_products and part of its foreign key to orders.
+     */
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime orderDate;
+
+    @PrePersist
+    private void copyOrderDate() {
+        orderDate = order.getOrderDate();
+    }
 }
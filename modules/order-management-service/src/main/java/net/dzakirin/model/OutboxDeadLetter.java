@@ -0,0 +1,44 @@
+package net.dzakirin.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An outbox event the relay could not send, kept with the reason so it can be repaired and re-inserted into the outbox.
+ */
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_dead_letters")
+public class OutboxDeadLetter {
+
+    @Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private String eventKey;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,40 @@
+package net.dzakirin.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import net.dzakirin.common.id.UuidV7Id;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox")
+public class OutboxEvent {
+
+    @Id
+    @UuidV7Id
+    private UUID id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    @Column(nullable = false)
+    private String eventKey;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    /**
+     * Serialized EventWrapper, exactly as it will be sent to Kafka.
+     */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,47 @@
+package net.dzakirin.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Sales of one product on one day, maintained from order events by SalesRollupService. The order count is the number
+ * of orders containing the product.
+ */
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "product_daily_sales")
+@IdClass(ProductDailySales.Key.class)
+public class ProductDailySales {
+
+    @Id
+    private LocalDate salesDate;
+
+    @Id
+    private UUID productId;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private UUID productId;
+    }
+}
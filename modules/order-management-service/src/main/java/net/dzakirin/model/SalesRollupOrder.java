@@ -0,0 +1,26 @@
+package net.dzakirin.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Marks an order as already added to the sales rollups.
+ */
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "sales_rollup_orders")
+public class SalesRollupOrder {
+
+    @Id
+    private UUID orderId;
+
+    @Column(nullable = false)
+    private LocalDateTime appliedAt;
+}
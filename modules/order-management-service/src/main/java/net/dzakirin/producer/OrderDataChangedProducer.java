@@ -13,6 +13,6 @@ public class OrderDataChangedProducer extends BaseProducer<OrderEvent> {
             @Value("${kafka.producer.topic.order-data-changed}") String topic,
             KafkaTemplate<String, Object> kafkaTemplate
     ) {
-        super(topic, kafkaTemplate);
+        super(topic, kafkaTemplate, OrderEvent.class);
     }
 }
@@ -0,0 +1,183 @@
+package net.dzakirin.producer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.producer.BaseProducer;
+import net.dzakirin.model.OutboxDeadLetter;
+import net.dzakirin.model.OutboxEvent;
+import net.dzakirin.repository.OutboxDeadLetterRepository;
+import net.dzakirin.repository.OutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Drains the outbox table to Kafka in batches.
+ * <p>
+ * Each batch is locked with {@code FOR UPDATE SKIP LOCKED}, sent, and deleted only after every record in it has been
+ * acknowledged by the broker. If a send fails the transaction rolls back and the batch is retried on the next poll,
+ * so delivery is at-least-once and consumers must tolerate duplicates.
+ * <p>
+ * Every row is resolved to its producer and deserialized before anything is sent. Rows that cannot be (no producer for
+ * the topic, unreadable payload) would fail on every retry, so they are moved to {@code outbox_dead_letters} in the same
+ * transaction and the rest of the batch is relayed as usual.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxDeadLetterRepository deadLetterRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, BaseProducer<?>> producersByTopic;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter relayedCounter;
+    private final Counter deadLetterCounter;
+
+    public OutboxRelay(
+            OutboxRepository outboxRepository,
+            OutboxDeadLetterRepository deadLetterRepository,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            List<BaseProducer<?>> producers,
+            MeterRegistry meterRegistry,
+            @Value("${outbox.relay.batch-size:200}") int batchSize,
+            @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.producersByTopic = producers.stream()
+                .collect(Collectors.toMap(BaseProducer::getTopic, Function.identity()));
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+
+        TimeGauge.builder("outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest event still waiting in the outbox")
+                .register(meterRegistry);
+        this.relayedCounter = Counter.builder("outbox.relay.events")
+                .description("Events relayed from the outbox to Kafka")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("outbox.relay.dead.letters")
+                .description("Outbox events moved to outbox_dead_letters because they cannot be sent")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed, pending events will be retried: {}", e.getMessage(), e);
+        } finally {
+            updateLag();
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxRepository.lockNextBatch(batchSize);
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        List<PendingSend> pending = new ArrayList<>(events.size());
+        List<OutboxDeadLetter> deadLetters = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                pending.add(prepare(event));
+            } catch (IllegalStateException e) {
+                log.error("Moving outbox event {} to outbox_dead_letters: {}", event.getId(), e.getMessage(), e);
+                deadLetters.add(toDeadLetter(event, e));
+            }
+        }
+
+        CompletableFuture<?>[] sends = pending.stream()
+                .map(send -> send.producer().send(send.key(), send.eventWrapper()))
+                .toArray(CompletableFuture[]::new);
+        awaitAcknowledgements(sends);
+
+        deadLetterRepository.saveAll(deadLetters);
+        outboxRepository.deleteAllInBatch(events);
+        relayedCounter.increment(pending.size());
+        deadLetterCounter.increment(deadLetters.size());
+        return events.size();
+    }
+
+    private PendingSend prepare(OutboxEvent event) {
+        BaseProducer<?> producer = producersByTopic.get(event.getTopic());
+        if (producer == null) {
+            throw new IllegalStateException("No producer registered for outbox topic " + event.getTopic());
+        }
+        return new PendingSend(producer, event.getEventKey(), deserialize(event, producer.getPayloadType()));
+    }
+
+    private OutboxDeadLetter toDeadLetter(OutboxEvent event, Exception cause) {
+        return OutboxDeadLetter.builder()
+                .id(event.getId())
+                .topic(event.getTopic())
+                .eventKey(event.getEventKey())
+                .eventType(event.getEventType())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .error(cause.getCause() == null ? cause.getMessage() : cause.getMessage() + ": " + cause.getCause().getMessage())
+                .failedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private void awaitAcknowledgements(CompletableFuture<?>[] sends) {
+        try {
+            CompletableFuture.allOf(sends).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acknowledgements", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+    }
+
+    private EventWrapper<?> deserialize(OutboxEvent event, Class<?> payloadType) {
+        JavaType eventType = objectMapper.getTypeFactory().constructParametricType(EventWrapper.class, payloadType);
+        try {
+            return objectMapper.readValue(event.getPayload(), eventType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt outbox payload for event " + event.getId(), e);
+        }
+    }
+
+    private void updateLag() {
+        LocalDateTime oldest = outboxRepository.findOldestCreatedAt();
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+    }
+
+    private record PendingSend(BaseProducer<?> producer, String key, EventWrapper<?> eventWrapper) {
+    }
+}
@@ -0,0 +1,23 @@
+package net.dzakirin.producer;
+
+import net.dzakirin.common.producer.BaseProducer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Tells every order-management replica to drop its cached copy of the given products and re-index them for search.
+ */
+@Component
+public class ProductCacheInvalidationProducer extends BaseProducer<Collection<UUID>> {
+
+    public ProductCacheInvalidationProducer(
+            @Value("${kafka.producer.topic.product-cache-invalidation}") String topic,
+            KafkaTemplate<String, Object> kafkaTemplate
+    ) {
+        super(topic, kafkaTemplate);
+    }
+}
@@ -0,0 +1,36 @@
+package net.dzakirin.repository;
+
+import net.dzakirin.model.CustomerDailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CustomerDailySalesRepository extends JpaRepository<CustomerDailySales, CustomerDailySales.Key> {
+
+    /**
+     * Add one order to its customer's day, creating the row on the customer's first order of the day.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO customer_daily_sales (sales_date, customer_id, units, revenue, order_count)
+            VALUES (:salesDate, :customerId, :units, :revenue, 1)
+            ON CONFLICT (sales_date, customer_id) DO UPDATE
+            SET units = customer_daily_sales.units + EXCLUDED.units,
+                revenue = customer_daily_sales.revenue + EXCLUDED.revenue,
+                order_count = customer_daily_sales.order_count + 1
+            """, nativeQuery = true)
+    int addSales(@Param("salesDate") LocalDate salesDate,
+                 @Param("customerId") UUID customerId,
+                 @Param("units") long units,
+                 @Param("revenue") BigDecimal revenue);
+
+    List<CustomerDailySales> findBySalesDateBetweenOrderBySalesDateAscRevenueDesc(LocalDate from, LocalDate to);
+}
@@ -1,13 +1,26 @@
 package net.dzakirin.repository;
 
 import net.dzakirin.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT c FROM Customer c ORDER BY c.email DESC, c.id DESC")
+    List<Customer> findFirstPage(Limit limit);
+
+    /**
+     * Next page of a keyset read, starting right after the last (email, id) of the previous page.
+     */
+    @Query("SELECT c FROM Customer c WHERE (c.email, c.id) < (:email, :id) ORDER BY c.email DESC, c.id DESC")
+    List<Customer> findPageAfter(@Param("email") String email, @Param("id") UUID id, Limit limit);
 }
@@ -1,12 +1,63 @@
 package net.dzakirin.repository;
 
 import net.dzakirin.model.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
+    /**
+     * First step of a paged read: only the IDs of the requested page, so LIMIT/OFFSET never applies to joined rows.
+     */
+    @Query("SELECT o.id FROM Order o")
+    Page<UUID> findPageIds(Pageable pageable);
+
+    /**
+     * First page of a keyset read, newest orders first. The ID breaks ties between orders placed at the same time.
+     */
+    @Query("SELECT o.id FROM Order o ORDER BY o.orderDate DESC, o.id DESC")
+    List<UUID> findFirstPageIds(Limit limit);
+
+    /**
+     * Next page of a keyset read: seeks straight past the last (orderDate, id) of the previous page through
+     * idx_orders_order_date_id instead of skipping an OFFSET of rows.
+     */
+    @Query("SELECT o.id FROM Order o WHERE (o.orderDate, o.id) < (:orderDate, :id) ORDER BY o.orderDate DESC, o.id DESC")
+    List<UUID> findPageIdsAfter(@Param("orderDate") LocalDateTime orderDate, @Param("id") UUID id, Limit limit);
+
+    /**
+     * First page of a customer's order history, read from idx_orders_customer_id_order_date_id alone.
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.customer.id = :customerId ORDER BY o.orderDate DESC, o.id DESC")
+    List<UUID> findCustomerFirstPageIds(@Param("customerId") UUID customerId, Limit limit);
+
+    @Query("""
+            SELECT o.id FROM Order o
+            WHERE o.customer.id = :customerId AND (o.orderDate, o.id) < (:orderDate, :id)
+            ORDER BY o.orderDate DESC, o.id DESC""")
+    List<UUID> findCustomerPageIdsAfter(@Param("customerId") UUID customerId, @Param("orderDate") LocalDateTime orderDate,
+                                        @Param("id") UUID id, Limit limit);
+
+    /**
+     * Second step of a paged read: the orders of a page with their customer, lines and products in a single query.
+     */
+    @EntityGraph(attributePaths = {"customer", "orderProducts", "orderProducts.product"})
+    @Query("SELECT DISTINCT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findAllWithDetailsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @EntityGraph(attributePaths = {"customer", "orderProducts", "orderProducts.product"})
+    Optional<Order> findWithDetailsById(UUID id);
 }
@@ -0,0 +1,11 @@
+package net.dzakirin.repository;
+
+import net.dzakirin.model.OutboxDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, UUID> {
+}
@@ -0,0 +1,25 @@
+package net.dzakirin.repository;
+
+import net.dzakirin.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface OutboxRepository extends JpaRepository<OutboxEvent, UUID> {
+
+    /**
+     * Lock the oldest pending events. Rows already locked by another relay instance are skipped,
+     * so several instances can drain the outbox in parallel without sending the same batch twice.
+     */
+    @Query(value = "SELECT * FROM outbox ORDER BY created_at LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("batchSize") int batchSize);
+
+    @Query("SELECT MIN(o.createdAt) FROM OutboxEvent o")
+    LocalDateTime findOldestCreatedAt();
+}
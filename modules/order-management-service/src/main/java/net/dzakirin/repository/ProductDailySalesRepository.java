@@ -0,0 +1,36 @@
+package net.dzakirin.repository;
+
+import net.dzakirin.model.ProductDailySales;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProductDailySalesRepository extends JpaRepository<ProductDailySales, ProductDailySales.Key> {
+
+    /**
+     * Add one order's sales of a product to its day, creating the row on the first sale of the day.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO product_daily_sales (sales_date, product_id, units, revenue, order_count)
+            VALUES (:salesDate, :productId, :units, :revenue, 1)
+            ON CONFLICT (sales_date, product_id) DO UPDATE
+            SET units = product_daily_sales.units + EXCLUDED.units,
+                revenue = product_daily_sales.revenue + EXCLUDED.revenue,
+                order_count = product_daily_sales.order_count + 1
+            """, nativeQuery = true)
+    int addSales(@Param("salesDate") LocalDate salesDate,
+                 @Param("productId") UUID productId,
+                 @Param("units") long units,
+                 @Param("revenue") BigDecimal revenue);
+
+    List<ProductDailySales> findBySalesDateBetweenOrderBySalesDateAscRevenueDesc(LocalDate from, LocalDate to);
+}
@@ -1,12 +1,58 @@
 package net.dzakirin.repository;
 
 import net.dzakirin.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID> {
 
+    @Query("SELECT p FROM Product p ORDER BY p.title DESC, p.id DESC")
+    List<Product> findFirstPage(Limit limit);
+
+    /**
+     * Next page of a keyset read, starting right after the last (title, id) of the previous page.
+     */
+    @Query("SELECT p FROM Product p WHERE (p.title, p.id) < (:title, :id) ORDER BY p.title DESC, p.id DESC")
+    List<Product> findPageAfter(@Param("title") String title, @Param("id") UUID id, Limit limit);
+
+    /**
+     * Atomically reserve stock for a product. The row is only updated when enough stock is left,
+     * so concurrent orders can never drive stock below zero.
+     *
+     * @return number of rows updated, 0 means stock was insufficient at the time of the update
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :productId AND p.stock >= :quantity")
+    int deductStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    /**
+     * Current prices, read after {@link #deductStock(UUID, int)} in the same transaction. The rows are locked by the
+     * deduction until commit, so the price cannot change before the order is saved.
+     */
+    @Query("SELECT p.id AS id, p.price AS price FROM Product p WHERE p.id IN :ids")
+    List<ProductPrice> findPricesByIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Give back stock reserved by {@link #deductStock(UUID, int)} for an order that was rejected afterwards.
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity WHERE p.id = :productId")
+    int restoreStock(@Param("productId") UUID productId, @Param("quantity") int quantity);
+
+    interface ProductPrice {
+
+        UUID getId();
+
+        BigDecimal getPrice();
+    }
 }
@@ -0,0 +1,22 @@
+package net.dzakirin.repository;
+
+import net.dzakirin.model.SalesRollupOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface SalesRollupOrderRepository extends JpaRepository<SalesRollupOrder, UUID> {
+
+    /**
+     * Claim an order for the rollups, returns 0 when it was already applied.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollup_orders (order_id, applied_at) VALUES (:orderId, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int markApplied(@Param("orderId") UUID orderId);
+}
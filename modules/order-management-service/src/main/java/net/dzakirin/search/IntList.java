@@ -0,0 +1,93 @@
+package net.dzakirin.search;
+
+import java.util.Arrays;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Growable list of primitive ints, used as posting lists without boxing.
+ */
+final class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    int removeLast() {
+        return values[--size];
+    }
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Insert into a list sorted by sortKey, keeping it sorted. Values already present are not added twice.
+     */
+    void insertSorted(int value, IntToLongFunction sortKey) {
+        long key = sortKey.applyAsLong(value);
+        if (size == 0 || sortKey.applyAsLong(values[size - 1]) < key) {
+            add(value);
+            return;
+        }
+        int index = binarySearch(key, sortKey);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        values[insertAt] = value;
+        size++;
+    }
+
+    void removeSorted(int value, IntToLongFunction sortKey) {
+        int index = binarySearch(sortKey.applyAsLong(value), sortKey);
+        if (index >= 0) {
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Sort by sortKey, which must carry the value itself in its low 32 bits.
+     */
+    void sort(IntToLongFunction sortKey) {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = sortKey.applyAsLong(values[i]);
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < size; i++) {
+            values[i] = (int) keys[i];
+        }
+    }
+
+    private int binarySearch(long key, IntToLongFunction sortKey) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleKey = sortKey.applyAsLong(values[middle]);
+            if (middleKey < key) {
+                low = middle + 1;
+            } else if (middleKey > key) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,603 @@
+package net.dzakirin.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of product title words, for search-as-you-type over the whole catalog.
+ * <p>
+ * Each query word matches title words exactly, by prefix (the shortest max-expansions words starting with it) or, when
+ * made of letters only, with one typo (two from 8 characters), found through a trigram index of the vocabulary. Every
+ * query word must match. Products rank by the sum of their match kinds (exact over prefix over typo), then shorter
+ * titles first; posting lists are kept sorted by title length so a scan stops once no longer title can make the top.
+ * <p>
+ * The index is loaded from the database once the application is ready and kept current on every replica: locally after
+ * commit, and through the product-cache-invalidation events. It holds product IDs and word IDs only, about 90 bytes per
+ * product plus the vocabulary.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int FUZZY = 1;
+    private static final int[] TIERS = {EXACT, PREFIX, FUZZY};
+    private static final int MAX_QUERY_WORDS = 8;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MAX_PREFIX_SCAN = 50_000;
+    private static final int RELOAD_BATCH_SIZE = 1000;
+    private static final int LOCAL_EVENTS_RETAINED = 10_000;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxExpansions;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // IDs of the invalidation events this replica published for changes it applies itself, oldest dropped first
+    private final Map<String, Boolean> localEventIds = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > LOCAL_EVENTS_RETAINED;
+        }
+    });
+
+    // Products by ordinal. A removed product frees its ordinal and leaves the nil UUID behind.
+    private long[] mostSignificantBits = new long[1024];
+    private long[] leastSignificantBits = new long[1024];
+    private short[] titleLengths = new short[1024];
+    private int[][] titleWordIds = new int[1024][];
+    private int ordinalCount;
+    private final IntList freeOrdinals = new IntList();
+
+    // Product ID to ordinal, open addressing with linear probing over the ID arrays. Slots hold ordinal + 1, 0 is empty.
+    private int[] ordinalSlots = new int[2048];
+    private int indexedCount;
+
+    // Words by word ID, with the sorted ordinals of the products whose title contains them
+    private final TreeMap<String, Integer> vocabulary = new TreeMap<>();
+    private final List<String> words = new ArrayList<>();
+    private final List<IntList> postings = new ArrayList<>();
+    private final Map<String, IntList> wordIdsByTrigram = new HashMap<>();
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductSearchIndex(DataSource dataSource,
+                              @Value("${product.search.max-expansions:256}") int maxExpansions,
+                              @Value("${product.search.load-fetch-size:10000}") int loadFetchSize) {
+        this(new JdbcTemplate(dataSource), maxExpansions);
+        this.jdbcTemplate.setFetchSize(loadFetchSize);
+    }
+
+    ProductSearchIndex(JdbcTemplate jdbcTemplate, int maxExpansions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxExpansions = maxExpansions;
+    }
+
+    /**
+     * Build the index from every product. Updates arriving meanwhile wait and are applied afterwards.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long startTime = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            clear();
+            jdbcTemplate.query("SELECT id, title FROM products",
+                    (RowCallbackHandler) resultSet -> insert(resultSet.getObject("id", UUID.class), resultSet.getString("title"), false));
+            postings.forEach(posting -> posting.sort(this::postingKey));
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index loaded: {} products, {} words in {} ms",
+                ordinalCount - freeOrdinals.size(), words.size(), System.currentTimeMillis() - startTime);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * IDs of the best matching products, best first.
+     */
+    public List<UUID> search(String query, int limit) {
+        List<String> queryWords = tokenize(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        queryWords = queryWords.subList(0, Math.min(queryWords.size(), MAX_QUERY_WORDS));
+
+        lock.readLock().lock();
+        try {
+            List<WordMatches> allMatches = new ArrayList<>(queryWords.size());
+            for (String queryWord : queryWords) {
+                WordMatches matches = match(queryWord);
+                if (matches.postingCount == 0) {
+                    return List.of();
+                }
+                allMatches.add(matches);
+            }
+
+            // Walk the postings of the rarest query word, shortest titles first, and look the others up in each title
+            WordMatches driver = allMatches.stream().min(Comparator.comparingLong(matches -> matches.postingCount)).orElseThrow();
+            List<WordMatches> others = allMatches.stream().filter(matches -> matches != driver).toList();
+            int othersMaxScore = others.stream().mapToInt(WordMatches::maxTier).sum();
+
+            PriorityQueue<Long> best = new PriorityQueue<>(limit + 1);
+            BitSet seen = new BitSet(ordinalCount);
+            for (int tier : TIERS) {
+                int maxScore = tier + othersMaxScore;
+                IntList wordIds = driver.wordIdsByTier[tier];
+                for (int i = 0; i < wordIds.size(); i++) {
+                    IntList posting = postings.get(wordIds.get(i));
+                    for (int j = 0; j < posting.size(); j++) {
+                        int ordinal = posting.get(j);
+                        if (best.size() == limit && bestRank(maxScore, titleLengths[ordinal]) <= best.peek()) {
+                            break; // the rest of this posting list has longer titles
+                        }
+                        if (seen.get(ordinal)) {
+                            continue;
+                        }
+                        seen.set(ordinal);
+                        int score = score(ordinal, tier, others);
+                        if (score > 0) {
+                            long rank = rank(score, titleLengths[ordinal], ordinal);
+                            if (best.size() < limit) {
+                                best.add(rank);
+                            } else if (rank > best.peek()) {
+                                best.poll();
+                                best.add(rank);
+                            }
+                        }
+                    }
+                }
+            }
+
+            long[] ranks = best.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(ranks);
+            List<UUID> productIds = new ArrayList<>(ranks.length);
+            for (int i = ranks.length - 1; i >= 0; i--) {
+                int ordinal = (int) (0xFFFFFFFFL - (ranks[i] & 0xFFFFFFFFL));
+                productIds.add(new UUID(mostSignificantBits[ordinal], leastSignificantBits[ordinal]));
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(UUID productId, String title) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = find(productId);
+            if (ordinal >= 0) {
+                delete(ordinal);
+            }
+            insert(productId, title, true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID productId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = find(productId);
+            if (ordinal >= 0) {
+                delete(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-read products from the database, for changes made on another replica or by a bulk import. Products that no
+     * longer exist are removed.
+     */
+    public void reload(Collection<UUID> productIds) {
+        List<UUID> ids = List.copyOf(productIds);
+        for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(from + RELOAD_BATCH_SIZE, ids.size()));
+            Map<UUID, String> titles = new HashMap<>();
+            jdbcTemplate.query("SELECT id, title FROM products WHERE id IN (" + String.join(",", Collections.nCopies(batch.size(), "?")) + ")",
+                    (RowCallbackHandler) resultSet -> titles.put(resultSet.getObject("id", UUID.class), resultSet.getString("title")),
+                    batch.toArray());
+            apply(batch, titles);
+        }
+    }
+
+    /**
+     * Apply the change once the current transaction commits, so a rollback never leaves uncommitted data behind.
+     */
+    public void putAfterCommit(UUID productId, String title) {
+        afterCommit(() -> put(productId, title));
+    }
+
+    public void removeAfterCommit(UUID productId) {
+        afterCommit(() -> remove(productId));
+    }
+
+    /**
+     * Reload after commit a change this replica also publishes as the invalidation event eventId, so that
+     * {@link #appliedLocally(String)} lets the replica skip its own event.
+     */
+    public void reloadAfterCommit(Collection<UUID> productIds, String eventId) {
+        localEventIds.put(eventId, Boolean.TRUE);
+        afterCommit(() -> reload(productIds));
+    }
+
+    /**
+     * Whether the invalidation event carries a change this replica already applied. Each event is delivered to a
+     * replica once, so the mark is consumed.
+     */
+    public boolean appliedLocally(String eventId) {
+        return eventId != null && localEventIds.remove(eventId) != null;
+    }
+
+    /**
+     * Re-index the products found in titles and remove the others.
+     */
+    private void apply(List<UUID> productIds, Map<UUID, String> titles) {
+        lock.writeLock().lock();
+        try {
+            for (UUID productId : productIds) {
+                int ordinal = find(productId);
+                if (ordinal >= 0) {
+                    delete(ordinal);
+                }
+            }
+            titles.forEach((productId, title) -> insert(productId, title, true));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sum of the best match kind of each query word in the title, 0 when a query word does not match.
+     */
+    private int score(int ordinal, int driverTier, List<WordMatches> others) {
+        int score = driverTier;
+        int[] wordIds = titleWordIds[ordinal];
+        for (WordMatches matches : others) {
+            int bestTier = 0;
+            for (int wordId : wordIds) {
+                bestTier = Math.max(bestTier, matches.tierOf(wordId));
+            }
+            if (bestTier == 0) {
+                return 0;
+            }
+            score += bestTier;
+        }
+        return score;
+    }
+
+    /**
+     * Ordering key, higher is better: score, then shorter title, then older entry.
+     */
+    private static long rank(int score, int titleLength, int ordinal) {
+        return ((long) score << 48) | ((long) (Short.MAX_VALUE - titleLength) << 32) | (0xFFFFFFFFL - ordinal);
+    }
+
+    /**
+     * Highest ordering key any product with this score and title length can have.
+     */
+    private static long bestRank(int score, int titleLength) {
+        return rank(score, titleLength, 0);
+    }
+
+    /**
+     * Posting lists are sorted by title length, then ordinal.
+     */
+    private long postingKey(int ordinal) {
+        return ((long) titleLengths[ordinal] << 32) | ordinal;
+    }
+
+    private WordMatches match(String queryWord) {
+        WordMatches matches = new WordMatches();
+        Integer exactWordId = vocabulary.get(queryWord);
+        if (exactWordId != null) {
+            matches.add(EXACT, exactWordId);
+        }
+
+        if (queryWord.length() >= MIN_PREFIX_LENGTH) {
+            List<Integer> prefixed = new ArrayList<>();
+            for (Integer wordId : vocabulary.subMap(queryWord, false, queryWord + Character.MAX_VALUE, false).values()) {
+                prefixed.add(wordId);
+                if (prefixed.size() == MAX_PREFIX_SCAN) {
+                    break;
+                }
+            }
+            prefixed.stream()
+                    .sorted(Comparator.comparingInt(wordId -> words.get(wordId).length()))
+                    .limit(maxExpansions)
+                    .forEach(wordId -> matches.add(PREFIX, wordId));
+        }
+
+        // Words with digits are model numbers and sizes, where one character off is another product
+        int maxEdits = queryWord.length() >= 8 ? 2 : queryWord.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0 && queryWord.chars().allMatch(Character::isLetter)) {
+            // Each edit changes at most four trigrams (a transposition), so a close word shares all but 4 x maxEdits of them
+            Set<String> queryTrigrams = trigrams(queryWord);
+            int minSharedTrigrams = Math.max(1, queryTrigrams.size() - 4 * maxEdits);
+            Map<Integer, Integer> sharedTrigrams = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                IntList wordIds = wordIdsByTrigram.get(trigram);
+                if (wordIds != null) {
+                    for (int i = 0; i < wordIds.size(); i++) {
+                        sharedTrigrams.merge(wordIds.get(i), 1, Integer::sum);
+                    }
+                }
+            }
+            sharedTrigrams.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minSharedTrigrams)
+                    .map(Map.Entry::getKey)
+                    .filter(wordId -> {
+                        String word = words.get(wordId);
+                        return !word.startsWith(queryWord)
+                                && Math.abs(word.length() - queryWord.length()) <= maxEdits
+                                && editDistance(queryWord, word, maxEdits) <= maxEdits;
+                    })
+                    .sorted(Comparator.comparingInt(wordId -> words.get(wordId).length()))
+                    .limit(maxExpansions)
+                    .forEach(wordId -> matches.add(FUZZY, wordId));
+        }
+        return matches;
+    }
+
+    /**
+     * @param sorted false while loading, the postings are sorted once at the end
+     */
+    private void insert(UUID productId, String title, boolean sorted) {
+        int ordinal = freeOrdinals.size() > 0 ? freeOrdinals.removeLast() : ordinalCount++;
+        if (ordinal == mostSignificantBits.length) {
+            int capacity = ordinal * 2;
+            mostSignificantBits = Arrays.copyOf(mostSignificantBits, capacity);
+            leastSignificantBits = Arrays.copyOf(leastSignificantBits, capacity);
+            titleLengths = Arrays.copyOf(titleLengths, capacity);
+            titleWordIds = Arrays.copyOf(titleWordIds, capacity);
+        }
+        mostSignificantBits[ordinal] = productId.getMostSignificantBits();
+        leastSignificantBits[ordinal] = productId.getLeastSignificantBits();
+        indexOrdinal(ordinal);
+        titleLengths[ordinal] = (short) Math.min(title.length(), Short.MAX_VALUE);
+        int[] wordIds = tokenize(title).stream().mapToInt(this::wordId).toArray();
+        titleWordIds[ordinal] = wordIds;
+        for (int wordId : wordIds) {
+            if (sorted) {
+                postings.get(wordId).insertSorted(ordinal, this::postingKey);
+            } else {
+                postings.get(wordId).add(ordinal);
+            }
+        }
+    }
+
+    private void delete(int ordinal) {
+        for (int wordId : titleWordIds[ordinal]) {
+            postings.get(wordId).removeSorted(ordinal, this::postingKey);
+        }
+        titleWordIds[ordinal] = null;
+        unindexOrdinal(ordinal);
+        mostSignificantBits[ordinal] = 0;
+        leastSignificantBits[ordinal] = 0;
+        freeOrdinals.add(ordinal);
+    }
+
+    private int find(UUID productId) {
+        long most = productId.getMostSignificantBits();
+        long least = productId.getLeastSignificantBits();
+        for (int slot = slotOf(most, least); ordinalSlots[slot] != 0; slot = nextSlot(slot)) {
+            int ordinal = ordinalSlots[slot] - 1;
+            if (mostSignificantBits[ordinal] == most && leastSignificantBits[ordinal] == least) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    private void indexOrdinal(int ordinal) {
+        if ((indexedCount + 1) * 2 > ordinalSlots.length) {
+            int[] previous = ordinalSlots;
+            ordinalSlots = new int[previous.length * 2];
+            for (int slotValue : previous) {
+                if (slotValue != 0) {
+                    ordinalSlots[freeSlotFor(slotValue - 1)] = slotValue;
+                }
+            }
+        }
+        ordinalSlots[freeSlotFor(ordinal)] = ordinal + 1;
+        indexedCount++;
+    }
+
+    /**
+     * Backward shift deletion: later entries of the probe sequence move into the gap, so lookups never stop early.
+     */
+    private void unindexOrdinal(int ordinal) {
+        int gap = slotOf(ordinal);
+        while (ordinalSlots[gap] != ordinal + 1) {
+            gap = nextSlot(gap);
+        }
+        int mask = ordinalSlots.length - 1;
+        for (int slot = nextSlot(gap); ordinalSlots[slot] != 0; slot = nextSlot(slot)) {
+            int home = slotOf(ordinalSlots[slot] - 1);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                ordinalSlots[gap] = ordinalSlots[slot];
+                gap = slot;
+            }
+        }
+        ordinalSlots[gap] = 0;
+        indexedCount--;
+    }
+
+    private int freeSlotFor(int ordinal) {
+        int slot = slotOf(ordinal);
+        while (ordinalSlots[slot] != 0) {
+            slot = nextSlot(slot);
+        }
+        return slot;
+    }
+
+    private int slotOf(int ordinal) {
+        return slotOf(mostSignificantBits[ordinal], leastSignificantBits[ordinal]);
+    }
+
+    private int slotOf(long most, long least) {
+        return (int) (((most ^ least) * 0x9E3779B97F4A7C15L) >>> 32) & (ordinalSlots.length - 1);
+    }
+
+    private int nextSlot(int slot) {
+        return (slot + 1) & (ordinalSlots.length - 1);
+    }
+
+    private int wordId(String word) {
+        Integer wordId = vocabulary.get(word);
+        if (wordId != null) {
+            return wordId;
+        }
+        int newWordId = words.size();
+        words.add(word);
+        postings.add(new IntList());
+        vocabulary.put(word, newWordId);
+        for (String trigram : trigrams(word)) {
+            wordIdsByTrigram.computeIfAbsent(trigram, key -> new IntList()).add(newWordId);
+        }
+        return newWordId;
+    }
+
+    private void clear() {
+        ready = false;
+        ordinalCount = 0;
+        while (freeOrdinals.size() > 0) {
+            freeOrdinals.removeLast();
+        }
+        Arrays.fill(titleWordIds, null);
+        Arrays.fill(ordinalSlots, 0);
+        indexedCount = 0;
+        vocabulary.clear();
+        words.clear();
+        postings.clear();
+        wordIdsByTrigram.clear();
+    }
+
+    static List<String> tokenize(String text) {
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    /**
+     * Optimal string alignment distance (adjacent transpositions count as one edit), stopping once above maxEdits.
+     */
+    static int editDistance(String source, String target, int maxEdits) {
+        int[] previousPrevious = new int[target.length() + 1];
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= target.length(); j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && source.charAt(i - 1) == target.charAt(j - 2) && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], previousPrevious[j - 2] + 1);
+                }
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maxEdits) {
+                return rowMinimum;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[target.length()];
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Title words matched by one query word, by match kind.
+     */
+    private final class WordMatches {
+
+        private final IntList[] wordIdsByTier = {null, new IntList(), new IntList(), new IntList()};
+        private final Map<Integer, Integer> tiersByWordId = new HashMap<>();
+        private long postingCount;
+
+        private void add(int tier, int wordId) {
+            wordIdsByTier[tier].add(wordId);
+            tiersByWordId.put(wordId, tier);
+            postingCount += postings.get(wordId).size();
+        }
+
+        private int tierOf(int wordId) {
+            return tiersByWordId.getOrDefault(wordId, 0);
+        }
+
+        private int maxTier() {
+            for (int tier : TIERS) {
+                if (wordIdsByTier[tier].size() > 0) {
+                    return tier;
+                }
+            }
+            return 0;
+        }
+    }
+}
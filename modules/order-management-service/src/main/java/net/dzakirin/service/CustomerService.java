@@ -5,17 +5,21 @@ import net.dzakirin.constant.ErrorCodes;
 import net.dzakirin.dto.request.CustomerUpsertRequest;
 import net.dzakirin.common.dto.response.BaseListResponse;
 import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.dto.response.CursorListResponse;
 import net.dzakirin.dto.response.CustomerResponse;
 import net.dzakirin.exception.ResourceNotFoundException;
 import net.dzakirin.exception.ValidationException;
 import net.dzakirin.mapper.CustomerMapper;
 import net.dzakirin.model.Customer;
 import net.dzakirin.repository.CustomerRepository;
+import net.dzakirin.utils.CursorUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 import static net.dzakirin.constant.ErrorCodes.*;
@@ -28,6 +32,7 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
 
+    @Transactional(readOnly = true)
     public BaseListResponse<CustomerResponse> getAllCustomers(Pageable pageable) {
         Page<Customer> customers = customerRepository.findAll(pageable);
 
@@ -40,6 +45,34 @@ public class CustomerService {
                 .build();
     }
 
+    /**
+     * Keyset page of customers ordered by email, descending like {@link #getAllCustomers(Pageable)}. No count query.
+     *
+     * @param after cursor from the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorListResponse<CustomerResponse> getCustomersAfter(String after, int size) {
+        Limit limit = CursorUtils.pageLimit(size);
+        List<Customer> customers;
+        if (after == null) {
+            customers = customerRepository.findFirstPage(limit);
+        } else {
+            CursorUtils.Cursor cursor = CursorUtils.decode(after);
+            customers = customerRepository.findPageAfter(cursor.sortKey(), cursor.id(), limit);
+        }
+
+        boolean hasNext = customers.size() > size;
+        List<Customer> page = hasNext ? customers.subList(0, size) : customers;
+        Customer last = hasNext ? page.get(size - 1) : null;
+
+        return CursorListResponse.<CustomerResponse>builder()
+                .success(true)
+                .message("Customers fetched successfully")
+                .data(CustomerMapper.toResponseList(page))
+                .nextCursor(last == null ? null : CursorUtils.encode(last.getEmail(), last.getId()))
+                .build();
+    }
+
     @Transactional
     public BaseResponse<CustomerResponse> createCustomer(CustomerUpsertRequest customerUpsertRequest) {
         CustomerUpsertRequestValidation(customerUpsertRequest);
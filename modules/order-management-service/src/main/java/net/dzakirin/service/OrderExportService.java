@@ -0,0 +1,209 @@
+package net.dzakirin.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.constant.ErrorCodes;
+import net.dzakirin.constant.ExportFormat;
+import net.dzakirin.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams order lines straight from a forward-only JDBC cursor to the response, one row at a time. Nothing is
+ * collected in memory and no entities are created, so memory use does not depend on the size of the export.
+ */
+@Slf4j
+@Service
+public class OrderExportService {
+
+    private static final String EXPORT_QUERY = """
+            SELECT o.id AS order_id, o.order_date, o.customer_id, c.email AS customer_email,
+                   op.product_id, p.title AS product_title, op.unit_price AS price, op.quantity
+            FROM orders o
+            JOIN customers c ON c.id = o.customer_id
+            JOIN order_products op ON op.order_id = o.id AND op.order_date = o.order_date
+            JOIN products p ON p.id = op.product_id
+            """;
+    private static final String[] COLUMNS = {
+            "order_id", "order_date", "customer_id", "customer_email", "product_id", "product_title", "price", "quantity"
+    };
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OrderExportService(DataSource dataSource,
+                              ObjectMapper objectMapper,
+                              @Value("${order.export.fetch-size:1000}") int fetchSize) {
+        // The PostgreSQL driver only streams with a fetch size inside a transaction, otherwise it reads the whole result
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.objectMapper = objectMapper;
+    }
+
+    public void validateRange(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new ValidationException(ErrorCodes.EXPORT_RANGE_INVALID.getMessage());
+        }
+    }
+
+    /**
+     * Write every order line placed in [from, to) to the output stream, oldest first.
+     *
+     * @param from inclusive lower bound on the order date, null for no bound
+     * @param to   exclusive upper bound on the order date, null for no bound
+     */
+    @Transactional(readOnly = true)
+    public void export(ExportFormat format, LocalDateTime from, LocalDateTime to, boolean gzip, OutputStream outputStream) throws IOException {
+        long startTime = System.currentTimeMillis();
+        OutputStream target = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+            rowWriter.writeHeader();
+
+            StringBuilder sql = new StringBuilder(EXPORT_QUERY);
+            List<Object> params = new ArrayList<>();
+            appendRange(sql, params, from, to);
+            sql.append(" ORDER BY o.order_date, o.id");
+
+            long[] rows = {0};
+            RowCallbackHandler rowHandler = resultSet -> {
+                try {
+                    rowWriter.writeRow(resultSet);
+                    rows[0]++;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            jdbcTemplate.query(sql.toString(), rowHandler, params.toArray());
+            rowWriter.finish(rows[0]);
+
+            log.info("Exported {} order lines as {} in {} ms", rows[0], format, System.currentTimeMillis() - startTime);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * The range is applied to both tables so PostgreSQL prunes the monthly partitions of each.
+     */
+    private static void appendRange(StringBuilder sql, List<Object> params, LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" o.order_date >= ? AND op.order_date >= ?");
+            params.add(from);
+            params.add(from);
+        }
+        if (to != null) {
+            sql.append(params.isEmpty() ? " WHERE" : " AND").append(" o.order_date < ? AND op.order_date < ?");
+            params.add(to);
+            params.add(to);
+        }
+    }
+
+    private static String readOrderDate(ResultSet resultSet) throws SQLException {
+        return resultSet.getObject("order_date", LocalDateTime.class).toString();
+    }
+
+    private interface RowWriter {
+
+        default void writeHeader() throws IOException {
+        }
+
+        void writeRow(ResultSet resultSet) throws SQLException, IOException;
+
+        default void finish(long rows) throws IOException {
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeHeader() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        public void writeRow(ResultSet resultSet) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(i == 1 ? readOrderDate(resultSet) : resultSet.getString(COLUMNS[i]));
+            }
+            writer.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+        }
+
+        @Override
+        public void writeRow(ResultSet resultSet) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("orderId", resultSet.getString("order_id"));
+            generator.writeStringField("orderDate", readOrderDate(resultSet));
+            generator.writeStringField("customerId", resultSet.getString("customer_id"));
+            generator.writeStringField("customerEmail", resultSet.getString("customer_email"));
+            generator.writeStringField("productId", resultSet.getString("product_id"));
+            generator.writeStringField("productTitle", resultSet.getString("product_title"));
+            generator.writeNumberField("price", resultSet.getBigDecimal("price"));
+            generator.writeNumberField("quantity", resultSet.getInt("quantity"));
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void finish(long rows) throws IOException {
+            if (rows > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
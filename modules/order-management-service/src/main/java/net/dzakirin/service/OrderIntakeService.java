@@ -0,0 +1,245 @@
+package net.dzakirin.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.id.UuidV7;
+import net.dzakirin.constant.ErrorCodes;
+import net.dzakirin.constant.OrderStatus;
+import net.dzakirin.dto.request.OrderRequest;
+import net.dzakirin.dto.response.OrderBatchItemResponse;
+import net.dzakirin.dto.response.OrderBatchResponse;
+import net.dzakirin.dto.response.OrderResponse;
+import net.dzakirin.exception.OrderIntakeFullException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional asynchronous order intake with group commit.
+ * <p>
+ * When enabled, accepted orders are only checked for cheap, DB-free rules, given an ID and put on a bounded
+ * in-process queue. A single committer thread drains up to {@code max-batch-size} orders, or whatever arrived within
+ * {@code max-wait-ms}, and saves them in one transaction through {@link OrderService#createOrders(List, List)}, so
+ * one commit is shared by many orders.
+ * <p>
+ * Queued orders live in memory only: they are lost if the instance crashes before the committer saves them, and
+ * their status can only be polled on the instance that accepted them.
+ */
+@Slf4j
+@Service
+public class OrderIntakeService {
+
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long maxWaitMs;
+    private final int retainedOutcomes;
+
+    private final BlockingQueue<PendingOrder> queue;
+    private final Map<UUID, OrderResponse> trackedOrders = new ConcurrentHashMap<>();
+    private final Map<UUID, String> rejectionReasons = new ConcurrentHashMap<>();
+    private final Queue<UUID> outcomeEvictionQueue = new ConcurrentLinkedQueue<>();
+    private final DistributionSummary batchSizeSummary;
+
+    private volatile boolean running;
+    private Thread committer;
+
+    public OrderIntakeService(
+            OrderService orderService,
+            MeterRegistry meterRegistry,
+            @Value("${order.intake.async.enabled:false}") boolean enabled,
+            @Value("${order.intake.queue-capacity:10000}") int queueCapacity,
+            @Value("${order.intake.max-batch-size:200}") int maxBatchSize,
+            @Value("${order.intake.max-wait-ms:10}") long maxWaitMs,
+            @Value("${order.intake.retained-outcomes:10000}") int retainedOutcomes
+    ) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitMs = maxWaitMs;
+        this.retainedOutcomes = retainedOutcomes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("order.intake.queue.size", queue, Queue::size)
+                .description("Orders accepted but not yet committed")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("order.intake.batch.size")
+                .description("Orders saved per group commit")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accept an order for asynchronous creation. Only rules that need no database access are checked here, the
+     * rest (products, customer, stock) is validated by the committer and reported through {@link #getStatus(UUID)}.
+     */
+    public BaseResponse<OrderResponse> submit(OrderRequest orderRequest) {
+        OrderService.validateOrderQuantities(orderRequest.getOrderProducts());
+
+        UUID orderId = UuidV7.generate();
+        OrderResponse pendingOrder = OrderResponse.builder()
+                .id(orderId)
+                .status(OrderStatus.PENDING)
+                .customerId(orderRequest.getCustomerId())
+                .orderDate(LocalDateTime.now())
+                .build();
+
+        trackedOrders.put(orderId, pendingOrder);
+        if (!queue.offer(new PendingOrder(orderId, orderRequest))) {
+            trackedOrders.remove(orderId);
+            throw new OrderIntakeFullException(ErrorCodes.ORDER_INTAKE_FULL.getMessage());
+        }
+
+        return BaseResponse.<OrderResponse>builder()
+                .success(true)
+                .message("Order accepted for processing")
+                .data(pendingOrder)
+                .build();
+    }
+
+    /**
+     * Status of an order that is still queued or was rejected by the committer. Orders that were saved are no
+     * longer tracked here and should be read from the database.
+     */
+    public Optional<BaseResponse<OrderResponse>> getStatus(UUID orderId) {
+        OrderResponse trackedOrder = trackedOrders.get(orderId);
+        if (trackedOrder == null) {
+            return Optional.empty();
+        }
+
+        boolean pending = trackedOrder.getStatus() == OrderStatus.PENDING;
+        return Optional.of(BaseResponse.<OrderResponse>builder()
+                .success(pending)
+                .message(pending ? "Order is being processed" : rejectionReasons.get(orderId))
+                .data(trackedOrder)
+                .build());
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        committer = new Thread(this::runCommitter, "order-intake-committer");
+        committer.setDaemon(true);
+        committer.start();
+        log.info("Asynchronous order intake enabled: maxBatchSize={}, maxWaitMs={}", maxBatchSize, maxWaitMs);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        committer.interrupt();
+        committer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+
+    private void runCommitter() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<PendingOrder> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down, the loop drains what is left in the queue before exiting
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Wait for the first order, then collect more until the batch is full or the wait window has passed.
+     */
+    private List<PendingOrder> nextBatch() throws InterruptedException {
+        List<PendingOrder> batch = new ArrayList<>(maxBatchSize);
+        PendingOrder first = running ? queue.poll(100, TimeUnit.MILLISECONDS) : queue.poll();
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remainingNanos = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remainingNanos <= 0 || !running) {
+                break;
+            }
+            PendingOrder next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        batchSizeSummary.record(batch.size());
+        try {
+            OrderBatchResponse response = orderService.createOrders(
+                    batch.stream().map(PendingOrder::orderRequest).toList(),
+                    batch.stream().map(PendingOrder::orderId).toList());
+
+            for (OrderBatchItemResponse result : response.getResults()) {
+                UUID orderId = batch.get(result.getIndex()).orderId();
+                if (result.isSuccess()) {
+                    trackedOrders.remove(orderId);
+                } else {
+                    recordOutcome(orderId, OrderStatus.REJECTED, result.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to commit {} queued orders: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(pendingOrder -> recordOutcome(pendingOrder.orderId(), OrderStatus.FAILED,
+                    ErrorCodes.ORDER_PERSIST_FAILED.getMessage(e.getMessage())));
+        }
+    }
+
+    private void recordOutcome(UUID orderId, OrderStatus status, String reason) {
+        rejectionReasons.put(orderId, reason);
+        trackedOrders.computeIfPresent(orderId, (id, order) -> OrderResponse.builder()
+                .id(id)
+                .status(status)
+                .customerId(order.getCustomerId())
+                .orderDate(order.getOrderDate())
+                .build());
+
+        // Keep only the most recent outcomes so the tracker stays bounded
+        outcomeEvictionQueue.add(orderId);
+        while (outcomeEvictionQueue.size() > retainedOutcomes) {
+            UUID evicted = outcomeEvictionQueue.poll();
+            if (evicted != null) {
+                trackedOrders.remove(evicted);
+                rejectionReasons.remove(evicted);
+            }
+        }
+    }
+
+    private record PendingOrder(UUID orderId, OrderRequest orderRequest) {
+    }
+}
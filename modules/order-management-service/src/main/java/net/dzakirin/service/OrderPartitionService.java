@@ -0,0 +1,145 @@
+package net.dzakirin.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the monthly partitions of orders and order_products (see 0004-partition-orders-by-month.sql) ahead of time,
+ * so new orders never land in the default partition, and optionally detaches months past the retention period.
+ * Detached months stay in the database as standalone tables and can be archived or dropped separately.
+ * <p>
+ * Order IDs stay unique across months through order_ids (see 0008-unique-order-ids.sql). A lookup by ID alone cannot
+ * be pruned to one month, it probes the (id, order_date) primary key index of every attached partition instead, which
+ * retention keeps to a bounded number.
+ */
+@Slf4j
+@Service
+public class OrderPartitionService {
+
+    /**
+     * Parent table first: order_products partitions reference the orders partition of the same month.
+     */
+    private static final List<String> PARTITIONED_TABLES = List.of("orders", "order_products");
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final long ADVISORY_LOCK_KEY = 0x6f72646572L;
+
+    private final Clock clock;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    @Autowired
+    public OrderPartitionService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${order.partition.maintenance.enabled:true}") boolean enabled,
+            @Value("${order.partition.months-ahead:3}") int monthsAhead,
+            @Value("${order.partition.retention-months:0}") int retentionMonths
+    ) {
+        this(Clock.systemDefaultZone(), jdbcTemplate, transactionManager, enabled, monthsAhead, retentionMonths);
+    }
+
+    OrderPartitionService(Clock clock, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          boolean enabled, int monthsAhead, int retentionMonths) {
+        this.clock = clock;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${order.partition.maintenance.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+
+        YearMonth currentMonth = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            runLocked("create partitions for " + month, () -> createPartitions(month));
+        }
+        if (retentionMonths > 0) {
+            YearMonth oldestKept = currentMonth.minusMonths(retentionMonths);
+            findPartitionMonths().stream()
+                    .filter(month -> month.isBefore(oldestKept))
+                    .forEach(month -> runLocked("detach partitions for " + month, () -> detachPartitions(month)));
+        }
+    }
+
+    public void createPartitions(YearMonth month) {
+        PARTITIONED_TABLES.forEach(table -> jdbcTemplate.execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                partitionName(table, month), table, month.atDay(1), month.plusMonths(1).atDay(1))));
+    }
+
+    /**
+     * Detaching only changes catalog entries, unlike deleting the month's rows. order_products goes first so the
+     * foreign key to orders has nothing left to check. The month's IDs are released from order_ids, the one table
+     * that is not partitioned.
+     */
+    public void detachPartitions(YearMonth month) {
+        List.of("order_products", "orders").forEach(table -> jdbcTemplate.execute(String.format(
+                "ALTER TABLE %s DETACH PARTITION %s", table, partitionName(table, month))));
+        jdbcTemplate.update("DELETE FROM order_ids WHERE order_date >= ? AND order_date < ?",
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        log.info("Detached order partitions for {}", month);
+    }
+
+    private List<YearMonth> findPartitionMonths() {
+        return jdbcTemplate.queryForList(
+                        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'orders'::regclass",
+                        String.class).stream()
+                .map(OrderPartitionService::parsePartitionMonth)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Run one step in its own transaction holding an advisory lock, so replicas never race on the same DDL.
+     */
+    private void runLocked(String description, Runnable step) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                if (Boolean.TRUE.equals(locked)) {
+                    step.run();
+                }
+            });
+        } catch (DataAccessException e) {
+            log.error("Failed to {}: {}", description, e.getMessage(), e);
+        }
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_" + month.format(PARTITION_SUFFIX);
+    }
+
+    private static YearMonth parsePartitionMonth(String partitionName) {
+        try {
+            return YearMonth.parse(partitionName.substring("orders_".length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null; // orders_default
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package net.dzakirin.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
+import net.dzakirin.cache.CustomerOrdersCache;
+import net.dzakirin.cache.ProductCache;
+import net.dzakirin.common.datasource.ReadReplicaRoutingDataSource;
 import net.dzakirin.common.dto.event.OrderEvent;
 import net.dzakirin.common.dto.response.BaseListResponse;
 import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.dto.response.CursorListResponse;
 import net.dzakirin.constant.ErrorCodes;
 import net.dzakirin.constant.EventType;
+import net.dzakirin.dto.request.OrderBatchRequest;
 import net.dzakirin.dto.request.OrderProductRequest;
 import net.dzakirin.dto.request.OrderRequest;
+import net.dzakirin.dto.response.OrderBatchItemResponse;
+import net.dzakirin.dto.response.OrderBatchResponse;
 import net.dzakirin.dto.response.OrderResponse;
 import net.dzakirin.exception.InsufficientStockException;
 import net.dzakirin.exception.ResourceNotFoundException;
@@ -22,15 +31,30 @@ import net.dzakirin.producer.OrderDataChangedProducer;
 import net.dzakirin.repository.CustomerRepository;
 import net.dzakirin.repository.OrderRepository;
 import net.dzakirin.repository.ProductRepository;
+import net.dzakirin.utils.CursorUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static net.dzakirin.constant.ErrorCodes.MINIMUM_ORDER_QUANTITY;
@@ -42,23 +66,114 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final ProductRepository productRepository;
     private final CustomerRepository customerRepository;
+    private final ProductCache productCache;
+    private final CustomerOrdersCache customerOrdersCache;
     private final OrderDataChangedProducer orderDataChangedProducer;
+    private final OutboxService outboxService;
+    private final MeterRegistry meterRegistry;
 
+    /**
+     * Two queries regardless of page size (plus the page count): the IDs of the page, then the orders with all their
+     * associations. Loading the page directly would lazily fetch customer, lines and products per order.
+     */
+    @Transactional(readOnly = true)
     public BaseListResponse<OrderResponse> getAllOrders(Pageable pageable) {
-        Page<Order> orders = orderRepository.findAll(pageable);
-        List<OrderResponse> orderResponses = OrderMapper.toOrderResponseList(orders.getContent());
+        Page<UUID> orderIds = orderRepository.findPageIds(pageable);
+        List<OrderResponse> orderResponses = OrderMapper.toOrderResponseList(findOrdersWithDetails(orderIds.getContent()));
 
         return BaseListResponse.<OrderResponse>builder()
                 .success(true)
                 .message("Orders fetched successfully")
                 .data(orderResponses)
-                .totalRecords(orders.getTotalElements())
-                .totalPages(orders.getTotalPages())
+                .totalRecords(orderIds.getTotalElements())
+                .totalPages(orderIds.getTotalPages())
                 .build();
     }
 
+    /**
+     * Keyset page of orders, newest first. Every page costs the same two queries no matter how deep it is, and no
+     * count query is run.
+     *
+     * @param after cursor from the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorListResponse<OrderResponse> getOrdersAfter(String after, int size) {
+        Limit limit = CursorUtils.pageLimit(size);
+        List<UUID> orderIds;
+        if (after == null) {
+            orderIds = orderRepository.findFirstPageIds(limit);
+        } else {
+            CursorUtils.Cursor cursor = CursorUtils.decode(after);
+            orderIds = orderRepository.findPageIdsAfter(parseOrderDate(cursor.sortKey()), cursor.id(), limit);
+        }
+
+        boolean hasNext = orderIds.size() > size;
+        List<Order> orders = findOrdersWithDetails(hasNext ? orderIds.subList(0, size) : orderIds);
+        Order last = hasNext ? orders.get(orders.size() - 1) : null;
+
+        return CursorListResponse.<OrderResponse>builder()
+                .success(true)
+                .message("Orders fetched successfully")
+                .data(OrderMapper.toOrderResponseList(orders))
+                .nextCursor(last == null ? null : CursorUtils.encode(last.getOrderDate(), last.getId()))
+                .build();
+    }
+
+    /**
+     * Keyset page of a customer's orders, newest first. The first page comes from {@link CustomerOrdersCache} when
+     * it is not larger than the cached one, a hit runs no query. Misses and later pages run read-only, so they are
+     * routed to the read replica when one is configured.
+     *
+     * @param after cursor from the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorListResponse<OrderResponse> getCustomerOrders(UUID customerId, String after, int size) {
+        Limit limit = CursorUtils.pageLimit(size);
+        List<OrderResponse> orders;
+        if (after != null) {
+            CursorUtils.Cursor cursor = CursorUtils.decode(after);
+            orders = OrderMapper.toOrderResponseList(findOrdersWithDetails(orderRepository.findCustomerPageIdsAfter(
+                    customerId, parseOrderDate(cursor.sortKey()), cursor.id(), limit)));
+        } else if (size <= customerOrdersCache.getPageSize()) {
+            orders = customerOrdersCache.getNewest(customerId, newestLimit -> loadCustomerFirstPage(customerId, Limit.of(newestLimit)));
+        } else {
+            orders = loadCustomerFirstPage(customerId, limit);
+        }
+
+        boolean hasNext = orders.size() > size;
+        List<OrderResponse> page = hasNext ? orders.subList(0, size) : orders;
+        OrderResponse last = hasNext ? page.get(size - 1) : null;
+
+        return CursorListResponse.<OrderResponse>builder()
+                .success(true)
+                .message("Orders fetched successfully")
+                .data(page)
+                .nextCursor(last == null ? null : CursorUtils.encode(last.getOrderDate(), last.getId()))
+                .build();
+    }
+
+    private List<OrderResponse> loadCustomerFirstPage(UUID customerId, Limit limit) {
+        List<UUID> orderIds = orderRepository.findCustomerFirstPageIds(customerId, limit);
+        if (orderIds.isEmpty() && !customerRepository.existsById(customerId)) {
+            throw new ResourceNotFoundException(ErrorCodes.CUSTOMER_NOT_FOUND.getMessage(customerId.toString()));
+        }
+        return OrderMapper.toOrderResponseList(findOrdersWithDetails(orderIds));
+    }
+
+    private static LocalDateTime parseOrderDate(String sortKey) {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException(ErrorCodes.CURSOR_INVALID.getMessage());
+        }
+    }
+
+    /**
+     * Read from the primary: an order accepted asynchronously is looked up here as soon as OrderIntakeService stops
+     * tracking it, which can be within the replica's lag.
+     */
     public BaseResponse<OrderResponse> getOrderById(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = ReadReplicaRoutingDataSource.onPrimary(() -> orderRepository.findWithDetailsById(orderId))
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorCodes.ORDER_NOT_FOUND.getMessage(orderId.toString())));
 
         return BaseResponse.<OrderResponse>builder()
@@ -68,48 +183,283 @@ public class OrderService {
                 .build();
     }
 
+    /**
+     * Fetch orders with their associations in one query, keeping the order of the given IDs.
+     */
+    private List<Order> findOrdersWithDetails(List<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<UUID, Order> ordersById = orderRepository.findAllWithDetailsByIdIn(orderIds).stream()
+                .collect(Collectors.toMap(Order::getId, order -> order));
+        return orderIds.stream()
+                .map(ordersById::get)
+                .toList();
+    }
+
+    /**
+     * Timed per phase as order.create.phase: product_fetch, validation (products, customer, building the order),
+     * stock_deduction (including reading the prices of the locked product rows), save, publish (writing the outbox
+     * entry) and commit, where Hibernate flushes the inserts of save and publish.
+     */
     @Transactional
     public BaseResponse<OrderResponse> createOrder(OrderRequest orderRequest) {
-        // Fetch Products in Batch (to minimize DB calls)
-        Map<UUID, Product> productMap = getProducts(orderRequest.getOrderProducts());
+        validateOrderQuantities(orderRequest.getOrderProducts());
+        recordCommitPhase();
+
+        // Fetch Products from the cache, cached stock is never trusted, deductStock checks it in the database
+        List<UUID> productIds = orderRequest.getOrderProducts().stream()
+                .map(OrderProductRequest::getProductId)
+                .toList();
+        Map<UUID, Product> productMap = recordPhase("product_fetch", () -> productCache.getAll(productIds));
+
+        // Fetch Customer and create Order
+        Order order = recordPhase("validation", () -> {
+            validateProductsExist(productIds, productMap);
+            Customer customer = customerRepository.findById(orderRequest.getCustomerId())
+                    .orElseThrow(() -> new ResourceNotFoundException(
+                            ErrorCodes.CUSTOMER_NOT_FOUND.getMessage(orderRequest.getCustomerId().toString())));
+            return buildOrder(orderRequest, customer, productMap);
+        });
+
+        // Deduct Stock, then price the order from the rows the deduction locked, cached prices may be stale
+        recordPhase("stock_deduction", () -> {
+            deductStock(order.getOrderProducts());
+            priceOrders(List.of(order));
+        });
+
+        // Save and enqueue event in the same transaction, OutboxRelay publishes it after commit
+        recordPhase("save", () -> orderRepository.save(order));
+        recordPhase("publish", () -> enqueueOrderCreated(order));
+        customerOrdersCache.evictAfterCommit(order.getCustomer().getId());
+
+        return BaseResponse.<OrderResponse>builder()
+                .success(true)
+                .message("Order created successfully")
+                .data(OrderMapper.toOrderResponse(order))
+                .build();
+    }
+
+    /**
+     * Create a batch of orders in one transaction. Products and customers of the whole batch are fetched with one
+     * query each, and orders are inserted through Hibernate JDBC batching. Every order is validated on its own and
+     * rejected orders are reported per item instead of failing the whole batch.
+     */
+    @Transactional
+    public BaseResponse<OrderBatchResponse> createOrders(OrderBatchRequest orderBatchRequest) {
+        return BaseResponse.<OrderBatchResponse>builder()
+                .success(true)
+                .message("Order batch processed")
+                .data(createOrders(orderBatchRequest.getOrders(), null))
+                .build();
+    }
+
+    /**
+     * Same as {@link #createOrders(OrderBatchRequest)} but saves each order under the ID it was given when it was
+     * accepted, used by {@link OrderIntakeService} to group-commit queued orders.
+     *
+     * @param orderIds IDs to assign, index-aligned with orderRequests, or null to generate them
+     */
+    @Transactional
+    public OrderBatchResponse createOrders(List<OrderRequest> orderRequests, List<UUID> orderIds) {
+        // Fetch every product and customer referenced by the batch in a single query each
+        Map<UUID, Product> productMap = productRepository.findAllById(orderRequests.stream()
+                        .flatMap(orderRequest -> orderRequest.getOrderProducts().stream())
+                        .map(OrderProductRequest::getProductId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+        Map<UUID, Customer> customerMap = customerRepository.findAllById(orderRequests.stream()
+                        .map(OrderRequest::getCustomerId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Customer::getId, customer -> customer));
+
+        // Stock left for later orders of the batch, tracked outside the managed entities so nothing is written back
+        Map<UUID, Integer> remainingStock = productMap.values().stream()
+                .collect(Collectors.toMap(Product::getId, Product::getStock));
+
+        OrderBatchItemResponse[] results = new OrderBatchItemResponse[orderRequests.size()];
+        Map<Integer, Order> acceptedOrders = new LinkedHashMap<>();
+        for (int index = 0; index < orderRequests.size(); index++) {
+            try {
+                Order order = validateBatchOrder(orderRequests.get(index), productMap, customerMap, remainingStock);
+                order.setId(orderIds == null ? null : orderIds.get(index));
+                acceptedOrders.put(index, order);
+            } catch (ValidationException | ResourceNotFoundException | InsufficientStockException e) {
+                results[index] = failedBatchItem(index, e.getMessage());
+            }
+        }
+
+        reserveBatchStock(acceptedOrders, results);
+        priceOrders(acceptedOrders.values());
+
+        // Save and enqueue events, inserts are grouped into JDBC batches by hibernate.jdbc.batch_size
+        orderRepository.saveAll(acceptedOrders.values());
+        acceptedOrders.forEach((index, order) -> {
+            enqueueOrderCreated(order);
+            customerOrdersCache.evictAfterCommit(order.getCustomer().getId());
+            results[index] = OrderBatchItemResponse.builder()
+                    .index(index)
+                    .success(true)
+                    .message("Order created successfully")
+                    .order(OrderMapper.toOrderResponse(order))
+                    .build();
+        });
+
+        return OrderBatchResponse.builder()
+                .totalOrders(orderRequests.size())
+                .successfulOrders(acceptedOrders.size())
+                .failedOrders(orderRequests.size() - acceptedOrders.size())
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Validate one order of a batch against the prefetched products and customers, and build it.
+     */
+    private Order validateBatchOrder(OrderRequest orderRequest, Map<UUID, Product> productMap,
+                                     Map<UUID, Customer> customerMap, Map<UUID, Integer> remainingStock) {
+        validateOrderQuantities(orderRequest.getOrderProducts());
+        validateProductsExist(orderRequest.getOrderProducts().stream().map(OrderProductRequest::getProductId).toList(), productMap);
+        validateStockAvailability(orderRequest.getOrderProducts(), remainingStock::get);
+
+        Customer customer = customerMap.get(orderRequest.getCustomerId());
+        if (customer == null) {
+            throw new ResourceNotFoundException(ErrorCodes.CUSTOMER_NOT_FOUND.getMessage(orderRequest.getCustomerId().toString()));
+        }
+
+        orderRequest.getOrderProducts().forEach(request ->
+                remainingStock.merge(request.getProductId(), -request.getQuantity(), Integer::sum));
+        return buildOrder(orderRequest, customer, productMap);
+    }
+
+    /**
+     * Reserve stock for all accepted orders of a batch with one guarded UPDATE per product. If another transaction
+     * took some of the stock of a product since it was read, that product falls back to one guarded UPDATE per order
+     * in arrival order, so the orders that still fit get the remaining stock. An order that does not fit is rejected
+     * and the stock it reserved for its other products is given back.
+     */
+    private void reserveBatchStock(Map<Integer, Order> acceptedOrders, OrderBatchItemResponse[] results) {
+        List<UUID> contendedProducts = reserveStock(sumQuantityByProduct(acceptedOrders.values().stream()
+                .flatMap(order -> order.getOrderProducts().stream())
+                .toList()));
+        if (contendedProducts.isEmpty()) {
+            return;
+        }
 
-        // Validate Stock Availability
-        validateStockAvailability(orderRequest, productMap);
+        Iterator<Map.Entry<Integer, Order>> iterator = acceptedOrders.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Order> entry = iterator.next();
+            Map<UUID, Integer> quantityByProduct = sumQuantityByProduct(entry.getValue().getOrderProducts());
+            Map<UUID, Integer> contendedQuantities = new TreeMap<>(quantityByProduct);
+            contendedQuantities.keySet().retainAll(contendedProducts);
+            if (contendedQuantities.isEmpty()) {
+                continue;
+            }
 
-        // Fetch Customer
-        Customer customer = customerRepository.findById(orderRequest.getCustomerId())
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        ErrorCodes.CUSTOMER_NOT_FOUND.getMessage(orderRequest.getCustomerId().toString())));
+            List<UUID> failedProducts = reserveStock(contendedQuantities);
+            if (failedProducts.isEmpty()) {
+                continue;
+            }
 
-        // Create Order
+            quantityByProduct.forEach((productId, quantity) -> {
+                if (!failedProducts.contains(productId)) {
+                    productRepository.restoreStock(productId, quantity);
+                }
+            });
+            results[entry.getKey()] = failedBatchItem(entry.getKey(), ErrorCodes.INSUFFICIENT_STOCK.getMessage(failedProducts.toString()));
+            iterator.remove();
+        }
+    }
+
+    private OrderBatchItemResponse failedBatchItem(int index, String message) {
+        return OrderBatchItemResponse.builder()
+                .index(index)
+                .success(false)
+                .message(message)
+                .build();
+    }
+
+    private Order buildOrder(OrderRequest orderRequest, Customer customer, Map<UUID, Product> productMap) {
         Order order = Order.builder()
                 .customer(customer)
                 .orderDate(LocalDateTime.now())
                 .build();
 
-        // Convert OrderRequest to OrderProducts using the fetched product map
-        List<OrderProduct> orderProducts = OrderProductMapper.toOrderProductList(orderRequest, order, productMap);
-        order.setOrderProducts(orderProducts);
+        // Convert OrderRequest to OrderProducts using the fetched product map, priced once stock is reserved
+        order.setOrderProducts(OrderProductMapper.toOrderProductList(orderRequest, order, productMap));
+        return order;
+    }
+
+    /**
+     * Fix unit prices and totals of orders whose stock is reserved, with one query for all of their products. The
+     * reservation holds the product rows locked, so the prices read here are the ones in force at commit.
+     */
+    private void priceOrders(Collection<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
 
-        // Deduct Stock
-        deductStock(orderProducts);
+        Map<UUID, BigDecimal> unitPrices = productRepository.findPricesByIdIn(orders.stream()
+                        .flatMap(order -> order.getOrderProducts().stream())
+                        .map(orderProduct -> orderProduct.getProduct().getId())
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(ProductRepository.ProductPrice::getId, ProductRepository.ProductPrice::getPrice));
+        orders.forEach(order -> {
+            OrderProductMapper.applyUnitPrices(order.getOrderProducts(), unitPrices);
+            order.setTotalAmount(OrderProductMapper.calculateTotalAmount(order.getOrderProducts()));
+        });
+    }
 
-        // Save and Publish event
-        orderRepository.save(order);
+    private void enqueueOrderCreated(Order order) {
         OrderEvent orderEvent = OrderMapper.toOrderEvent(order);
-        orderDataChangedProducer.publishEvent(orderEvent.getId().toString(), orderEvent, EventType.ORDER_CREATED.getEventName());
+        outboxService.enqueue(orderDataChangedProducer, orderEvent.getId().toString(), orderEvent, EventType.ORDER_CREATED.getEventName());
+    }
 
-        return BaseResponse.<OrderResponse>builder()
-                .success(true)
-                .message("Order created successfully")
-                .data(OrderMapper.toOrderResponse(order))
-                .build();
+    private <T> T recordPhase(String phase, Supplier<T> work) {
+        return createOrderPhaseTimer(phase).record(work);
+    }
+
+    private void recordPhase(String phase, Runnable work) {
+        createOrderPhaseTimer(phase).record(work);
     }
 
     /**
-     * Fetch all products from database in a single query to reduce DB calls.
+     * Time the commit of the surrounding transaction, from before Hibernate flushes until it completed.
      */
-    private Map<UUID, Product> getProducts(List<OrderProductRequest> orderProducts) {
+    private void recordCommitPhase() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStartedAt;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStartedAt = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (commitStartedAt != 0) {
+                    createOrderPhaseTimer("commit").record(System.nanoTime() - commitStartedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+
+    private Timer createOrderPhaseTimer(String phase) {
+        return Timer.builder("order.create.phase")
+                .tag("phase", phase)
+                .description("Time createOrder spends in each phase")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validate that every product is ordered at least once.
+     */
+    static void validateOrderQuantities(List<OrderProductRequest> orderProducts) {
         // Collect all product IDs with quantity less than 1 for validation
         List<UUID> invalidProductIds = orderProducts.stream()
                 .filter(orderProductRequest -> orderProductRequest.getQuantity() < 1)
@@ -118,15 +468,12 @@ public class OrderService {
         if (!invalidProductIds.isEmpty()) {
             throw new ValidationException(MINIMUM_ORDER_QUANTITY.getMessage(invalidProductIds.toString()));
         }
+    }
 
-        List<UUID> productIds = orderProducts.stream()
-                .map(OrderProductRequest::getProductId)
-                .toList();
-
-        List<Product> products = productRepository.findAllById(productIds);
-        Map<UUID, Product> productMap = products.stream()
-                .collect(Collectors.toMap(Product::getId, product -> product));
-
+    /**
+     * Validate that every requested product was found.
+     */
+    private void validateProductsExist(List<UUID> productIds, Map<UUID, Product> productMap) {
         // Identify missing product IDs
         List<UUID> missingProductIds = productIds.stream()
                 .filter(id -> !productMap.containsKey(id))
@@ -138,19 +485,14 @@ public class OrderService {
                     ErrorCodes.PRODUCT_LIST_INVALID.getMessage(missingProductIds.toString())
             );
         }
-
-        return productMap;
     }
 
     /**
      * Validate if requested product stock is sufficient.
      */
-    private void validateStockAvailability(OrderRequest orderRequest, Map<UUID, Product> productMap) {
-        List<UUID> insufficientStockProducts = orderRequest.getOrderProducts().stream()
-                .filter(request -> {
-                    Product product = productMap.get(request.getProductId());
-                    return product.getStock() < request.getQuantity();
-                })
+    private void validateStockAvailability(List<OrderProductRequest> orderProducts, Function<UUID, Integer> availableStock) {
+        List<UUID> insufficientStockProducts = orderProducts.stream()
+                .filter(request -> availableStock.apply(request.getProductId()) < request.getQuantity())
                 .map(OrderProductRequest::getProductId)
                 .toList();
 
@@ -162,13 +504,42 @@ public class OrderService {
     }
 
     /**
-     * Deduct stock for ordered products.
+     * Deduct stock for ordered products using a guarded UPDATE per product, so the check and the
+     * decrement happen in a single statement.
      */
     private void deductStock(List<OrderProduct> orderProducts) {
-        for (OrderProduct orderProduct : orderProducts) {
-            Product product = orderProduct.getProduct();
-            product.setStock(product.getStock() - orderProduct.getQuantity());
+        List<UUID> insufficientStockProducts = reserveStock(sumQuantityByProduct(orderProducts));
+
+        // Throwing rolls back the reservations already made for this order
+        if (!insufficientStockProducts.isEmpty()) {
+            throw new InsufficientStockException(
+                    ErrorCodes.INSUFFICIENT_STOCK.getMessage(insufficientStockProducts.toString())
+            );
         }
-        productRepository.saveAll(orderProducts.stream().map(OrderProduct::getProduct).toList());
+    }
+
+    /**
+     * Apply one guarded decrement per product. Products are visited in ID order to keep lock acquisition
+     * consistent between concurrent orders.
+     *
+     * @return products whose stock was insufficient, nothing was deducted for those
+     */
+    private List<UUID> reserveStock(Map<UUID, Integer> quantityByProduct) {
+        List<UUID> insufficientStockProducts = new ArrayList<>();
+        quantityByProduct.forEach((productId, quantity) -> {
+            if (productRepository.deductStock(productId, quantity) == 0) {
+                insufficientStockProducts.add(productId);
+            }
+        });
+        return insufficientStockProducts;
+    }
+
+    private Map<UUID, Integer> sumQuantityByProduct(List<OrderProduct> orderProducts) {
+        return orderProducts.stream()
+                .collect(Collectors.toMap(
+                        orderProduct -> orderProduct.getProduct().getId(),
+                        OrderProduct::getQuantity,
+                        Integer::sum,
+                        TreeMap::new));
     }
 }
@@ -0,0 +1,47 @@
+package net.dzakirin.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import net.dzakirin.common.dto.event.EventWrapper;
+import net.dzakirin.common.producer.BaseProducer;
+import net.dzakirin.model.OutboxEvent;
+import net.dzakirin.repository.OutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Store an event in the outbox as part of the caller's transaction. The event only becomes visible to
+     * {@link net.dzakirin.producer.OutboxRelay} once that transaction commits, so a rollback never publishes it.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void enqueue(BaseProducer<T> producer, String key, T dto, String eventType) {
+        EventWrapper<T> eventWrapper = producer.wrapEvent(key, dto, eventType);
+
+        outboxRepository.save(OutboxEvent.builder()
+                .topic(producer.getTopic())
+                .eventKey(key)
+                .eventType(eventType)
+                .payload(serialize(eventWrapper))
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private String serialize(EventWrapper<?> eventWrapper) {
+        try {
+            return objectMapper.writeValueAsString(eventWrapper);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize event " + eventWrapper.getEventId(), e);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package net.dzakirin.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.cache.ProductCache;
+import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.id.UuidV7;
+import net.dzakirin.constant.ErrorCodes;
+import net.dzakirin.constant.EventType;
+import net.dzakirin.dto.request.ProductRequest;
+import net.dzakirin.dto.response.ProductImportRejectionResponse;
+import net.dzakirin.dto.response.ProductImportResponse;
+import net.dzakirin.exception.ValidationException;
+import net.dzakirin.producer.ProductCacheInvalidationProducer;
+import net.dzakirin.search.ProductSearchIndex;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Creates and updates products in bulk from a CSV file. Rows are validated as they are read and valid ones go straight
+ * into a temporary staging table through COPY, which is then merged into products with a single upsert. Only the IDs
+ * of changed products and the first rejected rows are kept in memory, whatever the size of the file.
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    static final String ID_COLUMN = "id";
+    static final List<String> REQUIRED_COLUMNS = List.of("title", "price", "stock");
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    // products.price is DECIMAL(10,2)
+    private static final int PRICE_PRECISION = 10;
+    private static final int PRICE_SCALE = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMPORARY TABLE product_import_staging (
+                line_number BIGINT NOT NULL,
+                id UUID NOT NULL,
+                title VARCHAR(255) NOT NULL,
+                price DECIMAL(10,2) NOT NULL,
+                stock INT NOT NULL
+            ) ON COMMIT DROP
+            """;
+    private static final String COPY_INTO_STAGING_TABLE =
+            "COPY product_import_staging (line_number, id, title, price, stock) FROM STDIN WITH (FORMAT csv)";
+    /*
+     * The last row wins when a file lists an ID twice, since one upsert cannot change a row twice. Identical rows are
+     * skipped so re-importing a whole catalog only rewrites what changed. xmax is 0 for freshly inserted rows.
+     */
+    private static final String MERGE_STAGING_TABLE = """
+            INSERT INTO products (id, title, price, stock)
+            SELECT DISTINCT ON (id) id, title, price, stock
+            FROM product_import_staging
+            ORDER BY id, line_number DESC
+            ON CONFLICT (id) DO UPDATE SET title = EXCLUDED.title, price = EXCLUDED.price, stock = EXCLUDED.stock
+            WHERE (products.title, products.price, products.stock) IS DISTINCT FROM (EXCLUDED.title, EXCLUDED.price, EXCLUDED.stock)
+            RETURNING id, xmax = 0 AS inserted
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final OutboxService outboxService;
+    private final ProductCacheInvalidationProducer productCacheInvalidationProducer;
+    private final int maxReportedRejections;
+    private final int invalidationBatchSize;
+
+    public ProductImportService(DataSource dataSource,
+                                ProductCache productCache,
+                                ProductSearchIndex productSearchIndex,
+                                OutboxService outboxService,
+                                ProductCacheInvalidationProducer productCacheInvalidationProducer,
+                                @Value("${product.import.max-reported-rejections:1000}") int maxReportedRejections,
+                                @Value("${product.import.invalidation-batch-size:1000}") int invalidationBatchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.productCache = productCache;
+        this.productSearchIndex = productSearchIndex;
+        this.outboxService = outboxService;
+        this.productCacheInvalidationProducer = productCacheInvalidationProducer;
+        this.maxReportedRejections = maxReportedRejections;
+        this.invalidationBatchSize = invalidationBatchSize;
+    }
+
+    /**
+     * Import the CSV in one transaction. Rows with an id update that product, or create it if unknown; rows without
+     * one create a new product. Invalid rows are reported and skipped, a malformed header fails the whole import.
+     */
+    @Transactional
+    public BaseResponse<ProductImportResponse> importProducts(InputStream csv) throws IOException {
+        long startTime = System.currentTimeMillis();
+        Reader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8), BUFFER_SIZE);
+        ImportReport report = new ImportReport(maxReportedRejections);
+
+        jdbcTemplate.execute(CREATE_STAGING_TABLE);
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Writer staging = new BufferedWriter(new OutputStreamWriter(
+                        new PGCopyOutputStream(pgConnection, COPY_INTO_STAGING_TABLE, BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                    stageRows(reader, staging, report);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long[] created = {0};
+        List<UUID> changedProductIds = new ArrayList<>();
+        jdbcTemplate.query(MERGE_STAGING_TABLE, (RowCallbackHandler) resultSet -> {
+            changedProductIds.add(resultSet.getObject("id", UUID.class));
+            if (resultSet.getBoolean("inserted")) {
+                created[0]++;
+            }
+        });
+        for (int from = 0; from < changedProductIds.size(); from += invalidationBatchSize) {
+            notifyChanged(changedProductIds.subList(from, Math.min(from + invalidationBatchSize, changedProductIds.size())));
+        }
+
+        long updated = changedProductIds.size() - created[0];
+        log.info("Imported products in {} ms: {} rows, {} created, {} updated, {} rejected",
+                System.currentTimeMillis() - startTime, report.totalRows, created[0], updated, report.rejectedRows);
+
+        return BaseResponse.<ProductImportResponse>builder()
+                .success(true)
+                .message("Products imported successfully")
+                .data(ProductImportResponse.builder()
+                        .totalRows(report.totalRows)
+                        .createdProducts(created[0])
+                        .updatedProducts(updated)
+                        .unchangedRows(report.stagedRows - changedProductIds.size())
+                        .rejectedRows(report.rejectedRows)
+                        .rejections(report.rejections)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Drop the products from every replica's cache and search index once the import commits, in batches so no
+     * single event gets too large. Each event gets its own ID so this replica can skip reloading its own batch again.
+     */
+    private void notifyChanged(List<UUID> productIds) {
+        List<UUID> batch = List.copyOf(productIds);
+        String eventId = UUID.randomUUID().toString();
+        productCache.evictAllAfterCommit(batch);
+        productSearchIndex.reloadAfterCommit(batch, eventId);
+        outboxService.enqueue(productCacheInvalidationProducer, eventId, batch, EventType.PRODUCTS_IMPORTED.getEventName());
+    }
+
+    /**
+     * Read the header and every row of the CSV, writing valid rows to staging as COPY CSV lines.
+     */
+    static void stageRows(Reader csv, Writer staging, ImportReport report) throws IOException {
+        CsvRecordReader records = new CsvRecordReader(csv);
+        List<String> header = records.next();
+        Columns columns = Columns.from(header == null ? List.of() : header);
+
+        List<String> fields;
+        while ((fields = records.next()) != null) {
+            report.totalRows++;
+            long lineNumber = records.getRecordLineNumber();
+            try {
+                StagedRow row = parseRow(fields, columns);
+                staging.write(Long.toString(lineNumber));
+                staging.write(',');
+                staging.write(row.id().toString());
+                staging.write(',');
+                writeQuoted(staging, row.title());
+                staging.write(',');
+                staging.write(row.price().toPlainString());
+                staging.write(',');
+                staging.write(Integer.toString(row.stock()));
+                staging.write('\n');
+                report.stagedRows++;
+            } catch (ValidationException e) {
+                report.reject(lineNumber, e.getMessage());
+            }
+        }
+    }
+
+    private static StagedRow parseRow(List<String> fields, Columns columns) {
+        if (fields.size() != columns.count()) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_COLUMN_COUNT.getMessage(
+                    String.valueOf(columns.count()), String.valueOf(fields.size())));
+        }
+        String title = fields.get(columns.title());
+        BigDecimal price = parsePrice(fields.get(columns.price()));
+        int stock = parseStock(fields.get(columns.stock()));
+        ProductService.validateProductRequest(ProductRequest.builder().title(title).price(price).stock(stock).build(), true);
+        if (title.indexOf('\0') >= 0) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_VALUE_INVALID.getMessage("title", title));
+        }
+        if (price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).precision() > PRICE_PRECISION) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_VALUE_INVALID.getMessage("price", price.toPlainString()));
+        }
+        return new StagedRow(parseId(columns.id() < 0 ? "" : fields.get(columns.id())), title, price, stock);
+    }
+
+    private static UUID parseId(String value) {
+        if (value.isBlank()) {
+            return UuidV7.generate();
+        }
+        try {
+            return UUID.fromString(value.strip());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_VALUE_INVALID.getMessage(ID_COLUMN, value));
+        }
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        if (value.isBlank()) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_VALUE_MISSING.getMessage("price"));
+        }
+        try {
+            return new BigDecimal(value.strip());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_VALUE_INVALID.getMessage("price", value));
+        }
+    }
+
+    private static int parseStock(String value) {
+        if (value.isBlank()) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_VALUE_MISSING.getMessage("stock"));
+        }
+        try {
+            return Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_VALUE_INVALID.getMessage("stock", value));
+        }
+    }
+
+    private static void writeQuoted(Writer writer, String value) throws IOException {
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private record StagedRow(UUID id, String title, BigDecimal price, int stock) {
+    }
+
+    /**
+     * Positions of the columns in the file, id is -1 when absent.
+     */
+    private record Columns(int count, int id, int title, int price, int stock) {
+
+        static Columns from(List<String> header) {
+            List<String> names = header.stream().map(name -> name.replace("\uFEFF", "").strip().toLowerCase(Locale.ROOT)).toList();
+            boolean valid = names.containsAll(REQUIRED_COLUMNS)
+                    && names.stream().allMatch(name -> name.equals(ID_COLUMN) || REQUIRED_COLUMNS.contains(name))
+                    && names.stream().distinct().count() == names.size();
+            if (!valid) {
+                throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_HEADER_INVALID.getMessage(String.join(",", header)));
+            }
+            return new Columns(names.size(), names.indexOf(ID_COLUMN), names.indexOf("title"), names.indexOf("price"), names.indexOf("stock"));
+        }
+    }
+
+    static final class ImportReport {
+
+        private final int maxRejections;
+        private final List<ProductImportRejectionResponse> rejections = new ArrayList<>();
+        private long totalRows;
+        private long stagedRows;
+        private long rejectedRows;
+
+        ImportReport(int maxRejections) {
+            this.maxRejections = maxRejections;
+        }
+
+        private void reject(long lineNumber, String message) {
+            rejectedRows++;
+            if (rejections.size() < maxRejections) {
+                rejections.add(ProductImportRejectionResponse.builder().lineNumber(lineNumber).message(message).build());
+            }
+        }
+    }
+
+    /**
+     * RFC 4180 records read one character at a time: quoted fields may hold commas, doubled quotes and line breaks.
+     * Blank lines are skipped and a carriage return before a line feed is dropped.
+     */
+    static final class CsvRecordReader {
+
+        private final Reader reader;
+        private long lineNumber = 1;
+        private long recordLineNumber;
+
+        CsvRecordReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Fields of the next record, null at the end of the input.
+         */
+        List<String> next() throws IOException {
+            int c = read();
+            while (c == '\n' || c == '\r') {
+                c = read();
+            }
+            if (c == -1) {
+                return null;
+            }
+            recordLineNumber = lineNumber;
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int recordLength = 0;
+            while (true) {
+                if (++recordLength > MAX_RECORD_LENGTH) {
+                    throw new ValidationException(ErrorCodes.PRODUCT_IMPORT_RECORD_TOO_LONG.getMessage(
+                            String.valueOf(recordLineNumber), String.valueOf(MAX_RECORD_LENGTH)));
+                }
+                if (quoted) {
+                    if (c == -1) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c == '"') {
+                            field.append('"');
+                            c = read();
+                        } else {
+                            quoted = false;
+                        }
+                        continue;
+                    }
+                    field.append((char) c);
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        long getRecordLineNumber() {
+            return recordLineNumber;
+        }
+
+        private int read() throws IOException {
+            int c = reader.read();
+            if (c == '\n') {
+                lineNumber++;
+            }
+            return c;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package net.dzakirin.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.cache.ProductCache;
+import net.dzakirin.common.dto.response.BaseListResponse;
+import net.dzakirin.constant.ErrorCodes;
+import net.dzakirin.dto.response.ProductResponse;
+import net.dzakirin.exception.ProductSearchIndexLoadingException;
+import net.dzakirin.exception.ValidationException;
+import net.dzakirin.mapper.ProductMapper;
+import net.dzakirin.model.Product;
+import net.dzakirin.search.ProductSearchIndex;
+import net.dzakirin.utils.CursorUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    static final int MIN_QUERY_LENGTH = 2;
+    static final int MAX_QUERY_LENGTH = 100;
+
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCache productCache;
+
+    /**
+     * Products whose title matches every query word exactly, by prefix or with a small typo, case-insensitive. Ranked by
+     * {@link ProductSearchIndex}, product details come from {@link ProductCache}.
+     */
+    public BaseListResponse<ProductResponse> searchProducts(String query, int size) {
+        String trimmedQuery = query == null ? "" : query.strip();
+        if (trimmedQuery.length() < MIN_QUERY_LENGTH || trimmedQuery.length() > MAX_QUERY_LENGTH) {
+            throw new ValidationException(ErrorCodes.PRODUCT_SEARCH_QUERY_INVALID.getMessage(
+                    String.valueOf(MIN_QUERY_LENGTH), String.valueOf(MAX_QUERY_LENGTH)));
+        }
+        CursorUtils.pageLimit(size);
+        if (!productSearchIndex.isReady()) {
+            throw new ProductSearchIndexLoadingException(ErrorCodes.PRODUCT_SEARCH_INDEX_LOADING.getMessage());
+        }
+
+        List<UUID> productIds = productSearchIndex.search(trimmedQuery, size);
+        Map<UUID, Product> products = productCache.getAll(productIds);
+        List<Product> rankedProducts = productIds.stream().map(products::get).filter(Objects::nonNull).toList();
+        log.debug("Product search for '{}' matched {} products", trimmedQuery, rankedProducts.size());
+
+        return BaseListResponse.<ProductResponse>builder()
+                .success(true)
+                .message("Products fetched successfully")
+                .data(ProductMapper.toResponseList(rankedProducts))
+                .totalRecords(rankedProducts.size())
+                .totalPages(1)
+                .build();
+    }
+}
@@ -1,22 +1,33 @@
 package net.dzakirin.service;
 
 import lombok.RequiredArgsConstructor;
+import net.dzakirin.cache.ProductCache;
 import net.dzakirin.common.dto.response.BaseListResponse;
 import net.dzakirin.common.dto.response.BaseResponse;
+import net.dzakirin.common.dto.response.CursorListResponse;
 import net.dzakirin.constant.ErrorCodes;
+import net.dzakirin.constant.EventType;
 import net.dzakirin.dto.request.ProductRequest;
 import net.dzakirin.dto.response.ProductResponse;
+import net.dzakirin.dto.response.TrendingProductResponse;
 import net.dzakirin.exception.ResourceNotFoundException;
 import net.dzakirin.exception.ValidationException;
 import net.dzakirin.mapper.ProductMapper;
 import net.dzakirin.model.Product;
+import net.dzakirin.producer.ProductCacheInvalidationProducer;
 import net.dzakirin.repository.ProductRepository;
+import net.dzakirin.search.ProductSearchIndex;
+import net.dzakirin.trending.TrendingProductsTracker;
+import net.dzakirin.utils.CursorUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -24,7 +35,13 @@ import java.util.UUID;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final OutboxService outboxService;
+    private final ProductCacheInvalidationProducer productCacheInvalidationProducer;
+    private final TrendingProductsTracker trendingProductsTracker;
+    private final ProductSearchIndex productSearchIndex;
 
+    @Transactional(readOnly = true)
     public BaseListResponse<ProductResponse> getAllProducts(Pageable pageable) {
         Page<Product> products = productRepository.findAll(pageable);
 
@@ -37,8 +54,68 @@ public class ProductService {
                 .build();
     }
 
+    /**
+     * Keyset page of products ordered by title, descending like {@link #getAllProducts(Pageable)}. No count query.
+     *
+     * @param after cursor from the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorListResponse<ProductResponse> getProductsAfter(String after, int size) {
+        Limit limit = CursorUtils.pageLimit(size);
+        List<Product> products;
+        if (after == null) {
+            products = productRepository.findFirstPage(limit);
+        } else {
+            CursorUtils.Cursor cursor = CursorUtils.decode(after);
+            products = productRepository.findPageAfter(cursor.sortKey(), cursor.id(), limit);
+        }
+
+        boolean hasNext = products.size() > size;
+        List<Product> page = hasNext ? products.subList(0, size) : products;
+        Product last = hasNext ? page.get(size - 1) : null;
+
+        return CursorListResponse.<ProductResponse>builder()
+                .success(true)
+                .message("Products fetched successfully")
+                .data(ProductMapper.toResponseList(page))
+                .nextCursor(last == null ? null : CursorUtils.encode(last.getTitle(), last.getId()))
+                .build();
+    }
+
+    /**
+     * Best-selling products of the last windowMinutes minutes on this replica, from {@link TrendingProductsTracker}.
+     * Titles come from {@link ProductCache}, deleted products are left out.
+     */
+    public BaseListResponse<TrendingProductResponse> getTrendingProducts(int windowMinutes, int limit) {
+        if (windowMinutes < 1 || windowMinutes > trendingProductsTracker.getMaxWindowMinutes()) {
+            throw new ValidationException(ErrorCodes.TRENDING_WINDOW_INVALID.getMessage(
+                    String.valueOf(trendingProductsTracker.getMaxWindowMinutes())));
+        }
+        if (limit < 1 || limit > trendingProductsTracker.getTopK()) {
+            throw new ValidationException(ErrorCodes.TRENDING_LIMIT_INVALID.getMessage(String.valueOf(trendingProductsTracker.getTopK())));
+        }
+
+        List<TrendingProductsTracker.Trend> trends = trendingProductsTracker.top(windowMinutes, limit);
+        Map<UUID, Product> products = productCache.getAll(trends.stream().map(TrendingProductsTracker.Trend::productId).toList());
+        List<TrendingProductResponse> trendingProducts = trends.stream()
+                .filter(trend -> products.containsKey(trend.productId()))
+                .map(trend -> ProductMapper.toTrendingProductResponse(products.get(trend.productId()), trend.units()))
+                .toList();
+
+        return BaseListResponse.<TrendingProductResponse>builder()
+                .success(true)
+                .message("Trending products fetched successfully")
+                .data(trendingProducts)
+                .totalRecords(trendingProducts.size())
+                .totalPages(1)
+                .build();
+    }
+
+    /**
+     * Served from {@link ProductCache}, the returned stock may lag behind the database by up to the cache expiry.
+     */
     public BaseResponse<ProductResponse> getProductById(UUID productId) {
-        Product product = productRepository.findById(productId)
+        Product product = productCache.get(productId)
                 .orElseThrow(() -> new ResourceNotFoundException(ErrorCodes.PRODUCT_NOT_FOUND.getMessage(productId.toString())));
 
         return BaseResponse.<ProductResponse>builder()
@@ -54,6 +131,8 @@ public class ProductService {
 
         Product product = ProductMapper.toProduct(productRequest);
         productRepository.save(product);
+        productSearchIndex.putAfterCommit(product.getId(), product.getTitle());
+        enqueueCacheInvalidation(product.getId(), EventType.PRODUCT_CREATED);
 
         return BaseResponse.<ProductResponse>builder()
                 .success(true)
@@ -81,6 +160,9 @@ public class ProductService {
         }
 
         productRepository.save(product);
+        productCache.putAfterCommit(product);
+        productSearchIndex.putAfterCommit(productId, product.getTitle());
+        enqueueCacheInvalidation(productId, EventType.PRODUCT_UPDATED);
 
         return BaseResponse.<ProductResponse>builder()
                 .success(true)
@@ -95,9 +177,22 @@ public class ProductService {
             throw new ResourceNotFoundException(ErrorCodes.PRODUCT_NOT_FOUND.getMessage(productId.toString()));
         }
         productRepository.deleteById(productId);
+        productCache.evictAfterCommit(productId);
+        productSearchIndex.removeAfterCommit(productId);
+        enqueueCacheInvalidation(productId, EventType.PRODUCT_DELETED);
+    }
+
+    /**
+     * Let the other replicas drop their cached copy and re-index the product once this transaction commits.
+     */
+    private void enqueueCacheInvalidation(UUID productId, EventType eventType) {
+        outboxService.enqueue(productCacheInvalidationProducer, productId.toString(), List.of(productId), eventType.getEventName());
     }
 
-    private void validateProductRequest(ProductRequest productRequest, boolean isCreate) {
+    /**
+     * Also applied to every row of a bulk import by {@link ProductImportService}.
+     */
+    static void validateProductRequest(ProductRequest productRequest, boolean isCreate) {
         if (isCreate && (productRequest.getTitle() == null || productRequest.getTitle().trim().isEmpty())) {
             throw new ValidationException(ErrorCodes.PRODUCT_TITLE_EMPTY.getMessage());
         }
@@ -0,0 +1,63 @@
+package net.dzakirin.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.common.dto.response.BaseListResponse;
+import net.dzakirin.constant.ErrorCodes;
+import net.dzakirin.constant.SalesReportGrouping;
+import net.dzakirin.dto.response.DailySalesResponse;
+import net.dzakirin.exception.ValidationException;
+import net.dzakirin.mapper.SalesMapper;
+import net.dzakirin.repository.CustomerDailySalesRepository;
+import net.dzakirin.repository.ProductDailySalesRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Slf4j
+@Service
+public class SalesReportService {
+
+    private final ProductDailySalesRepository productDailySalesRepository;
+    private final CustomerDailySalesRepository customerDailySalesRepository;
+    private final int maxDays;
+
+    public SalesReportService(ProductDailySalesRepository productDailySalesRepository,
+                              CustomerDailySalesRepository customerDailySalesRepository,
+                              @Value("${report.sales.max-days:366}") int maxDays) {
+        this.productDailySalesRepository = productDailySalesRepository;
+        this.customerDailySalesRepository = customerDailySalesRepository;
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * Daily sales between two dates (both inclusive), read only from the rollup tables.
+     */
+    @Transactional(readOnly = true)
+    public BaseListResponse<DailySalesResponse> getSales(SalesReportGrouping grouping, LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= maxDays) {
+            throw new ValidationException(ErrorCodes.SALES_REPORT_RANGE_INVALID.getMessage(String.valueOf(maxDays)));
+        }
+
+        List<DailySalesResponse> sales = switch (grouping) {
+            case PRODUCT -> productDailySalesRepository.findBySalesDateBetweenOrderBySalesDateAscRevenueDesc(from, to).stream()
+                    .map(SalesMapper::toDailySalesResponse)
+                    .toList();
+            case CUSTOMER -> customerDailySalesRepository.findBySalesDateBetweenOrderBySalesDateAscRevenueDesc(from, to).stream()
+                    .map(SalesMapper::toDailySalesResponse)
+                    .toList();
+        };
+        log.info("Fetched {} daily {} sales between {} and {}", sales.size(), grouping.getValue(), from, to);
+
+        return BaseListResponse.<DailySalesResponse>builder()
+                .success(true)
+                .message("Sales fetched successfully")
+                .data(sales)
+                .totalRecords(sales.size())
+                .totalPages(1)
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package net.dzakirin.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.common.dto.event.OrderProductEvent;
+import net.dzakirin.repository.CustomerDailySalesRepository;
+import net.dzakirin.repository.ProductDailySalesRepository;
+import net.dzakirin.repository.SalesRollupOrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesRollupService {
+
+    private final SalesRollupOrderRepository salesRollupOrderRepository;
+    private final ProductDailySalesRepository productDailySalesRepository;
+    private final CustomerDailySalesRepository customerDailySalesRepository;
+
+    /**
+     * Add a created order to the daily product and customer rollups. The order is claimed in the same transaction,
+     * so a redelivered event is skipped instead of counted twice.
+     *
+     * @return false when the order was already applied
+     */
+    @Transactional
+    public boolean applyOrderCreated(OrderEvent orderEvent) {
+        if (salesRollupOrderRepository.markApplied(orderEvent.getId()) == 0) {
+            log.info("Order already in the sales rollups, skipping: OrderID={}", orderEvent.getId());
+            return false;
+        }
+
+        LocalDate salesDate = orderEvent.getOrderDate().toLocalDate();
+        Map<UUID, LineTotals> productTotals = new LinkedHashMap<>();
+        LineTotals orderTotals = new LineTotals();
+        for (OrderProductEvent orderProduct : orderEvent.getOrderProducts()) {
+            // Several lines of the same product still count as one order for that product
+            productTotals.computeIfAbsent(orderProduct.getProductId(), productId -> new LineTotals()).add(orderProduct);
+            orderTotals.add(orderProduct);
+        }
+
+        productTotals.forEach((productId, totals) ->
+                productDailySalesRepository.addSales(salesDate, productId, totals.units, totals.revenue));
+        customerDailySalesRepository.addSales(salesDate, orderEvent.getCustomerId(), orderTotals.units, orderTotals.revenue);
+        return true;
+    }
+
+    private static final class LineTotals {
+
+        private long units;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        private void add(OrderProductEvent orderProduct) {
+            units += orderProduct.getQuantity();
+            revenue = revenue.add(orderProduct.getPrice().multiply(BigDecimal.valueOf(orderProduct.getQuantity())));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package net.dzakirin.trending;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch over pre-hashed keys. Estimates never undercount and overcount by at most e / width of the total
+ * added, with probability 1 - e^-depth.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[] counters;
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     */
+    CountMinSketch(int depth, int width) {
+        int roundedWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.depth = depth;
+        this.mask = roundedWidth - 1;
+        this.counters = new int[depth * roundedWidth];
+    }
+
+    /**
+     * Add to the key's counters and return its new estimate.
+     */
+    long add(long hash1, long hash2, int count) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, hash1, hash2);
+            counters[index] += count;
+            estimate = Math.min(estimate, counters[index]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimate of a key over several sketches of the same shape, as if they had been merged into one.
+     */
+    static long estimate(CountMinSketch[] sketches, int sketchCount, long hash1, long hash2) {
+        CountMinSketch shape = sketches[0];
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < shape.depth; row++) {
+            int index = shape.index(row, hash1, hash2);
+            long sum = 0;
+            for (int i = 0; i < sketchCount; i++) {
+                sum += sketches[i].counters[index];
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    private int index(int row, long hash1, long hash2) {
+        // Kirsch-Mitzenmacher: row hashes derived from two independent hashes
+        return row * (mask + 1) + (int) ((hash1 + row * hash2) & mask);
+    }
+}
@@ -0,0 +1,100 @@
+package net.dzakirin.trending;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The K keys with the highest counts seen so far, as a min-heap indexed by key. Counts only grow, so an update of a
+ * key already held is a sift down, and a new key only gets in by replacing the current minimum.
+ */
+final class TopKHeap {
+
+    private final UUID[] keys;
+    private final long[] counts;
+    private final Map<UUID, Integer> positions;
+    private int size;
+
+    TopKHeap(int capacity) {
+        this.keys = new UUID[capacity];
+        this.counts = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    void offer(UUID key, long count) {
+        Integer position = positions.get(key);
+        if (position != null) {
+            if (count > counts[position]) {
+                counts[position] = count;
+                siftDown(position);
+            }
+        } else if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = count;
+            positions.put(key, size);
+            siftUp(size++);
+        } else if (count > counts[0]) {
+            positions.remove(keys[0]);
+            keys[0] = key;
+            counts[0] = count;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    List<UUID> keys() {
+        List<UUID> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(keys[i]);
+        }
+        return result;
+    }
+
+    void clear() {
+        positions.clear();
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= counts[position]) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int smallest = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == position) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        UUID key = keys[a];
+        long count = counts[a];
+        keys[a] = keys[b];
+        counts[a] = counts[b];
+        keys[b] = key;
+        counts[b] = count;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+}
@@ -0,0 +1,166 @@
+package net.dzakirin.trending;
+
+import net.dzakirin.common.dto.event.OrderEvent;
+import net.dzakirin.common.dto.event.OrderProductEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Approximate best-selling products over the last few minutes, kept in bounded memory whatever the number of products.
+ * <p>
+ * Units sold are counted in one-minute buckets, a ring covering max-window-minutes. Each bucket has a count-min sketch
+ * of units per product and a top-K heap of its best sellers. A window query merges the sketches of its buckets and
+ * ranks the union of their heaps, so a product can only trend if it was among the top K of at least one minute.
+ * Memory is max-window-minutes x (sketch-depth x sketch-width x 4 bytes + top-K keys), about 4 MB with the defaults.
+ * <p>
+ * Counts are per replica and start empty on restart, which suits a "trending now" view.
+ */
+@Component
+public class TrendingProductsTracker {
+
+    private final Clock clock;
+    private final int topK;
+    private final Bucket[] buckets;
+
+    @Autowired
+    public TrendingProductsTracker(@Value("${product.trending.max-window-minutes:60}") int maxWindowMinutes,
+                                   @Value("${product.trending.top-k:100}") int topK,
+                                   @Value("${product.trending.sketch-depth:4}") int sketchDepth,
+                                   @Value("${product.trending.sketch-width:4096}") int sketchWidth) {
+        this(Clock.systemDefaultZone(), maxWindowMinutes, topK, sketchDepth, sketchWidth);
+    }
+
+    TrendingProductsTracker(Clock clock, int maxWindowMinutes, int topK, int sketchDepth, int sketchWidth) {
+        this.clock = clock;
+        this.topK = topK;
+        this.buckets = new Bucket[maxWindowMinutes];
+        for (int i = 0; i < maxWindowMinutes; i++) {
+            buckets[i] = new Bucket(new CountMinSketch(sketchDepth, sketchWidth), new TopKHeap(topK));
+        }
+    }
+
+    public int getMaxWindowMinutes() {
+        return buckets.length;
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Count the units of every order line in the minute the order was placed. Orders older than the longest window
+     * are ignored, orders dated in the future count as now.
+     */
+    public synchronized void record(OrderEvent orderEvent) {
+        long currentMinute = currentMinute();
+        long minute = Math.min(toMinute(orderEvent.getOrderDate()), currentMinute);
+        if (minute <= currentMinute - buckets.length) {
+            return;
+        }
+
+        Bucket bucket = buckets[(int) Math.floorMod(minute, (long) buckets.length)];
+        if (bucket.minute != minute) {
+            if (bucket.minute > minute) {
+                return;
+            }
+            bucket.reset(minute);
+        }
+        for (OrderProductEvent orderProduct : orderEvent.getOrderProducts()) {
+            UUID productId = orderProduct.getProductId();
+            long hash1 = hash1(productId);
+            long units = bucket.sketch.add(hash1, hash2(hash1), orderProduct.getQuantity());
+            bucket.topK.offer(productId, units);
+        }
+    }
+
+    /**
+     * Best-selling products of the last windowMinutes minutes, including the current one, highest units first.
+     */
+    public synchronized List<Trend> top(int windowMinutes, int limit) {
+        long currentMinute = currentMinute();
+        CountMinSketch[] sketches = new CountMinSketch[buckets.length];
+        int sketchCount = 0;
+        Set<UUID> candidates = new HashSet<>();
+        for (Bucket bucket : buckets) {
+            if (bucket.minute > currentMinute - windowMinutes && bucket.minute <= currentMinute) {
+                sketches[sketchCount++] = bucket.sketch;
+                candidates.addAll(bucket.topK.keys());
+            }
+        }
+        if (sketchCount == 0) {
+            return List.of();
+        }
+
+        int mergedSketchCount = sketchCount;
+        return candidates.stream()
+                .map(productId -> {
+                    long hash1 = hash1(productId);
+                    return new Trend(productId, CountMinSketch.estimate(sketches, mergedSketchCount, hash1, hash2(hash1)));
+                })
+                .sorted(Comparator.comparingLong(Trend::units).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private long currentMinute() {
+        return Math.floorDiv(clock.millis(), 60_000L);
+    }
+
+    private long toMinute(LocalDateTime orderDate) {
+        return Math.floorDiv(orderDate.atZone(clock.getZone()).toInstant().toEpochMilli(), 60_000L);
+    }
+
+    private static long hash1(UUID productId) {
+        return mix(productId.getMostSignificantBits() * 0x9E3779B97F4A7C15L + productId.getLeastSignificantBits());
+    }
+
+    private static long hash2(long hash1) {
+        // Odd, so the row indexes derived from it never collapse onto each other
+        return mix(hash1 + 0x9E3779B97F4A7C15L) | 1L;
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Estimated units sold of a product, never below the true count.
+     */
+    public record Trend(UUID productId, long units) {
+    }
+
+    private static final class Bucket {
+
+        private final CountMinSketch sketch;
+        private final TopKHeap topK;
+        private long minute = Long.MIN_VALUE;
+
+        private Bucket(CountMinSketch sketch, TopKHeap topK) {
+            this.sketch = sketch;
+            this.topK = topK;
+        }
+
+        private void reset(long newMinute) {
+            sketch.clear();
+            topK.clear();
+            minute = newMinute;
+        }
+    }
+}
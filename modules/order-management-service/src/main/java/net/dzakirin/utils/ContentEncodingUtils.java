@@ -0,0 +1,54 @@
+package net.dzakirin.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.Locale;
+
+/**
+ * Content coding negotiation for responses that are compressed by the application instead of the servlet container.
+ */
+@UtilityClass
+public class ContentEncodingUtils {
+
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+    private static final String ANY = "*";
+
+    /**
+     * Whether an Accept-Encoding header allows gzip. An explicit gzip (or x-gzip) entry decides on its own, otherwise
+     * a wildcard does. Entries with q=0 or a malformed q-value are refused.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean acceptable = qualityOf(parts) > 0;
+            if (coding.equals(GZIP) || coding.equals(X_GZIP)) {
+                return acceptable;
+            }
+            if (coding.equals(ANY)) {
+                wildcard = acceptable;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int index = 1; index < parts.length; index++) {
+            String parameter = parts[index].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,51 @@
+package net.dzakirin.utils;
+
+import lombok.experimental.UtilityClass;
+import net.dzakirin.exception.ValidationException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static net.dzakirin.constant.ErrorCodes.CURSOR_INVALID;
+import static net.dzakirin.constant.ErrorCodes.CURSOR_PAGE_SIZE_INVALID;
+
+/**
+ * Opaque cursors for keyset pagination. A cursor holds the sort key and the ID of the last row of a page, and the
+ * next page starts strictly after that (sort key, ID) pair.
+ */
+@UtilityClass
+public class CursorUtils {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final String SEPARATOR = "|";
+
+    public record Cursor(String sortKey, UUID id) {
+    }
+
+    public static String encode(Object sortKey, UUID id) {
+        String raw = id + SEPARATOR + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            return new Cursor(raw.substring(separatorIndex + 1), UUID.fromString(raw.substring(0, separatorIndex)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ValidationException(CURSOR_INVALID.getMessage());
+        }
+    }
+
+    /**
+     * Limit for a page query, one row more than requested to tell whether another page follows.
+     */
+    public static Limit pageLimit(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ValidationException(CURSOR_PAGE_SIZE_INVALID.getMessage(String.valueOf(MAX_PAGE_SIZE)));
+        }
+        return Limit.of(size + 1);
+    }
+}
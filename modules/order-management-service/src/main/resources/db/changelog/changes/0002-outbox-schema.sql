@@ -0,0 +1,14 @@
+-- changeset dzakirin:0002-outbox-schema.sql
+
+-- Outbox Table (Events written in the same transaction as the business data, drained by OutboxRelay)
+CREATE TABLE outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    topic VARCHAR(255) NOT NULL,
+    event_key VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Relay polls the oldest rows first
+CREATE INDEX idx_outbox_created_at ON outbox (created_at);
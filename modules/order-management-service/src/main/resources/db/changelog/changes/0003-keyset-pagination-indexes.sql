@@ -0,0 +1,6 @@
+-- changeset dzakirin:0003-keyset-pagination-indexes.sql
+
+-- Indexes matching the (sort key, id) seek predicates of the cursor endpoints
+CREATE INDEX idx_orders_order_date_id ON orders (order_date, id);
+CREATE INDEX idx_products_title_id ON products (title, id);
+CREATE INDEX idx_customers_email_id ON customers (email, id);
@@ -0,0 +1,75 @@
+-- changeset dzakirin:0004-partition-orders-by-month.sql
+
+-- Range partition orders and order_products by month of order_date. Date-bounded queries only touch the matching
+-- months, and an old month can be detached (order_products first, then orders) instead of deleted row by row.
+-- Partitioned tables need the partition key in every unique constraint, so the primary keys become (id, order_date)
+-- and order_products carries the order_date of its order to reference it.
+ALTER TABLE order_products RENAME TO order_products_unpartitioned;
+ALTER TABLE order_products_unpartitioned RENAME CONSTRAINT order_products_pkey TO order_products_unpartitioned_pkey;
+ALTER TABLE order_products_unpartitioned RENAME CONSTRAINT order_products_order_id_fkey TO order_products_unpartitioned_order_id_fkey;
+ALTER TABLE order_products_unpartitioned RENAME CONSTRAINT order_products_product_id_fkey TO order_products_unpartitioned_product_id_fkey;
+ALTER TABLE order_products_unpartitioned RENAME CONSTRAINT order_products_quantity_check TO order_products_unpartitioned_quantity_check;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER TABLE orders_unpartitioned RENAME CONSTRAINT orders_pkey TO orders_unpartitioned_pkey;
+ALTER TABLE orders_unpartitioned RENAME CONSTRAINT orders_customer_id_fkey TO orders_unpartitioned_customer_id_fkey;
+
+CREATE TABLE orders (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    customer_id UUID NOT NULL,
+    order_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, order_date),
+    FOREIGN KEY (customer_id) REFERENCES customers(id) ON DELETE CASCADE
+) PARTITION BY RANGE (order_date);
+
+CREATE TABLE order_products (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    order_id UUID NOT NULL,
+    order_date TIMESTAMP NOT NULL,
+    product_id UUID NOT NULL,
+    quantity INT NOT NULL CHECK (quantity > 0),
+    PRIMARY KEY (id, order_date),
+    FOREIGN KEY (order_id, order_date) REFERENCES orders(id, order_date) ON DELETE CASCADE,
+    FOREIGN KEY (product_id) REFERENCES products(id) ON DELETE CASCADE
+) PARTITION BY RANGE (order_date);
+
+-- Catches rows outside every monthly partition so inserts never fail, stays empty while OrderPartitionService
+-- keeps creating months ahead of time
+CREATE TABLE orders_default PARTITION OF orders DEFAULT;
+CREATE TABLE order_products_default PARTITION OF order_products DEFAULT;
+
+-- Monthly partitions from the oldest existing order up to three months ahead
+DO '
+DECLARE
+    month_start DATE;
+    last_month DATE := date_trunc(''month'', CURRENT_DATE + INTERVAL ''3 months'');
+BEGIN
+    SELECT date_trunc(''month'', COALESCE(MIN(order_date), CURRENT_TIMESTAMP)) INTO month_start FROM orders_unpartitioned;
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(''CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)'',
+                       ''orders_'' || to_char(month_start, ''YYYY_MM''), month_start, month_start + INTERVAL ''1 month'');
+        EXECUTE format(''CREATE TABLE %I PARTITION OF order_products FOR VALUES FROM (%L) TO (%L)'',
+                       ''order_products_'' || to_char(month_start, ''YYYY_MM''), month_start, month_start + INTERVAL ''1 month'');
+        month_start := month_start + INTERVAL ''1 month'';
+    END LOOP;
+END
+';
+
+INSERT INTO orders (id, customer_id, order_date)
+SELECT id, customer_id, COALESCE(order_date, CURRENT_TIMESTAMP)
+FROM orders_unpartitioned;
+
+INSERT INTO order_products (id, order_id, order_date, product_id, quantity)
+SELECT op.id, op.order_id, o.order_date, op.product_id, op.quantity
+FROM order_products_unpartitioned op
+JOIN orders o ON o.id = op.order_id;
+
+DROP TABLE order_products_unpartitioned;
+DROP TABLE orders_unpartitioned;
+
+-- Foreign key and lookup indexes, created on every partition
+CREATE INDEX idx_orders_customer_id ON orders (customer_id);
+CREATE INDEX idx_order_products_order_id ON order_products (order_id);
+CREATE INDEX idx_order_products_product_id ON order_products (product_id);
+
+-- Recreate the keyset pagination index of 0003, it was dropped with the unpartitioned table
+CREATE INDEX idx_orders_order_date_id ON orders (order_date, id);
@@ -0,0 +1,6 @@
+-- changeset dzakirin:0005-customer-order-history-index.sql
+
+-- Covers GET /v1/customers/{id}/orders: the page of order IDs is read with an index-only scan in
+-- (order_date DESC, id DESC) order. It also serves the customer_id foreign key, replacing the single-column index.
+CREATE INDEX idx_orders_customer_id_order_date_id ON orders (customer_id, order_date DESC, id DESC);
+DROP INDEX idx_orders_customer_id;
@@ -0,0 +1,21 @@
+-- changeset dzakirin:0006-order-price-snapshot.sql
+
+-- Price of each line as it was when the order was placed, and the order total derived from it. Both are written once
+-- at creation so reads and event consumers never depend on the product's current price.
+ALTER TABLE order_products ADD COLUMN unit_price DECIMAL(10,2);
+ALTER TABLE orders ADD COLUMN total_amount DECIMAL(12,2);
+
+-- Existing orders only have today's product price to go on
+UPDATE order_products op
+SET unit_price = p.price
+FROM products p
+WHERE p.id = op.product_id;
+
+UPDATE orders o
+SET total_amount = COALESCE(
+        (SELECT SUM(op.unit_price * op.quantity)
+         FROM order_products op
+         WHERE op.order_id = o.id AND op.order_date = o.order_date), 0);
+
+ALTER TABLE order_products ALTER COLUMN unit_price SET NOT NULL;
+ALTER TABLE orders ALTER COLUMN total_amount SET NOT NULL;
@@ -0,0 +1,45 @@
+-- changeset dzakirin:0007-sales-rollups.sql
+
+-- Daily sales per product and per customer, upserted from order-data-changed so reports never scan orders.
+-- order_count on product_daily_sales counts orders containing the product, not order lines.
+CREATE TABLE product_daily_sales (
+    sales_date DATE NOT NULL,
+    product_id UUID NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL,
+    order_count BIGINT NOT NULL,
+    PRIMARY KEY (sales_date, product_id)
+);
+
+CREATE TABLE customer_daily_sales (
+    sales_date DATE NOT NULL,
+    customer_id UUID NOT NULL,
+    units BIGINT NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL,
+    order_count BIGINT NOT NULL,
+    PRIMARY KEY (sales_date, customer_id)
+);
+
+-- Orders already added to the rollups, so a redelivered event is not counted twice
+CREATE TABLE sales_rollup_orders (
+    order_id UUID PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL
+);
+
+-- One-off backfill from the orders placed before the rollups existed
+INSERT INTO product_daily_sales (sales_date, product_id, units, revenue, order_count)
+SELECT CAST(op.order_date AS DATE), op.product_id, SUM(op.quantity), SUM(op.unit_price * op.quantity), COUNT(DISTINCT op.order_id)
+FROM order_products op
+GROUP BY CAST(op.order_date AS DATE), op.product_id;
+
+INSERT INTO customer_daily_sales (sales_date, customer_id, units, revenue, order_count)
+SELECT CAST(o.order_date AS DATE), o.customer_id,
+       COALESCE(SUM(lines.units), 0), SUM(o.total_amount), COUNT(*)
+FROM orders o
+LEFT JOIN (SELECT order_id, order_date, SUM(quantity) AS units
+           FROM order_products
+           GROUP BY order_id, order_date) lines ON lines.order_id = o.id AND lines.order_date = o.order_date
+GROUP BY CAST(o.order_date AS DATE), o.customer_id;
+
+INSERT INTO sales_rollup_orders (order_id, applied_at)
+SELECT id, CURRENT_TIMESTAMP FROM orders;
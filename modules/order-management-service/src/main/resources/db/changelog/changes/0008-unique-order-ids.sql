@@ -0,0 +1,31 @@
+-- changeset dzakirin:0008-unique-order-ids.sql
+
+-- Since 0004 the primary key of orders is (id, order_date), so PostgreSQL only enforces unique IDs within a month.
+-- order_ids is a plain table keyed by id alone and kept in step with orders by triggers, so an insert with an ID
+-- that already exists in any partition fails with a unique violation. Triggers cover every writer, including COPY.
+CREATE TABLE order_ids (
+    id UUID PRIMARY KEY,
+    order_date TIMESTAMP NOT NULL
+);
+
+INSERT INTO order_ids (id, order_date)
+SELECT id, order_date
+FROM orders;
+
+CREATE FUNCTION order_ids_insert() RETURNS trigger AS '
+BEGIN
+    INSERT INTO order_ids (id, order_date) VALUES (NEW.id, NEW.order_date);
+    RETURN NULL;
+END
+' LANGUAGE plpgsql;
+
+CREATE FUNCTION order_ids_delete() RETURNS trigger AS '
+BEGIN
+    DELETE FROM order_ids WHERE id = OLD.id;
+    RETURN NULL;
+END
+' LANGUAGE plpgsql;
+
+-- Row triggers on the partitioned table are cloned to every partition, including ones created later
+CREATE TRIGGER orders_order_ids_insert AFTER INSERT ON orders FOR EACH ROW EXECUTE FUNCTION order_ids_insert();
+CREATE TRIGGER orders_order_ids_delete AFTER DELETE ON orders FOR EACH ROW EXECUTE FUNCTION order_ids_delete();
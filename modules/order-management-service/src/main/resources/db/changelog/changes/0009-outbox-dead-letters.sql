@@ -0,0 +1,14 @@
+-- changeset dzakirin:0009-outbox-dead-letters.sql
+
+-- Outbox events OutboxRelay cannot send (no producer for the topic or an unreadable payload), moved out of the outbox
+-- so they do not block the events behind them. Same columns as outbox plus the reason, keyed by the original ID.
+CREATE TABLE outbox_dead_letters (
+    id UUID PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    event_key VARCHAR(255) NOT NULL,
+    event_type VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    error TEXT NOT NULL,
+    failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,7 @@
+-- changeset dzakirin:0010-order-ids-triggers-always.sql
+
+-- Ordinary triggers do not fire in sessions with session_replication_role = replica, which bulk loads such as the
+-- dataset generator use to skip foreign key checks, so orders loaded that way got no order_ids rows. ENABLE ALWAYS
+-- fires them in every session, and carries over to the existing partitions and to the ones created later.
+ALTER TABLE orders ENABLE ALWAYS TRIGGER orders_order_ids_insert;
+ALTER TABLE orders ENABLE ALWAYS TRIGGER orders_order_ids_delete;
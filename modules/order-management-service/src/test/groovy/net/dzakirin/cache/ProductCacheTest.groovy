@@ -0,0 +1,55 @@
+package net.dzakirin.cache
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.dzakirin.model.Product
+import net.dzakirin.repository.ProductRepository
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ProductCacheTest extends Specification {
+
+    ProductRepository productRepository = Mock()
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    @Subject
+    ProductCache productCache = new ProductCache(productRepository, meterRegistry, 2, 60)
+
+    def "getAll: should load only the misses with one query and serve repeats from memory"() {
+        given:
+        def cached = new Product(id: UUID.randomUUID(), title: "Cached", price: 1.0, stock: 1)
+        def missing = new Product(id: UUID.randomUUID(), title: "Missing", price: 2.0, stock: 2)
+        def unknownId = UUID.randomUUID()
+
+        when:
+        productCache.get(cached.id)
+        def products = productCache.getAll([cached.id, missing.id, unknownId])
+        productCache.getAll([cached.id, missing.id])
+
+        then:
+        1 * productRepository.findById(cached.id) >> Optional.of(cached)
+        1 * productRepository.findAllById([missing.id, unknownId]) >> [missing]
+        0 * productRepository._
+        products.keySet() == [cached.id, missing.id] as Set
+        meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count() == 3
+    }
+
+    def "putAfterCommit and evict: should replace or drop an entry so the next read sees the change"() {
+        given:
+        def productId = UUID.randomUUID()
+        productRepository.findById(productId) >>> [Optional.of(new Product(id: productId, title: "Old", price: 1.0, stock: 1)),
+                                                    Optional.empty()]
+
+        when:
+        productCache.get(productId)
+        productCache.putAfterCommit(new Product(id: productId, title: "New", price: 1.5, stock: 1))
+
+        then:
+        productCache.get(productId).get().title == "New"
+
+        when:
+        productCache.evict(productId)
+
+        then:
+        productCache.get(productId).isEmpty()
+    }
+}
@@ -0,0 +1,51 @@
+package net.dzakirin.consumer
+
+import net.dzakirin.cache.ProductCache
+import net.dzakirin.common.dto.event.EventWrapper
+import net.dzakirin.constant.EventType
+import net.dzakirin.search.ProductSearchIndex
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ProductCacheInvalidationConsumerTest extends Specification {
+
+    ProductCache productCache = Mock()
+    ProductSearchIndex productSearchIndex = Mock()
+
+    @Subject
+    ProductCacheInvalidationConsumer consumer = new ProductCacheInvalidationConsumer(productCache, productSearchIndex)
+
+    def "consume: should evict and reload the products changed on another replica"() {
+        given:
+        def productIds = [UUID.randomUUID(), UUID.randomUUID()]
+
+        when:
+        consumer.consume(event("event-1", productIds.collect { it.toString() }))
+
+        then:
+        1 * productCache.evictAll(productIds)
+        1 * productSearchIndex.appliedLocally("event-1") >> false
+        1 * productSearchIndex.reload(productIds)
+    }
+
+    def "consume: should not reload the search index again for an import this replica already applied"() {
+        given:
+        def productIds = [UUID.randomUUID()]
+
+        when:
+        consumer.consume(event("event-1", productIds.collect { it.toString() }))
+
+        then:
+        1 * productCache.evictAll(productIds)
+        1 * productSearchIndex.appliedLocally("event-1") >> true
+        0 * productSearchIndex.reload(_)
+    }
+
+    private static EventWrapper<Object> event(String eventId, Object payload) {
+        EventWrapper.builder()
+                .eventId(eventId)
+                .eventType(EventType.PRODUCTS_IMPORTED.getEventName())
+                .payload(payload)
+                .build()
+    }
+}
@@ -0,0 +1,97 @@
+package net.dzakirin.consumer
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import net.dzakirin.common.codec.EventCodec
+import net.dzakirin.common.dto.event.EventWrapper
+import net.dzakirin.common.dto.event.OrderEvent
+import net.dzakirin.config.KafkaConsumerConfig
+import net.dzakirin.constant.EventType
+import net.dzakirin.service.SalesRollupService
+import org.apache.kafka.clients.consumer.Consumer
+import org.apache.kafka.clients.consumer.ConsumerRecord
+import org.apache.kafka.clients.producer.ProducerRecord
+import org.springframework.dao.QueryTimeoutException
+import org.springframework.kafka.core.KafkaOperations
+import org.springframework.kafka.listener.MessageListenerContainer
+import org.springframework.kafka.support.SendResult
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.nio.charset.StandardCharsets
+import java.util.concurrent.CompletableFuture
+
+class SalesRollupConsumerTest extends Specification {
+
+    static final String TOPIC = "order-data-changed"
+
+    SalesRollupService salesRollupService = Mock()
+    KafkaOperations<Object, Object> kafkaTemplate = Mock()
+
+    @Subject
+    SalesRollupConsumer salesRollupConsumer = new SalesRollupConsumer(new ObjectMapper().findAndRegisterModules(), salesRollupService)
+
+    def "consume: should let failures reach the container instead of committing past the order"() {
+        given:
+        def orderEvent = OrderEvent.builder().id(UUID.randomUUID()).build()
+
+        when:
+        salesRollupConsumer.consume(event(EventType.ORDER_CREATED.getEventName(), orderEvent))
+
+        then:
+        1 * salesRollupService.applyOrderCreated(orderEvent) >> { throw new QueryTimeoutException("statement timeout") }
+        thrown(QueryTimeoutException)
+    }
+
+    def "consume: should ignore events other than created orders"() {
+        when:
+        salesRollupConsumer.consume(event("ORDER_UPDATED", OrderEvent.builder().build()))
+
+        then:
+        0 * salesRollupService._
+    }
+
+    def "error handler: should retry a failing record and dead-letter it once retries run out"() {
+        given:
+        def errorHandler = new KafkaConsumerConfig().kafkaErrorHandler(kafkaTemplate, 2, 1, 1)
+        def record = new ConsumerRecord<Object, Object>(TOPIC, 3, 42L, "key", event(EventType.ORDER_CREATED.getEventName(), null))
+        record.headers().add(EventCodec.CODEC_HEADER, "smile".getBytes(StandardCharsets.UTF_8))
+        def failure = new QueryTimeoutException("statement timeout")
+        ProducerRecord<Object, Object> deadLetter = null
+
+        when: "the first attempt and two retries fail"
+        def outcomes = (1..3).collect { errorHandler.handleOne(failure, record, Mock(Consumer), Mock(MessageListenerContainer)) }
+
+        then:
+        outcomes == [false, false, true]
+        1 * kafkaTemplate.send(_ as ProducerRecord) >> { ProducerRecord<Object, Object> sent ->
+            deadLetter = sent
+            CompletableFuture.completedFuture(Mock(SendResult))
+        }
+        deadLetter.topic() == TOPIC + "-dlt"
+        deadLetter.partition() == 3
+        deadLetter.value().is(record.value())
+        deadLetter.headers().lastHeader(EventCodec.CODEC_HEADER) == null
+        deadLetter.headers().lastHeader("kafka_dlt-original-offset") != null
+    }
+
+    def "error handler: should dead-letter an unconvertible payload without retrying"() {
+        given:
+        def errorHandler = new KafkaConsumerConfig().kafkaErrorHandler(kafkaTemplate, 4, 1, 1)
+        def record = new ConsumerRecord<Object, Object>(TOPIC, 0, 7L, "key", event(EventType.ORDER_CREATED.getEventName(), null))
+
+        when:
+        def recovered = errorHandler.handleOne(new IllegalArgumentException("Cannot deserialize value"), record, Mock(Consumer), Mock(MessageListenerContainer))
+
+        then:
+        recovered
+        1 * kafkaTemplate.send(_ as ProducerRecord) >> CompletableFuture.completedFuture(Mock(SendResult))
+    }
+
+    private static EventWrapper<OrderEvent> event(String eventType, OrderEvent payload) {
+        EventWrapper.<OrderEvent> builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType)
+                .payload(payload)
+                .build()
+    }
+}
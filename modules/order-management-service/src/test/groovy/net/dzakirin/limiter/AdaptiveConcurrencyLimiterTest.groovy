@@ -0,0 +1,137 @@
+package net.dzakirin.limiter
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.dzakirin.exception.ServiceOverloadedException
+import org.springframework.http.HttpHeaders
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import spock.lang.Specification
+
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+class AdaptiveConcurrencyLimiterTest extends Specification {
+
+    AtomicLong nanoTime = new AtomicLong()
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    def "tryAcquire: should queue callers over the limit and reject at once when the queue is full"() {
+        given:
+        def limiter = new AdaptiveConcurrencyLimiter("test", meterRegistry, 2, 1, 10, 1, 5_000)
+        def held = [limiter.tryAcquire().get(), limiter.tryAcquire().get()]
+
+        when:
+        def waiter = CompletableFuture.supplyAsync { limiter.tryAcquire() }
+        while (limiter.queued == 0) {
+            Thread.sleep(1)
+        }
+        def rejected = limiter.tryAcquire()
+
+        then:
+        rejected.isEmpty()
+        !waiter.done
+
+        when:
+        held[0].onIgnored()
+
+        then:
+        waiter.get(5, TimeUnit.SECONDS).isPresent()
+        limiter.inflight == 2
+        meterRegistry.get("concurrency.limiter.requests").tags("limiter", "test", "outcome", "accepted").counter().count() == 3
+        meterRegistry.get("concurrency.limiter.requests").tags("limiter", "test", "outcome", "rejected").counter().count() == 1
+    }
+
+    def "tryAcquire: should give up once the queue wait times out"() {
+        given:
+        def limiter = new AdaptiveConcurrencyLimiter("test", meterRegistry, 1, 1, 10, 10, 20)
+        limiter.tryAcquire().get()
+
+        expect:
+        limiter.tryAcquire().isEmpty()
+        limiter.queued == 0
+        meterRegistry.get("concurrency.limiter.requests").tags("outcome", "timed_out").counter().count() == 1
+    }
+
+    def "limit: should settle near the concurrency the database can serve and follow it when it slows down"() {
+        given:
+        def limiter = new AdaptiveConcurrencyLimiter("test", meterRegistry, 10, 2, 200, 0, 0, nanoTime::get)
+
+        when:
+        def limits = []
+        300.times { limits << runRound(limiter, 20, 5) }
+        def slowLimits = []
+        300.times { slowLimits << runRound(limiter, 5, 20) }
+        def recoveredLimits = []
+        300.times { recoveredLimits << runRound(limiter, 20, 5) }
+
+        then: "a few calls queue above capacity, not the whole limit"
+        average(limits.takeRight(50)) >= 20
+        average(limits.takeRight(50)) <= 40
+        average(slowLimits.takeRight(50)) >= 5
+        average(slowLimits.takeRight(50)) <= 20
+        average(recoveredLimits.takeRight(50)) >= 20
+        average(recoveredLimits.takeRight(50)) <= 40
+    }
+
+    def "limit: should back off on dropped calls and ignore rejected ones"() {
+        given:
+        def limiter = new AdaptiveConcurrencyLimiter("test", meterRegistry, 20, 2, 50, 0, 0, nanoTime::get)
+
+        when:
+        limiter.tryAcquire().get().onIgnored()
+
+        then:
+        limiter.limit == 20
+
+        when:
+        limiter.tryAcquire().get().onDropped()
+
+        then:
+        limiter.limit == 18
+        limiter.inflight == 0
+    }
+
+    def "interceptor: should release with the response outcome and shed with Retry-After"() {
+        given:
+        def limiter = new AdaptiveConcurrencyLimiter("order-writes", meterRegistry, 2, 1, 10, 0, 0, nanoTime::get)
+        def interceptor = new ConcurrencyLimitInterceptor(limiter, Set.of("POST"), 3)
+
+        when: "a failing order write"
+        def failed = new MockHttpServletRequest("POST", "/v1/orders")
+        interceptor.preHandle(failed, new MockHttpServletResponse(), null)
+        interceptor.afterCompletion(failed, new MockHttpServletResponse(status: 500), null, null)
+
+        then:
+        limiter.limit == 1.8
+        limiter.inflight == 0
+
+        when: "another request holds the only permit"
+        def held = new MockHttpServletRequest("POST", "/v1/orders")
+        interceptor.preHandle(held, new MockHttpServletResponse(), null)
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/v1/orders"), new MockHttpServletResponse(), null)
+        interceptor.preHandle(new MockHttpServletRequest("POST", "/v1/orders"), new MockHttpServletResponse(), null)
+
+        then:
+        def e = thrown(ServiceOverloadedException)
+        e.statusCode.value() == 503
+        e.headers.getFirst(HttpHeaders.RETRY_AFTER) == "3"
+        e.reason == "Too many concurrent order-writes requests, please retry later"
+        limiter.inflight == 1
+    }
+
+    /**
+     * One round of calls using the whole limit against a database serving capacity calls at once in baseMillis,
+     * queueing the rest, so latency grows with concurrency above capacity.
+     */
+    private int runRound(AdaptiveConcurrencyLimiter limiter, int capacity, long baseMillis) {
+        def permits = (1..(int) limiter.limit).collect { limiter.tryAcquire().get() }
+        nanoTime.addAndGet((long) (TimeUnit.MILLISECONDS.toNanos(baseMillis) * Math.max(1d, permits.size() / (double) capacity)))
+        permits.each { it.onSuccess() }
+        (int) limiter.limit
+    }
+
+    private static double average(List<Integer> limits) {
+        limits.sum() / limits.size()
+    }
+}
@@ -0,0 +1,60 @@
+package net.dzakirin.model
+
+import jakarta.persistence.EntityManager
+import net.dzakirin.common.id.UuidV7
+import net.dzakirin.repository.CustomerRepository
+import net.dzakirin.repository.OrderRepository
+import net.dzakirin.repository.ProductRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UuidV7IdTest extends Specification {
+
+    @Autowired
+    OrderRepository orderRepository
+    @Autowired
+    ProductRepository productRepository
+    @Autowired
+    CustomerRepository customerRepository
+    @Autowired
+    EntityManager entityManager
+
+    def "generate: should produce strictly increasing version 7 UUIDs, also within one millisecond"() {
+        when:
+        def ids = (1..10_000).collect { UuidV7.generate() }
+
+        then:
+        ids.every { it.version() == 7 && it.variant() == 2 }
+        ids == ids.sort(false)
+        ids.toSet().size() == ids.size()
+        Math.abs(UuidV7.timestamp(ids.last()) - System.currentTimeMillis()) < 5_000
+    }
+
+    def "entities: should get time-ordered IDs from the application and keep a pre-assigned order ID"() {
+        given:
+        def product = productRepository.save(new Product(title: "Product", price: 1.0, stock: 1))
+        def customer = customerRepository.save(new Customer(firstName: "First", lastName: "Last", email: "uuid@example.com"))
+        def assignedId = UuidV7.generate()
+
+        when:
+        def orders = (1..3).collect {
+            def order = new Order(customer: customer, orderDate: LocalDateTime.now(), totalAmount: product.price)
+            order.orderProducts = [new OrderProduct(order: order, product: product, quantity: 1, unitPrice: product.price)]
+            orderRepository.save(order)
+        }
+        def assigned = new Order(id: assignedId, customer: customer, orderDate: LocalDateTime.now(), totalAmount: 0, orderProducts: [])
+        orderRepository.save(assigned)
+        entityManager.flush()
+
+        then:
+        [product.id, customer.id, *orders*.id, *orders*.orderProducts.flatten()*.id].every { it.version() == 7 }
+        orders*.id == orders*.id.sort(false)
+        orderRepository.findById(assignedId).isPresent()
+    }
+}
@@ -0,0 +1,214 @@
+package net.dzakirin.producer
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.dzakirin.common.dto.event.EventWrapper
+import net.dzakirin.common.dto.event.OrderEvent
+import net.dzakirin.model.OutboxDeadLetter
+import net.dzakirin.model.OutboxEvent
+import net.dzakirin.repository.OutboxDeadLetterRepository
+import net.dzakirin.repository.OutboxRepository
+import org.springframework.kafka.support.SendResult
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.SimpleTransactionStatus
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDateTime
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class OutboxRelayTest extends Specification {
+
+    static final String TOPIC = "order-data-changed"
+
+    OutboxRepository outboxRepository = Mock()
+    OutboxDeadLetterRepository deadLetterRepository = Mock()
+    PlatformTransactionManager transactionManager = Mock()
+    OrderDataChangedProducer producer = Mock()
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+
+    @Subject
+    OutboxRelay outboxRelay
+
+    def setup() {
+        producer.getTopic() >> TOPIC
+        producer.getPayloadType() >> OrderEvent
+        transactionManager.getTransaction(_) >> { new SimpleTransactionStatus() }
+        outboxRelay = new OutboxRelay(outboxRepository, deadLetterRepository, objectMapper, transactionManager, [producer], meterRegistry, 2, 200)
+    }
+
+    def "relay: should delete a batch only after the broker acknowledged every event"() {
+        given:
+        def events = [outboxEvent("a"), outboxEvent("b")]
+        outboxRepository.lockNextBatch(2) >>> [events, []]
+
+        when:
+        outboxRelay.relay()
+
+        then:
+        1 * producer.send("a", _) >> CompletableFuture.completedFuture(Mock(SendResult))
+        1 * producer.send("b", _) >> CompletableFuture.completedFuture(Mock(SendResult))
+
+        then:
+        1 * outboxRepository.deleteAllInBatch(events)
+        meterRegistry.get("outbox.relay.events").counter().count() == 2
+    }
+
+    def "relay: should drain full batches until a batch comes back short"() {
+        when:
+        outboxRelay.relay()
+
+        then:
+        3 * outboxRepository.lockNextBatch(2) >>> [[outboxEvent("a"), outboxEvent("b")], [outboxEvent("c"), outboxEvent("d")], [outboxEvent("e")]]
+        5 * producer.send(*_) >> CompletableFuture.completedFuture(Mock(SendResult))
+        3 * outboxRepository.deleteAllInBatch(_)
+        3 * transactionManager.commit(_)
+    }
+
+    def "relay: should keep the batch and roll back when a send fails"() {
+        given:
+        def events = [outboxEvent("a"), outboxEvent("b")]
+
+        when:
+        outboxRelay.relay()
+
+        then:
+        1 * outboxRepository.lockNextBatch(2) >> events
+        1 * producer.send("a", _) >> CompletableFuture.completedFuture(Mock(SendResult))
+        1 * producer.send("b", _) >> CompletableFuture.failedFuture(new RuntimeException("broker down"))
+        0 * outboxRepository.deleteAllInBatch(_)
+        1 * transactionManager.rollback(_)
+        meterRegistry.get("outbox.relay.events").counter().count() == 0
+    }
+
+    def "relay: should keep the batch when the broker does not acknowledge in time"() {
+        when:
+        outboxRelay.relay()
+
+        then:
+        1 * outboxRepository.lockNextBatch(2) >> [outboxEvent("a")]
+        1 * producer.send("a", _) >> new CompletableFuture<SendResult<String, Object>>()
+        0 * outboxRepository.deleteAllInBatch(_)
+        1 * transactionManager.rollback(_)
+    }
+
+    def "relay: should move a row with an unreadable payload to the dead letters and relay the rest of the batch"() {
+        given:
+        def corrupt = outboxEvent("b").tap { payload = "{not json" }
+        def events = [outboxEvent("a"), corrupt]
+        List<OutboxDeadLetter> deadLetters = null
+
+        when:
+        outboxRelay.relay()
+
+        then:
+        2 * outboxRepository.lockNextBatch(2) >>> [events, []]
+        1 * producer.send("a", _) >> CompletableFuture.completedFuture(Mock(SendResult))
+        0 * producer.send("b", _)
+        1 * deadLetterRepository.saveAll(_) >> { args -> deadLetters = args[0] }
+        1 * outboxRepository.deleteAllInBatch(events)
+        2 * transactionManager.commit(_)
+        0 * transactionManager.rollback(_)
+
+        and:
+        deadLetters*.id == [corrupt.id]
+        deadLetters[0].payload == "{not json"
+        deadLetters[0].error.startsWith("Corrupt outbox payload for event ${corrupt.id}")
+        meterRegistry.get("outbox.relay.events").counter().count() == 1
+        meterRegistry.get("outbox.relay.dead.letters").counter().count() == 1
+    }
+
+    def "relay: should move events of topics without a producer to the dead letters without sending them"() {
+        given:
+        def event = outboxEvent("a").tap { topic = "unknown-topic" }
+        List<OutboxDeadLetter> deadLetters = null
+
+        when:
+        outboxRelay.relay()
+
+        then:
+        1 * outboxRepository.lockNextBatch(2) >> [event]
+        0 * producer.send(*_)
+        1 * deadLetterRepository.saveAll(_) >> { args -> deadLetters = args[0] }
+        1 * outboxRepository.deleteAllInBatch([event])
+
+        and:
+        deadLetters*.topic == ["unknown-topic"]
+        deadLetters[0].error == "No producer registered for outbox topic unknown-topic"
+    }
+
+    def "relay: should leave dead letters in the outbox when the rest of the batch fails to send"() {
+        given:
+        def events = [outboxEvent("a"), outboxEvent("b").tap { payload = "{not json" }]
+
+        when:
+        outboxRelay.relay()
+
+        then:
+        1 * outboxRepository.lockNextBatch(2) >> events
+        1 * producer.send("a", _) >> CompletableFuture.failedFuture(new RuntimeException("broker down"))
+        0 * deadLetterRepository.saveAll(_)
+        0 * outboxRepository.deleteAllInBatch(_)
+        1 * transactionManager.rollback(_)
+    }
+
+    def "relay: should send the stored envelope with its payload bound to the producer's payload type"() {
+        given:
+        EventWrapper<?> sent = null
+
+        when:
+        outboxRelay.relay()
+
+        then:
+        1 * outboxRepository.lockNextBatch(2) >> [outboxEvent("a")]
+        1 * producer.send("a", _) >> { String key, EventWrapper<?> eventWrapper ->
+            sent = eventWrapper
+            CompletableFuture.completedFuture(Mock(SendResult))
+        }
+        sent.eventType == "ORDER_CREATED"
+        sent.payload instanceof OrderEvent
+        sent.payload.customerEmail == "a@example.com"
+    }
+
+    def "relay: should report the age of the oldest pending event as lag, zero once drained"() {
+        when:
+        outboxRelay.relay()
+
+        then:
+        outboxRepository.lockNextBatch(2) >> []
+        1 * outboxRepository.findOldestCreatedAt() >> LocalDateTime.now().minusSeconds(5)
+        lagMillis() >= 5000
+        lagMillis() < 60000
+
+        when:
+        outboxRelay.relay()
+
+        then:
+        outboxRepository.lockNextBatch(2) >> []
+        1 * outboxRepository.findOldestCreatedAt() >> null
+        lagMillis() == 0
+    }
+
+    private double lagMillis() {
+        meterRegistry.get("outbox.relay.lag").timeGauge().value(TimeUnit.MILLISECONDS)
+    }
+
+    private OutboxEvent outboxEvent(String key) {
+        def eventWrapper = EventWrapper.<OrderEvent> builder()
+                .eventId(key)
+                .eventType("ORDER_CREATED")
+                .eventSource("order-management-service")
+                .payload(OrderEvent.builder().id(UUID.randomUUID()).customerEmail("${key}@example.com").build())
+                .build()
+        OutboxEvent.builder()
+                .id(UUID.randomUUID())
+                .topic(TOPIC)
+                .eventKey(key)
+                .eventType("ORDER_CREATED")
+                .payload(objectMapper.writeValueAsString(eventWrapper))
+                .createdAt(LocalDateTime.now())
+                .build()
+    }
+}
@@ -0,0 +1,95 @@
+package net.dzakirin.repository
+
+import net.dzakirin.model.OutboxEvent
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRepositoryTest extends Specification {
+
+    static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0)
+
+    @Autowired
+    OutboxRepository outboxRepository
+    @Autowired
+    PlatformTransactionManager transactionManager
+
+    TransactionTemplate transactionTemplate
+
+    def setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager)
+        (0..4).each { minute ->
+            outboxRepository.save(OutboxEvent.builder()
+                    .topic("order-data-changed")
+                    .eventKey("key-$minute")
+                    .eventType("ORDER_CREATED")
+                    .payload("{}")
+                    .createdAt(START.plusMinutes(4 - minute))
+                    .build())
+        }
+    }
+
+    def cleanup() {
+        outboxRepository.deleteAll()
+    }
+
+    def "lockNextBatch: should return the oldest events first, at most batchSize"() {
+        when:
+        def batch = transactionTemplate.execute { outboxRepository.lockNextBatch(2) }
+
+        then:
+        batch*.eventKey == ["key-4", "key-3"]
+    }
+
+    /**
+     * The second relay must neither wait for the first one nor get its events. Postgres goes on to the next pending
+     * rows, H2 applies the limit before skipping, so the second batch is only checked for the locked events.
+     */
+    def "lockNextBatch: should skip the events another relay has locked"() {
+        given:
+        def locked = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def firstRelay = CompletableFuture.supplyAsync {
+            transactionTemplate.execute {
+                def batch = outboxRepository.lockNextBatch(2)
+                locked.countDown()
+                release.await(10, TimeUnit.SECONDS)
+                batch
+            }
+        }
+
+        when:
+        locked.await(10, TimeUnit.SECONDS)
+        def secondBatch = transactionTemplate.execute { outboxRepository.lockNextBatch(2) }
+        release.countDown()
+
+        then:
+        firstRelay.get(10, TimeUnit.SECONDS)*.eventKey == ["key-4", "key-3"]
+        secondBatch.size() <= 2
+        !secondBatch*.eventKey.any { it in ["key-4", "key-3"] }
+    }
+
+    def "findOldestCreatedAt: should return the creation time of the oldest pending event, null once drained"() {
+        expect:
+        outboxRepository.findOldestCreatedAt() == START
+
+        when:
+        outboxRepository.deleteAll()
+
+        then:
+        outboxRepository.findOldestCreatedAt() == null
+    }
+}
@@ -0,0 +1,93 @@
+package net.dzakirin.repository
+
+import net.dzakirin.model.Product
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionTemplate
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+
+/**
+ * Runs the guarded stock UPDATE against the database, every call in a transaction of its own so concurrent calls
+ * contend for the row lock like concurrent orders do.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductRepositoryTest extends Specification {
+
+    @Autowired
+    ProductRepository productRepository
+    @Autowired
+    PlatformTransactionManager transactionManager
+
+    TransactionTemplate transactionTemplate
+
+    def setup() {
+        transactionTemplate = new TransactionTemplate(transactionManager)
+    }
+
+    def cleanup() {
+        productRepository.deleteAll()
+    }
+
+    def "deductStock: should only update the row while enough stock is left"() {
+        given:
+        def productId = productRepository.save(new Product(title: "Keyboard", price: 49.90, stock: 5)).id
+
+        expect:
+        deductStock(productId, 3) == 1
+        deductStock(productId, 3) == 0
+        deductStock(productId, 2) == 1
+        deductStock(productId, 1) == 0
+        productRepository.findById(productId).get().stock == 0
+    }
+
+    def "deductStock: should never oversell a hot product under concurrent transactions"() {
+        given:
+        int initialStock = 50
+        int threads = 8
+        int attemptsPerThread = 20
+        def productId = productRepository.save(new Product(title: "Hot product", price: 10.00, stock: initialStock)).id
+        def pool = Executors.newFixedThreadPool(threads)
+        def start = new CountDownLatch(1)
+
+        when:
+        def futures = (1..threads).collect {
+            pool.submit({
+                start.await()
+                (1..attemptsPerThread).sum { deductStock(productId, 1) }
+            } as Callable<Integer>)
+        }
+        start.countDown()
+        int accepted = futures.sum { it.get() }
+        pool.shutdown()
+
+        then:
+        accepted == initialStock
+        productRepository.findById(productId).get().stock == 0
+    }
+
+    def "restoreStock: should give back reserved stock"() {
+        given:
+        def productId = productRepository.save(new Product(title: "Mouse", price: 19.90, stock: 2)).id
+
+        when:
+        deductStock(productId, 2)
+        transactionTemplate.execute { productRepository.restoreStock(productId, 2) }
+
+        then:
+        productRepository.findById(productId).get().stock == 2
+    }
+
+    private int deductStock(UUID productId, int quantity) {
+        transactionTemplate.execute { productRepository.deductStock(productId, quantity) }
+    }
+}
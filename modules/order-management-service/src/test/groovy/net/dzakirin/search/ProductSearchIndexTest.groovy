@@ -0,0 +1,173 @@
+package net.dzakirin.search
+
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.jdbc.core.RowCallbackHandler
+import spock.lang.Specification
+
+import java.sql.ResultSet
+
+class ProductSearchIndexTest extends Specification {
+
+    JdbcTemplate jdbcTemplate = Mock()
+    ProductSearchIndex index = new ProductSearchIndex(jdbcTemplate, 256)
+
+    Map<UUID, String> titles = [:]
+    Closure rows
+
+    def setup() {
+        jdbcTemplate.query(_ as String, _ as RowCallbackHandler) >> { String sql, RowCallbackHandler handler -> rows(handler) }
+        [
+                "Java Programming Book",
+                "JavaScript: The Good Parts",
+                "Effective Java",
+                "Coffee Beans, Java Blend",
+                "Python Crash Course",
+                "Programming Pearls",
+                "Wireless Keyboard",
+        ].each { titles[UUID.randomUUID()] = it }
+        load(titles.entrySet())
+    }
+
+    def "load: should index every product and become ready"() {
+        expect:
+        index.ready
+        search("python") == ["Python Crash Course"]
+    }
+
+    def "search: should rank exact words over prefixes over typos, shorter titles first"() {
+        expect:
+        search(query) == expected
+
+        where:
+        query          | expected
+        "java"         | ["Effective Java", "Java Programming Book", "Coffee Beans, Java Blend", "JavaScript: The Good Parts"]
+        "JAV"          | ["Effective Java", "Java Programming Book", "Coffee Beans, Java Blend", "JavaScript: The Good Parts"]
+        "progamming"   | ["Programming Pearls", "Java Programming Book"]
+        "keyboadr"     | ["Wireless Keyboard"]
+        "pyhton crash" | ["Python Crash Course"]
+        "xylophone"    | []
+    }
+
+    def "search: should require every query word to match"() {
+        expect:
+        search("java programming") == ["Java Programming Book"]
+        search("java prog") == ["Java Programming Book"]
+        search("java python") == []
+    }
+
+    def "search: should return at most limit products"() {
+        expect:
+        index.search("java", 2).size() == 2
+    }
+
+    def "put and remove: should update the postings of a product"() {
+        given:
+        def productId = titles.find { it.value == "Wireless Keyboard" }.key
+
+        when:
+        index.put(productId, "Wireless Mouse")
+
+        then:
+        search("keyboard") == []
+        index.search("mouse", 10) == [productId]
+
+        when:
+        index.remove(productId)
+        def newProductId = UUID.randomUUID()
+        index.put(newProductId, "Mechanical Keyboard")
+
+        then:
+        search("wireless") == []
+        index.search("keyboard", 10) == [newProductId]
+    }
+
+    def "reload: should re-read the products and drop those that no longer exist"() {
+        given:
+        def pearls = titles.find { it.value == "Programming Pearls" }.key
+        def keyboard = titles.find { it.value == "Wireless Keyboard" }.key
+
+        when:
+        index.reload([pearls, keyboard])
+
+        then:
+        1 * jdbcTemplate.query({ it.contains("IN (?,?)") }, _ as RowCallbackHandler, [pearls, keyboard] as Object[]) >> { String sql, RowCallbackHandler handler, Object[] args ->
+            ResultSet resultSet = Stub()
+            resultSet.getObject("id", UUID) >> pearls
+            resultSet.getString("title") >> "Programming Pearls, 2nd Edition"
+            handler.processRow(resultSet)
+        }
+        search("edition") == ["Programming Pearls"]
+        search("keyboard") == []
+        search("programming") == ["Java Programming Book", "Programming Pearls"]
+    }
+
+    def "reloadAfterCommit: should remember the event so the replica skips its own invalidation once"() {
+        given:
+        def keyboard = titles.find { it.value == "Wireless Keyboard" }.key
+
+        when:
+        index.reloadAfterCommit([keyboard], "event-1")
+
+        then:
+        1 * jdbcTemplate.query({ it.contains("IN (?)") }, _ as RowCallbackHandler, [keyboard] as Object[])
+        search("keyboard") == []
+        index.appliedLocally("event-1")
+        !index.appliedLocally("event-1")
+        !index.appliedLocally("event-2")
+        !index.appliedLocally(null)
+    }
+
+    def "editDistance: should count adjacent transpositions as one edit"() {
+        expect:
+        ProductSearchIndex.editDistance(source, target, 2) == distance
+
+        where:
+        source     | target     | distance
+        "keyboard" | "keyboard" | 0
+        "keyboadr" | "keyboard" | 1
+        "keybord"  | "keyboard" | 1
+        "kyebaord" | "keyboard" | 2
+    }
+
+    def "put and remove: should find products by ID while ordinals are freed, reused and the ID table grows"() {
+        given:
+        def random = new Random(5)
+        def added = (1..5_000).collect { new UUID(random.nextLong(), random.nextLong()) }
+        added.eachWithIndex { productId, i -> index.put(productId, "Gadget ${i}") }
+
+        when:
+        added.eachWithIndex { productId, i -> if (i % 2 == 0) index.remove(productId) }
+        added.eachWithIndex { productId, i -> if (i % 3 == 0) index.put(productId, "Widget ${i}") }
+
+        then:
+        index.search("gadget 1", 10) == (1 % 3 == 0 ? [] : [added[1]])
+        index.search("gadget 4", 10) == []
+        index.search("widget 4", 10) == []
+        index.search("widget 6", 10) == [added[6]]
+        index.search("widget 9", 10) == [added[9]]
+        index.search("gadget 9", 10) == []
+        index.search("gadget", 5_000).size() == (0..<5_000).count { it % 2 == 1 && it % 3 != 0 }
+        index.search("widget", 5_000).size() == (0..<5_000).count { it % 3 == 0 }
+    }
+
+    private List<String> search(String query) {
+        index.search(query, 10).collect { titles[it] }
+    }
+
+    /**
+     * Loads the index through the mocked "SELECT id, title FROM products".
+     */
+    private void load(Iterable<Map.Entry<UUID, String>> products) {
+        Map.Entry<UUID, String> row = null
+        ResultSet resultSet = Stub()
+        resultSet.getObject("id", UUID) >> { row.key }
+        resultSet.getString("title") >> { row.value }
+        rows = { RowCallbackHandler handler ->
+            products.each {
+                row = it
+                handler.processRow(resultSet)
+            }
+        }
+        index.load()
+    }
+}
@@ -0,0 +1,116 @@
+package net.dzakirin.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import jakarta.persistence.EntityManager
+import net.dzakirin.constant.ExportFormat
+import net.dzakirin.exception.ValidationException
+import net.dzakirin.model.Customer
+import net.dzakirin.model.Order
+import net.dzakirin.model.OrderProduct
+import net.dzakirin.model.Product
+import net.dzakirin.repository.CustomerRepository
+import net.dzakirin.repository.OrderRepository
+import net.dzakirin.repository.ProductRepository
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Specification
+
+import javax.sql.DataSource
+import java.time.LocalDateTime
+import java.util.zip.GZIPInputStream
+
+@DataJpaTest
+@ActiveProfiles("test")
+class OrderExportServiceTest extends Specification {
+
+    static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0)
+
+    @Autowired
+    OrderRepository orderRepository
+    @Autowired
+    ProductRepository productRepository
+    @Autowired
+    CustomerRepository customerRepository
+    @Autowired
+    EntityManager entityManager
+    @Autowired
+    DataSource dataSource
+
+    ObjectMapper objectMapper = new ObjectMapper()
+    OrderExportService orderExportService
+
+    def setup() {
+        orderExportService = new OrderExportService(dataSource, objectMapper, 2)
+
+        def plain = productRepository.save(new Product(title: "Keyboard", price: 49.90, stock: 10))
+        def quoted = productRepository.save(new Product(title: 'Cable, 2m "braided"', price: 5.00, stock: 10))
+        def customer = customerRepository.save(new Customer(firstName: "First", lastName: "Last", email: "export@example.com"))
+        (0..4).each { day ->
+            def order = new Order(customer: customer, orderDate: START.plusDays(day))
+            order.orderProducts = [new OrderProduct(order: order, product: plain, quantity: day + 1, unitPrice: plain.price),
+                                   new OrderProduct(order: order, product: quoted, quantity: 1, unitPrice: quoted.price)]
+            order.totalAmount = plain.price * (day + 1) + quoted.price
+            orderRepository.save(order)
+        }
+        entityManager.flush()
+        entityManager.clear()
+    }
+
+    def "export: should write one JSON object per order line, oldest first, within the range"() {
+        given:
+        def output = new ByteArrayOutputStream()
+
+        when:
+        orderExportService.export(ExportFormat.NDJSON, START.plusDays(1), START.plusDays(3), false, output)
+        def rows = output.toString("UTF-8").readLines().collect { objectMapper.readValue(it, Map) }
+
+        then:
+        rows.size() == 4
+        rows*.orderDate == [START.plusDays(1), START.plusDays(1), START.plusDays(2), START.plusDays(2)]*.toString()
+        rows.every { it.customerEmail == "export@example.com" && it.price != null && it.quantity > 0 }
+    }
+
+    def "export: should report the price each order was placed at, not the product's current price"() {
+        given:
+        def output = new ByteArrayOutputStream()
+        def keyboard = productRepository.findAll().find { it.title == "Keyboard" }
+        keyboard.price = 99.90
+        productRepository.saveAndFlush(keyboard)
+
+        when:
+        orderExportService.export(ExportFormat.NDJSON, null, null, false, output)
+        def rows = output.toString("UTF-8").readLines().collect { objectMapper.readValue(it, Map) }
+
+        then:
+        rows.findAll { it.productTitle == "Keyboard" }*.price.every { it == 49.90 }
+    }
+
+    def "export: should quote CSV fields containing separators and gzip the stream when asked"() {
+        given:
+        def output = new ByteArrayOutputStream()
+
+        when:
+        orderExportService.export(ExportFormat.CSV, null, null, true, output)
+        def lines = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray())).getText("UTF-8").readLines()
+
+        then:
+        lines.size() == 11
+        lines[0] == "order_id,order_date,customer_id,customer_email,product_id,product_title,price,quantity"
+        lines.count { it.contains('"Cable, 2m ""braided"""') } == 5
+    }
+
+    def "export: should reject unknown formats and empty ranges"() {
+        when:
+        ExportFormat.from("xml")
+
+        then:
+        thrown(ValidationException)
+
+        when:
+        orderExportService.validateRange(START, START)
+
+        then:
+        thrown(ValidationException)
+    }
+}
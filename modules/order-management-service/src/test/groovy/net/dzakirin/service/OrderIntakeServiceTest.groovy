@@ -0,0 +1,71 @@
+package net.dzakirin.service
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.dzakirin.constant.ErrorCodes
+import net.dzakirin.constant.OrderStatus
+import net.dzakirin.dto.request.OrderProductRequest
+import net.dzakirin.dto.request.OrderRequest
+import net.dzakirin.dto.response.OrderBatchItemResponse
+import net.dzakirin.dto.response.OrderBatchResponse
+import net.dzakirin.exception.OrderIntakeFullException
+import net.dzakirin.exception.ValidationException
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+class OrderIntakeServiceTest extends Specification {
+
+    OrderService orderService = Mock()
+
+    def "submit: should return a pending order ID and group-commit queued orders in one batch"() {
+        given:
+        def intakeService = new OrderIntakeService(orderService, new SimpleMeterRegistry(), true, 100, 50, 200, 100)
+        def committedBatches = []
+        orderService.createOrders(_ as List, _ as List) >> { List<OrderRequest> requests, List<UUID> ids ->
+            committedBatches << ids
+            new OrderBatchResponse(results: requests.indices.collect { index ->
+                new OrderBatchItemResponse(index: index, success: index != 1, message: index != 1 ? "ok" : "rejected")
+            })
+        }
+
+        when:
+        def accepted = (1..3).collect { intakeService.submit(orderRequest(1)) }
+        intakeService.start()
+
+        then:
+        accepted*.data*.status == [OrderStatus.PENDING] * 3
+        new PollingConditions(timeout: 5).eventually {
+            assert committedBatches == [accepted*.data*.id]
+            assert !intakeService.getStatus(accepted[0].data.id).isPresent()
+            assert intakeService.getStatus(accepted[1].data.id).get().data.status == OrderStatus.REJECTED
+            assert intakeService.getStatus(accepted[1].data.id).get().message == "rejected"
+        }
+
+        cleanup:
+        intakeService.stop()
+    }
+
+    def "submit: should reject invalid quantities and a full queue without touching the database"() {
+        given:
+        def intakeService = new OrderIntakeService(orderService, new SimpleMeterRegistry(), true, 1, 50, 10, 100)
+
+        when:
+        intakeService.submit(orderRequest(0))
+
+        then:
+        thrown(ValidationException)
+
+        when:
+        intakeService.submit(orderRequest(1))
+        intakeService.submit(orderRequest(1))
+
+        then:
+        def ex = thrown(OrderIntakeFullException)
+        ex.message == ErrorCodes.ORDER_INTAKE_FULL.getMessage()
+        0 * orderService.createOrders(*_)
+    }
+
+    private static OrderRequest orderRequest(int quantity) {
+        new OrderRequest(customerId: UUID.randomUUID(),
+                orderProducts: [new OrderProductRequest(productId: UUID.randomUUID(), quantity: quantity)])
+    }
+}
@@ -0,0 +1,118 @@
+package net.dzakirin.service
+
+import org.springframework.dao.DataAccessResourceFailureException
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.support.SimpleTransactionStatus
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+
+class OrderPartitionServiceTest extends Specification {
+
+    static final Clock CLOCK = Clock.fixed(Instant.parse("2025-03-14T09:26:53Z"), ZoneOffset.UTC)
+    static final String ADVISORY_LOCK = "SELECT pg_try_advisory_xact_lock(?)"
+
+    JdbcTemplate jdbcTemplate = Mock()
+    PlatformTransactionManager transactionManager = Mock()
+
+    def setup() {
+        transactionManager.getTransaction(_) >> { new SimpleTransactionStatus() }
+    }
+
+    def "maintainPartitions: should create the current month and the months ahead for both tables, parent first"() {
+        given:
+        def service = partitionService(2, 0)
+        jdbcTemplate.queryForObject(ADVISORY_LOCK, Boolean, _) >> true
+
+        when:
+        service.maintainPartitions()
+
+        then:
+        1 * jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders_2025_03 PARTITION OF orders FOR VALUES FROM ('2025-03-01') TO ('2025-04-01')")
+
+        then:
+        1 * jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_products_2025_03 PARTITION OF order_products FOR VALUES FROM ('2025-03-01') TO ('2025-04-01')")
+
+        then:
+        1 * jdbcTemplate.execute({ it.contains("orders_2025_04 PARTITION OF orders") })
+        1 * jdbcTemplate.execute({ it.contains("order_products_2025_04 PARTITION OF order_products") })
+        1 * jdbcTemplate.execute({ it.contains("orders_2025_05 PARTITION OF orders FOR VALUES FROM ('2025-05-01') TO ('2025-06-01')") })
+        1 * jdbcTemplate.execute({ it.contains("order_products_2025_05 PARTITION OF order_products") })
+        0 * jdbcTemplate.execute(_)
+        0 * jdbcTemplate.queryForList(*_)
+    }
+
+    def "maintainPartitions: should detach only months past retention, order_products first, and release their order IDs"() {
+        given:
+        def service = partitionService(0, 2)
+        jdbcTemplate.queryForObject(ADVISORY_LOCK, Boolean, _) >> true
+        jdbcTemplate.queryForList(_ as String, String) >> ["orders_default", "orders_2024_12", "orders_2025_01", "orders_2025_02", "orders_2025_03"]
+
+        when:
+        service.maintainPartitions()
+
+        then:
+        1 * jdbcTemplate.execute({ it.startsWith("CREATE TABLE IF NOT EXISTS orders_2025_03") })
+        1 * jdbcTemplate.execute({ it.startsWith("CREATE TABLE IF NOT EXISTS order_products_2025_03") })
+
+        then:
+        1 * jdbcTemplate.execute("ALTER TABLE order_products DETACH PARTITION order_products_2024_12")
+
+        then:
+        1 * jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION orders_2024_12")
+
+        then:
+        1 * jdbcTemplate.update("DELETE FROM order_ids WHERE order_date >= ? AND order_date < ?",
+                LocalDateTime.parse("2024-12-01T00:00"), LocalDateTime.parse("2025-01-01T00:00"))
+        0 * jdbcTemplate.execute({ it.contains("DETACH") })
+        0 * jdbcTemplate.update(*_)
+    }
+
+    def "maintainPartitions: should leave every month attached when retention is off"() {
+        given:
+        def service = partitionService(0, 0)
+        jdbcTemplate.queryForObject(ADVISORY_LOCK, Boolean, _) >> true
+
+        when:
+        service.maintainPartitions()
+
+        then:
+        0 * jdbcTemplate.queryForList(*_)
+        0 * jdbcTemplate.execute({ it.contains("DETACH") })
+    }
+
+    def "maintainPartitions: should skip DDL another replica holds the lock for and carry on after a failed step"() {
+        given:
+        def service = partitionService(2, 0)
+        jdbcTemplate.queryForObject(ADVISORY_LOCK, Boolean, _) >>> [false, true, true]
+
+        when:
+        service.maintainPartitions()
+
+        then:
+        1 * jdbcTemplate.execute({ it.contains("orders_2025_04 PARTITION OF orders") }) >> { throw new DataAccessResourceFailureException("lost connection") }
+        1 * jdbcTemplate.execute({ it.contains("orders_2025_05 PARTITION OF orders") })
+        1 * jdbcTemplate.execute({ it.contains("order_products_2025_05 PARTITION OF order_products") })
+        0 * jdbcTemplate.execute(_)
+        1 * transactionManager.rollback(_)
+    }
+
+    def "maintainPartitions: should do nothing when maintenance is disabled"() {
+        given:
+        def service = new OrderPartitionService(CLOCK, jdbcTemplate, transactionManager, false, 3, 12)
+
+        when:
+        service.maintainPartitions()
+
+        then:
+        0 * jdbcTemplate._
+    }
+
+    private OrderPartitionService partitionService(int monthsAhead, int retentionMonths) {
+        new OrderPartitionService(CLOCK, jdbcTemplate, transactionManager, true, monthsAhead, retentionMonths)
+    }
+}
@@ -1,10 +1,19 @@
 package net.dzakirin.service
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import net.dzakirin.cache.CustomerOrdersCache
+import net.dzakirin.cache.ProductCache
 import net.dzakirin.constant.ErrorCodes
+import net.dzakirin.constant.EventType
+import net.dzakirin.dto.request.OrderBatchRequest
 import net.dzakirin.dto.request.OrderProductRequest
 import net.dzakirin.dto.request.OrderRequest
+import net.dzakirin.common.datasource.ReadReplicaRoutingDataSource
+import net.dzakirin.common.datasource.ReplicationLagGuard
+import net.dzakirin.common.dto.event.OrderEvent
 import net.dzakirin.common.dto.response.BaseListResponse
 import net.dzakirin.common.dto.response.BaseResponse
+import net.dzakirin.dto.response.OrderBatchResponse
 import net.dzakirin.dto.response.OrderResponse
 import net.dzakirin.exception.InsufficientStockException
 import net.dzakirin.exception.ResourceNotFoundException
@@ -19,10 +28,15 @@ import net.dzakirin.repository.OrderRepository
 import net.dzakirin.repository.ProductRepository
 import org.springframework.data.domain.PageImpl
 import org.springframework.data.domain.Pageable
+import org.springframework.transaction.support.TransactionSynchronizationManager
 import spock.lang.Specification
 import spock.lang.Subject
 
+import javax.sql.DataSource
 import java.time.LocalDateTime
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
 
 class OrderServiceTest extends Specification {
 
@@ -30,19 +44,28 @@ class OrderServiceTest extends Specification {
     ProductRepository productRepository = Mock()
     CustomerRepository customerRepository = Mock()
     OrderDataChangedProducer orderDataChangedProducer = Mock()
+    OutboxService outboxService = Mock()
+    CustomerOrdersCache customerOrdersCache = new CustomerOrdersCache(new SimpleMeterRegistry(), 100, 60, 20)
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+    Map<UUID, BigDecimal> lockedPrices = [:] // Prices the stock deduction sees, 10.00 unless set
 
     @Subject
     OrderService orderService
 
     def setup() {
-        orderService = new OrderService(orderRepository, productRepository, customerRepository, orderDataChangedProducer)
+        orderService = new OrderService(orderRepository, productRepository, customerRepository,
+                new ProductCache(productRepository, new SimpleMeterRegistry(), 100, 60), customerOrdersCache,
+                orderDataChangedProducer, outboxService, meterRegistry)
+        productRepository.findPricesByIdIn(_) >> { args ->
+            args[0].collect { UUID id -> productPrice(id, lockedPrices.getOrDefault(id, 10.00)) }
+        }
     }
 
     def "getAllOrders: should return list of orders"() {
         given:
         def orders = [new Order(id: UUID.randomUUID(), orderDate: LocalDateTime.now())]
-        def page = new PageImpl<>(orders)
-        orderRepository.findAll(_ as Pageable) >> page
+        orderRepository.findPageIds(_ as Pageable) >> new PageImpl<>(orders*.id)
+        orderRepository.findAllWithDetailsByIdIn(orders*.id) >> orders
 
         when:
         BaseListResponse<OrderResponse> response = orderService.getAllOrders(Pageable.unpaged())
@@ -61,7 +84,7 @@ class OrderServiceTest extends Specification {
 
         def orderResponse = new OrderResponse(id: orderId, customerId: customerId, orderDate: order.orderDate, orderProducts: [])
 
-        orderRepository.findById(orderId) >> Optional.of(order)
+        orderRepository.findWithDetailsById(orderId) >> Optional.of(order)
 
         // Explicitly mock the static method
         OrderMapper.metaClass.static.toOrderResponse = { Order o -> orderResponse }
@@ -77,7 +100,7 @@ class OrderServiceTest extends Specification {
     def "getOrderById: should throw ResourceNotFoundException if order does not exist"() {
         given:
         def orderId = UUID.randomUUID()
-        orderRepository.findById(orderId) >> Optional.empty()
+        orderRepository.findWithDetailsById(orderId) >> Optional.empty()
 
         when:
         orderService.getOrderById(orderId)
@@ -86,6 +109,30 @@ class OrderServiceTest extends Specification {
         thrown(ResourceNotFoundException)
     }
 
+    def "getOrderById: should read the order from the primary, not the lagging replica"() {
+        given:
+        def orderId = UUID.randomUUID()
+        def order = new Order(id: orderId, orderDate: LocalDateTime.now(), customer: new Customer(id: UUID.randomUUID()), orderProducts: [])
+        def routing = new ReadReplicaRoutingDataSource(Mock(DataSource), Mock(DataSource),
+                new ReplicationLagGuard(Mock(DataSource), Mock(DataSource), 1_000, 1_000, meterRegistry), meterRegistry)
+        String route = null
+
+        when:
+        orderService.getOrderById(orderId)
+
+        then:
+        1 * orderRepository.findWithDetailsById(orderId) >> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true)
+            try {
+                route = routing.determineCurrentLookupKey()
+            } finally {
+                TransactionSynchronizationManager.setCurrentTransactionReadOnly(false)
+            }
+            Optional.of(order)
+        }
+        route == "PINNED"
+    }
+
     def "createOrder: should create order successfully"() {
         given:
         def customerId = UUID.randomUUID()
@@ -101,10 +148,12 @@ class OrderServiceTest extends Specification {
                 .build()
 
         def customer = new Customer(id: customerId)
-        def product = new Product(id: productId, stock: 10)
+        def product = new Product(id: productId, price: 12.50, stock: 10)
+        lockedPrices[productId] = 12.50
 
         customerRepository.findById(customerId) >> Optional.of(customer)
         productRepository.findAllById([productId]) >> [product]
+        productRepository.deductStock(productId, 2) >> 1
         orderRepository.save(_ as Order) >> { Order o -> o.id = UUID.randomUUID(); return o }
 
         when:
@@ -113,6 +162,131 @@ class OrderServiceTest extends Specification {
         then:
         response.success
         response.message == "Order created successfully"
+        response.data.totalAmount == 25.00
+        response.data.orderProducts*.unitPrice == [12.50]
+        1 * outboxService.enqueue(orderDataChangedProducer, _ as String,
+                { OrderEvent event -> event.totalAmount == 25.00 && event.orderProducts*.price == [12.50] },
+                EventType.ORDER_CREATED.getEventName())
+        0 * orderDataChangedProducer.publishEvent(*_)
+
+        and: "every phase is timed, commit only inside a transaction"
+        ["product_fetch", "validation", "stock_deduction", "save", "publish"].every { phaseCount(it) == 1 }
+        meterRegistry.find("order.create.phase").tag("phase", "commit").timer() == null
+    }
+
+    def "createOrder: should evict the customer's cached newest orders"() {
+        given:
+        def customerId = UUID.randomUUID()
+        def productId = UUID.randomUUID()
+        customerRepository.findById(customerId) >> Optional.of(new Customer(id: customerId))
+        productRepository.findAllById([productId]) >> [new Product(id: productId, price: 10.00, stock: 10)]
+        productRepository.deductStock(productId, 1) >> 1
+        orderRepository.save(_ as Order) >> { Order o -> o.id = UUID.randomUUID(); return o }
+        customerOrdersCache.getNewest(customerId) { [] }
+
+        when:
+        orderService.createOrder(new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 1)]))
+        def reloaded = false
+        customerOrdersCache.getNewest(customerId) { reloaded = true; [] }
+
+        then:
+        reloaded
+    }
+
+    def "createOrder: should throw InsufficientStockException if guarded stock update affects no rows"() {
+        given:
+        def customerId = UUID.randomUUID()
+        def productId = UUID.randomUUID()
+        def orderRequest = new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 2)])
+        customerRepository.findById(customerId) >> Optional.of(new Customer(id: customerId))
+        productRepository.findAllById([productId]) >> [new Product(id: productId, price: 10.00, stock: 10)] // Stale read, stock taken by another order
+        productRepository.deductStock(productId, 2) >> 0
+
+        when:
+        orderService.createOrder(orderRequest)
+
+        then:
+        def ex = thrown(InsufficientStockException)
+        ex.message == ErrorCodes.INSUFFICIENT_STOCK.getMessage([productId].toString())
+        0 * outboxService.enqueue(*_)
+    }
+
+    def "createOrder: should deduct summed quantity once when a product appears on several lines"() {
+        given:
+        def customerId = UUID.randomUUID()
+        def productId = UUID.randomUUID()
+        def orderRequest = OrderRequest.builder()
+                .customerId(customerId)
+                .orderProducts([
+                        OrderProductRequest.builder().productId(productId).quantity(2).build(),
+                        OrderProductRequest.builder().productId(productId).quantity(3).build()
+                ])
+                .build()
+        customerRepository.findById(customerId) >> Optional.of(new Customer(id: customerId))
+        productRepository.findAllById(_) >> [new Product(id: productId, price: 10.00, stock: 10)]
+        orderRepository.save(_ as Order) >> { Order o -> o.id = UUID.randomUUID(); return o }
+
+        when:
+        orderService.createOrder(orderRequest)
+
+        then:
+        1 * productRepository.deductStock(productId, 5) >> 1
+    }
+
+    def "createOrder: should never oversell a hot product under concurrent orders"() {
+        given:
+        int initialStock = 500
+        int threads = 16
+        int ordersPerThread = 100
+        def customerId = UUID.randomUUID()
+        def productId = UUID.randomUUID()
+        def stock = new AtomicInteger(initialStock)
+
+        customerRepository.findById(customerId) >> Optional.of(new Customer(id: customerId))
+        // Every reader sees the stock as it was before its own decrement, like a plain SELECT
+        productRepository.findAllById([productId]) >> { [new Product(id: productId, price: 10.00, stock: stock.get())] }
+        // Emulates UPDATE ... SET stock = stock - ? WHERE id = ? AND stock >= ? as a single atomic statement
+        productRepository.deductStock(productId, _ as Integer) >> { UUID id, int quantity ->
+            while (true) {
+                int current = stock.get()
+                if (current < quantity) {
+                    return 0
+                }
+                if (stock.compareAndSet(current, current - quantity)) {
+                    return 1
+                }
+            }
+        }
+        orderRepository.save(_ as Order) >> { Order o -> o.id = UUID.randomUUID(); return o }
+
+        def accepted = new AtomicInteger()
+        def rejected = new AtomicInteger()
+        def pool = Executors.newFixedThreadPool(threads)
+        def start = new CountDownLatch(1)
+
+        when:
+        def futures = (1..threads).collect {
+            pool.submit {
+                start.await()
+                ordersPerThread.times {
+                    try {
+                        orderService.createOrder(new OrderRequest(customerId: customerId,
+                                orderProducts: [new OrderProductRequest(productId: productId, quantity: 1)]))
+                        accepted.incrementAndGet()
+                    } catch (InsufficientStockException ignored) {
+                        rejected.incrementAndGet()
+                    }
+                }
+            }
+        }
+        start.countDown()
+        futures*.get()
+        pool.shutdown()
+
+        then:
+        stock.get() == 0
+        accepted.get() == initialStock
+        rejected.get() == threads * ordersPerThread - initialStock
     }
 
     def "createOrder: should throw ResourceNotFoundException if customer does not exist"() {
@@ -145,7 +319,7 @@ class OrderServiceTest extends Specification {
         def productId = UUID.randomUUID()
         def orderRequest = new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 5)])
         def customer = new Customer(id: customerId)
-        def product = new Product(id: productId, stock: 2)
+        def product = new Product(id: productId, price: 10.00, stock: 2)
         customerRepository.findById(customerId) >> Optional.of(customer)
         productRepository.findAllById([productId]) >> [product]
 
@@ -204,6 +378,133 @@ class OrderServiceTest extends Specification {
         then:
         def ex = thrown(ValidationException)
         ex.message == ErrorCodes.MINIMUM_ORDER_QUANTITY.getMessage([productId2].toString())
+        meterRegistry.find("order.create.phase").timers().isEmpty()
     }
 
+    def "createOrders: should fetch batch data once and report per-item results"() {
+        given:
+        def customerId = UUID.randomUUID()
+        def unknownCustomerId = UUID.randomUUID()
+        def productId = UUID.randomUUID()
+        def customer = new Customer(id: customerId)
+        def product = new Product(id: productId, price: 10.00, stock: 5)
+
+        def batchRequest = new OrderBatchRequest(orders: [
+                new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 3)]),
+                new OrderRequest(customerId: unknownCustomerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 1)]),
+                new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 3)]) // Only 2 left
+        ])
+
+        when:
+        BaseResponse<OrderBatchResponse> response = orderService.createOrders(batchRequest)
+
+        then:
+        1 * productRepository.findAllById([productId] as Set) >> [product]
+        1 * customerRepository.findAllById([customerId, unknownCustomerId] as Set) >> [customer]
+        1 * productRepository.deductStock(productId, 3) >> 1
+        1 * orderRepository.saveAll({ it.size() == 1 }) >> { args -> args[0].each { Order o -> o.id = UUID.randomUUID() }; args[0].toList() }
+        1 * outboxService.enqueue(orderDataChangedProducer, _ as String, _, EventType.ORDER_CREATED.getEventName())
+        0 * customerRepository.findById(_)
+
+        and:
+        response.success
+        response.data.totalOrders == 3
+        response.data.successfulOrders == 1
+        response.data.failedOrders == 2
+        response.data.results*.success == [true, false, false]
+        response.data.results[1].message == ErrorCodes.CUSTOMER_NOT_FOUND.getMessage(unknownCustomerId.toString())
+        response.data.results[2].message == ErrorCodes.INSUFFICIENT_STOCK.getMessage([productId].toString())
+    }
+
+    def "createOrders: should reject orders whose stock was taken concurrently and give back their other reservations"() {
+        given:
+        def customerId = UUID.randomUUID()
+        def hotProductId = UUID.randomUUID()
+        def otherProductId = UUID.randomUUID()
+
+        def batchRequest = new OrderBatchRequest(orders: [
+                new OrderRequest(customerId: customerId, orderProducts: [
+                        new OrderProductRequest(productId: hotProductId, quantity: 1),
+                        new OrderProductRequest(productId: otherProductId, quantity: 2)
+                ]),
+                new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: otherProductId, quantity: 1)])
+        ])
+        productRepository.findAllById(_) >> [new Product(id: hotProductId, price: 10.00, stock: 1), new Product(id: otherProductId, price: 10.00, stock: 10)]
+        customerRepository.findAllById(_) >> [new Customer(id: customerId)]
+        productRepository.deductStock(hotProductId, 1) >> 0
+        productRepository.deductStock(otherProductId, 3) >> 1
+
+        when:
+        BaseResponse<OrderBatchResponse> response = orderService.createOrders(batchRequest)
+
+        then:
+        1 * productRepository.restoreStock(otherProductId, 2)
+        1 * orderRepository.saveAll({ it.size() == 1 }) >> { args -> args[0].each { Order o -> o.id = UUID.randomUUID() }; args[0].toList() }
+        response.data.results*.success == [false, true]
+    }
+
+    def "createOrders: should hand the stock left after a concurrent order to the batch orders that still fit, in arrival order"() {
+        given:
+        def customerId = UUID.randomUUID()
+        def hotProductId = UUID.randomUUID()
+        def otherProductId = UUID.randomUUID()
+        def stock = [(hotProductId): 4, (otherProductId): 10] // 6 of hotProductId were read, 2 were taken since
+
+        def batchRequest = new OrderBatchRequest(orders: [
+                new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: hotProductId, quantity: 2)]),
+                new OrderRequest(customerId: customerId, orderProducts: [
+                        new OrderProductRequest(productId: hotProductId, quantity: 3),
+                        new OrderProductRequest(productId: otherProductId, quantity: 1)
+                ]),
+                new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: hotProductId, quantity: 1)])
+        ])
+        productRepository.findAllById(_) >> [new Product(id: hotProductId, price: 10.00, stock: 6), new Product(id: otherProductId, price: 10.00, stock: 10)]
+        customerRepository.findAllById(_) >> [new Customer(id: customerId)]
+        productRepository.deductStock(_ as UUID, _ as Integer) >> { UUID id, int quantity ->
+            if (stock[id] < quantity) {
+                return 0
+            }
+            stock[id] -= quantity
+            1
+        }
+        productRepository.restoreStock(_ as UUID, _ as Integer) >> { UUID id, int quantity -> stock[id] += quantity; 1 }
+
+        when:
+        BaseResponse<OrderBatchResponse> response = orderService.createOrders(batchRequest)
+
+        then:
+        1 * orderRepository.saveAll({ it.size() == 2 }) >> { args -> args[0].each { Order o -> o.id = UUID.randomUUID() }; args[0].toList() }
+        response.data.results*.success == [true, false, true]
+        response.data.results[1].message == ErrorCodes.INSUFFICIENT_STOCK.getMessage([hotProductId].toString())
+        stock == [(hotProductId): 1, (otherProductId): 10]
+    }
+
+    def "createOrder: should charge the price of the locked product row, not the cached one"() {
+        given:
+        def customerId = UUID.randomUUID()
+        def productId = UUID.randomUUID()
+        def orderRequest = new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 2)])
+        customerRepository.findById(customerId) >> Optional.of(new Customer(id: customerId))
+        productRepository.findAllById([productId]) >> [new Product(id: productId, price: 12.50, stock: 10)]
+        productRepository.deductStock(productId, _ as Integer) >> 1
+        orderRepository.save(_ as Order) >> { Order o -> o.id = UUID.randomUUID(); return o }
+        orderService.createOrder(orderRequest) // Warms the cache at 12.50
+
+        when:
+        lockedPrices[productId] = 15.00
+        BaseResponse<OrderResponse> response = orderService.createOrder(orderRequest)
+
+        then:
+        0 * productRepository.findAllById(_)
+        response.data.orderProducts*.unitPrice == [15.00]
+        response.data.totalAmount == 30.00
+    }
+
+    private static ProductRepository.ProductPrice productPrice(UUID id, BigDecimal price) {
+        [getId: { id }, getPrice: { price }] as ProductRepository.ProductPrice
+    }
+
+    private long phaseCount(String phase) {
+        meterRegistry.get("order.create.phase").tag("phase", phase).timer().count()
+    }
 }
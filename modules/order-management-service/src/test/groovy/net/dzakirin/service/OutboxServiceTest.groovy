@@ -0,0 +1,63 @@
+package net.dzakirin.service
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import net.dzakirin.common.dto.event.EventWrapper
+import net.dzakirin.common.dto.event.OrderEvent
+import net.dzakirin.model.OutboxEvent
+import net.dzakirin.producer.OrderDataChangedProducer
+import net.dzakirin.repository.OutboxRepository
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.Instant
+
+class OutboxServiceTest extends Specification {
+
+    OutboxRepository outboxRepository = Mock()
+    OrderDataChangedProducer producer = Mock()
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+
+    @Subject
+    OutboxService outboxService = new OutboxService(outboxRepository, objectMapper)
+
+    def "enqueue: should store the envelope built by the producer for its topic"() {
+        given:
+        def orderEvent = OrderEvent.builder().id(UUID.randomUUID()).customerEmail("customer@example.com").build()
+        def eventWrapper = EventWrapper.<OrderEvent> builder()
+                .eventId("key")
+                .eventType("ORDER_CREATED")
+                .eventSource("order-management-service")
+                .createdAt(Instant.parse("2025-03-14T09:26:53.589Z"))
+                .payload(orderEvent)
+                .build()
+        OutboxEvent saved = null
+
+        when:
+        outboxService.enqueue(producer, "key", orderEvent, "ORDER_CREATED")
+
+        then:
+        1 * producer.wrapEvent("key", orderEvent, "ORDER_CREATED") >> eventWrapper
+        producer.getTopic() >> "order-data-changed"
+        1 * outboxRepository.save(_ as OutboxEvent) >> { OutboxEvent event -> saved = event }
+        saved.topic == "order-data-changed"
+        saved.eventKey == "key"
+        saved.eventType == "ORDER_CREATED"
+        saved.createdAt != null
+        objectMapper.readValue(saved.payload, EventWrapper).eventId == "key"
+        objectMapper.readValue(saved.payload, EventWrapper).createdAt == eventWrapper.createdAt
+        objectMapper.readValue(saved.payload, EventWrapper).payload.customerEmail == "customer@example.com"
+    }
+
+    def "enqueue: should refuse payloads that cannot be serialized instead of storing a broken event"() {
+        given:
+        def eventWrapper = EventWrapper.builder().eventId("key").payload(new Object()).build()
+
+        when:
+        outboxService.enqueue(producer, "key", OrderEvent.builder().build(), "ORDER_CREATED")
+
+        then:
+        1 * producer.wrapEvent(*_) >> eventWrapper
+        thrown(IllegalStateException)
+        0 * outboxRepository.save(_)
+    }
+}
@@ -0,0 +1,91 @@
+package net.dzakirin.service
+
+import net.dzakirin.exception.ValidationException
+import spock.lang.Specification
+
+class ProductImportServiceTest extends Specification {
+
+    static final String KNOWN_ID = "0195a1b2-c3d4-7e5f-8a9b-0c1d2e3f4a5b"
+
+    def "stageRows: should copy valid rows and report invalid ones with their line numbers"() {
+        given:
+        def csv = """﻿ID,Title,Price,Stock
+${KNOWN_ID},Java Programming Book,39.90,100
+,"Cable, 2m ""braided\""",5,7
+
+,ab,1.00,1
+,Keyboard,-1,1
+,Mouse,abc,1
+,Monitor,199.99,
+,Desk,99999999.995,1
+not-a-uuid,Chair,10,1
+,Lamp,10
+,"Poster
+with a line break",12.50,3
+"""
+        def staging = new StringWriter()
+        def report = new ProductImportService.ImportReport(10)
+
+        when:
+        ProductImportService.stageRows(new StringReader(csv), staging, report)
+        def staged = staging.toString().readLines()
+
+        then:
+        staged.size() == 4
+        staged[0] == "2,${KNOWN_ID},\"Java Programming Book\",39.90,100"
+        staged[1] ==~ /3,[0-9a-f-]{36},"Cable, 2m ""braided""",5,7/
+        staged[2] ==~ /12,[0-9a-f-]{36},"Poster/
+        staged[3] == "with a line break\",12.50,3"
+
+        report.totalRows == 10
+        report.stagedRows == 3
+        report.rejectedRows == 7
+        report.rejections*.lineNumber == [5, 6, 7, 8, 9, 10, 11]
+        report.rejections*.message == [
+                "Product title must be between 3 and 255 characters",
+                "Product price must be greater than or equal to zero",
+                "Invalid price: abc",
+                "Missing stock",
+                "Invalid price: 99999999.995",
+                "Invalid id: not-a-uuid",
+                "Expected 4 columns but found 3",
+        ]
+    }
+
+    def "stageRows: should count every rejected row but only report the first ones"() {
+        given:
+        def csv = "title,price,stock\n" + (1..5).collect { "x,1,1\n" }.join()
+        def report = new ProductImportService.ImportReport(2)
+
+        when:
+        ProductImportService.stageRows(new StringReader(csv), new StringWriter(), report)
+
+        then:
+        report.rejectedRows == 5
+        report.rejections*.lineNumber == [2, 3]
+    }
+
+    def "stageRows: should fail the whole import when the header is not a product header"() {
+        when:
+        ProductImportService.stageRows(new StringReader(csv), new StringWriter(), new ProductImportService.ImportReport(10))
+
+        then:
+        def e = thrown(ValidationException)
+        e.message.startsWith("CSV header must name the columns title, price and stock")
+
+        where:
+        csv << ["", "title,price\n", "title,price,stock,colour\n", "title,price,stock,title\n"]
+    }
+
+    def "stageRows: should fail on an unclosed quote instead of reading the rest of the file into one field"() {
+        given:
+        def csv = "title,price,stock\n\"Unclosed,1,1\n" + "x" * ProductImportService.MAX_RECORD_LENGTH
+
+        when:
+        ProductImportService.stageRows(new StringReader(csv), new StringWriter(), new ProductImportService.ImportReport(10))
+
+        then:
+        def e = thrown(ValidationException)
+        e.message.startsWith("CSV record starting at line 2 is longer than")
+    }
+}
@@ -0,0 +1,67 @@
+package net.dzakirin.service
+
+import net.dzakirin.cache.ProductCache
+import net.dzakirin.exception.ProductSearchIndexLoadingException
+import net.dzakirin.exception.ValidationException
+import net.dzakirin.model.Product
+import net.dzakirin.search.ProductSearchIndex
+import spock.lang.Specification
+import spock.lang.Subject
+
+class ProductSearchServiceTest extends Specification {
+
+    ProductSearchIndex productSearchIndex = Mock()
+    ProductCache productCache = Mock()
+
+    @Subject
+    ProductSearchService productSearchService = new ProductSearchService(productSearchIndex, productCache)
+
+    def "searchProducts: should search with the trimmed query and keep the index ranking, skipping deleted products"() {
+        given:
+        def book = new Product(id: UUID.randomUUID(), title: "Java Programming Book", price: 10.00, stock: 1)
+        def coffee = new Product(id: UUID.randomUUID(), title: "Coffee Beans, Java Blend", price: 5.00, stock: 1)
+        def deletedId = UUID.randomUUID()
+        productSearchIndex.isReady() >> true
+
+        when:
+        def response = productSearchService.searchProducts("  jav ", 10)
+
+        then:
+        1 * productSearchIndex.search("jav", 10) >> [coffee.id, deletedId, book.id]
+        1 * productCache.getAll([coffee.id, deletedId, book.id]) >> [(book.id): book, (coffee.id): coffee]
+        response.data*.title == ["Coffee Beans, Java Blend", "Java Programming Book"]
+        response.totalRecords == 2
+    }
+
+    def "searchProducts: should reject queries that are too short or too long and invalid sizes"() {
+        given:
+        productSearchIndex.isReady() >> true
+
+        when:
+        productSearchService.searchProducts(query, size)
+
+        then:
+        thrown(ValidationException)
+        0 * productSearchIndex.search(*_)
+
+        where:
+        query      | size
+        null       | 10
+        " j "      | 10
+        "x" * 101  | 10
+        "java"     | 0
+        "java"     | 101
+    }
+
+    def "searchProducts: should fail with service unavailable while the index is loading"() {
+        given:
+        productSearchIndex.isReady() >> false
+
+        when:
+        productSearchService.searchProducts("java", 10)
+
+        then:
+        thrown(ProductSearchIndexLoadingException)
+        0 * productSearchIndex.search(*_)
+    }
+}
@@ -0,0 +1,294 @@
+package net.dzakirin.service
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import jakarta.persistence.EntityManager
+import net.dzakirin.cache.CustomerOrdersCache
+import net.dzakirin.cache.ProductCache
+import jakarta.persistence.EntityManagerFactory
+import net.dzakirin.common.dto.event.OrderEvent
+import net.dzakirin.common.dto.event.OrderProductEvent
+import net.dzakirin.constant.SalesReportGrouping
+import net.dzakirin.dto.request.OrderProductRequest
+import net.dzakirin.dto.request.OrderRequest
+import net.dzakirin.exception.ResourceNotFoundException
+import net.dzakirin.exception.ValidationException
+import net.dzakirin.model.Customer
+import net.dzakirin.model.Order
+import net.dzakirin.model.OrderProduct
+import net.dzakirin.model.Product
+import net.dzakirin.model.ProductDailySales
+import net.dzakirin.producer.OrderDataChangedProducer
+import net.dzakirin.producer.ProductCacheInvalidationProducer
+import net.dzakirin.repository.CustomerDailySalesRepository
+import net.dzakirin.repository.CustomerRepository
+import net.dzakirin.repository.OrderRepository
+import net.dzakirin.repository.ProductDailySalesRepository
+import net.dzakirin.repository.ProductRepository
+import net.dzakirin.search.ProductSearchIndex
+import net.dzakirin.trending.TrendingProductsTracker
+import org.hibernate.SessionFactory
+import org.hibernate.stat.Statistics
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.data.domain.PageRequest
+import org.springframework.data.domain.Sort
+import org.springframework.test.context.ActiveProfiles
+import spock.lang.Specification
+
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+/**
+ * Guards the number of SQL statements each read endpoint issues, so N+1 lazy loading can't creep back in.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class QueryCountTest extends Specification {
+
+    @Autowired
+    OrderRepository orderRepository
+    @Autowired
+    ProductRepository productRepository
+    @Autowired
+    CustomerRepository customerRepository
+    @Autowired
+    ProductDailySalesRepository productDailySalesRepository
+    @Autowired
+    CustomerDailySalesRepository customerDailySalesRepository
+    @Autowired
+    EntityManager entityManager
+    @Autowired
+    EntityManagerFactory entityManagerFactory
+
+    OrderService orderService
+    ProductService productService
+    CustomerService customerService
+    SalesReportService salesReportService
+    TrendingProductsTracker trendingProductsTracker = new TrendingProductsTracker(60, 100, 4, 4096)
+
+    def setup() {
+        def productCache = new ProductCache(productRepository, new SimpleMeterRegistry(), 100, 60)
+        orderService = new OrderService(orderRepository, productRepository, customerRepository, productCache,
+                new CustomerOrdersCache(new SimpleMeterRegistry(), 100, 60, 20), Mock(OrderDataChangedProducer), Mock(OutboxService), new SimpleMeterRegistry())
+        productService = new ProductService(productRepository, productCache, Mock(OutboxService), Mock(ProductCacheInvalidationProducer),
+                trendingProductsTracker, Mock(ProductSearchIndex))
+        customerService = new CustomerService(customerRepository)
+        salesReportService = new SalesReportService(productDailySalesRepository, customerDailySalesRepository, 366)
+
+        def products = (1..10).collect { productRepository.save(new Product(title: "Product $it", price: 10.0, stock: 100)) }
+        (1..10).each { customerIndex ->
+            def customer = customerRepository.save(new Customer(firstName: "First", lastName: "Last", email: "customer${customerIndex}@example.com"))
+            (1..5).each { orderIndex ->
+                def order = new Order(customer: customer, orderDate: LocalDateTime.now().minusMinutes(orderIndex))
+                order.orderProducts = (0..2).collect { new OrderProduct(order: order, product: products[(customerIndex + orderIndex + it) % 10], quantity: 1, unitPrice: 10.0) }
+                order.totalAmount = 30.0
+                orderRepository.save(order)
+            }
+        }
+        entityManager.flush()
+        entityManager.clear()
+    }
+
+    def "getAllOrders: should use a constant number of statements for a page of 50 orders"() {
+        when:
+        def response = countStatements { orderService.getAllOrders(PageRequest.of(0, 50, Sort.by("orderDate").descending())) }
+
+        then:
+        response.result.data.size() == 50
+        response.result.data.every { it.customerId != null && it.orderProducts.size() == 3 && it.orderProducts.every { line -> line.productTitle } }
+        response.statements == 3 // page of IDs, count, orders with customer, lines and products
+    }
+
+    def "getOrderById: should load an order with all associations in one statement"() {
+        given:
+        def orderId = orderRepository.findAll().first().id
+        entityManager.clear()
+
+        when:
+        def response = countStatements { orderService.getOrderById(orderId) }
+
+        then:
+        response.result.data.orderProducts.size() == 3
+        response.statements == 1
+    }
+
+    def "getAllProducts and getAllCustomers: should use one page query and one count query"() {
+        expect:
+        countStatements { productService.getAllProducts(PageRequest.of(0, 5, Sort.by("title"))) }.statements == 2
+        countStatements { customerService.getAllCustomers(PageRequest.of(0, 5, Sort.by("email"))) }.statements == 2
+    }
+
+    def "getOrdersAfter: should walk all orders newest first with two statements per page and no count query"() {
+        given:
+        def seen = []
+        String cursor = null
+        def statementsPerPage = []
+
+        when:
+        do {
+            def page = countStatements { orderService.getOrdersAfter(cursor, 20) }
+            seen.addAll(page.result.data)
+            statementsPerPage << page.statements
+            cursor = page.result.nextCursor
+        } while (cursor != null)
+
+        then:
+        seen.size() == 50
+        seen*.id.toSet().size() == 50
+        seen*.orderDate == seen*.orderDate.sort(false).reverse()
+        statementsPerPage == [2, 2, 2] // page of IDs, orders with customer, lines and products
+    }
+
+    def "getProductsAfter and getCustomersAfter: should page with one statement each and end with a null cursor"() {
+        when:
+        def firstProducts = countStatements { productService.getProductsAfter(null, 6) }
+        def lastProducts = productService.getProductsAfter(firstProducts.result.nextCursor, 6)
+        def firstCustomers = countStatements { customerService.getCustomersAfter(null, 6) }
+        def lastCustomers = customerService.getCustomersAfter(firstCustomers.result.nextCursor, 6)
+
+        then:
+        firstProducts.statements == 1
+        firstCustomers.statements == 1
+        (firstProducts.result.data + lastProducts.data)*.id.toSet().size() == 10
+        (firstCustomers.result.data + lastCustomers.data)*.email == (1..10).collect { "customer${it}@example.com" }.sort().reverse()
+        lastProducts.nextCursor == null
+        lastCustomers.nextCursor == null
+    }
+
+    def "getOrdersAfter: should reject a cursor that was not issued by the service"() {
+        when:
+        orderService.getOrdersAfter("not-a-cursor", 5)
+
+        then:
+        thrown(ValidationException)
+    }
+
+    def "getCustomerOrders: should page one customer's orders newest first and serve the first page from the cache"() {
+        given:
+        def customerId = customerRepository.findAll().first().id
+
+        when:
+        def first = countStatements { orderService.getCustomerOrders(customerId, null, 3) }
+        def cached = countStatements { orderService.getCustomerOrders(customerId, null, 3) }
+        def second = countStatements { orderService.getCustomerOrders(customerId, first.result.nextCursor, 3) }
+        def orders = first.result.data + second.result.data
+
+        then:
+        first.statements == 2 // page of IDs from the covering index, orders with customer, lines and products
+        cached.statements == 0
+        cached.result.data*.id == first.result.data*.id
+        second.statements == 2
+        second.result.nextCursor == null
+        orders.size() == 5
+        orders.every { it.customerId == customerId }
+        orders*.orderDate == orders*.orderDate.sort(false).reverse()
+    }
+
+    def "getCustomerOrders: should report an unknown customer"() {
+        when:
+        orderService.getCustomerOrders(UUID.randomUUID(), null, 3)
+
+        then:
+        thrown(ResourceNotFoundException)
+    }
+
+    def "createOrder: should take products from the cache and skip the product query on later orders"() {
+        given:
+        def customerId = customerRepository.findAll().first().id
+        def productId = productRepository.findAll().first().id
+        def orderRequest = new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 1)])
+
+        when:
+        def first = countStatements { orderService.createOrder(orderRequest); entityManager.flush() }
+        def second = countStatements { orderService.createOrder(orderRequest); entityManager.flush() }
+
+        then:
+        first.statements - second.statements == 1
+        productRepository.findById(productId).get().stock == 98
+    }
+
+    def "createOrder: should charge the current price when the cached product is stale"() {
+        given:
+        def customerId = customerRepository.findAll().first().id
+        def productId = productRepository.findAll().first().id
+        def orderRequest = new OrderRequest(customerId: customerId, orderProducts: [new OrderProductRequest(productId: productId, quantity: 2)])
+        orderService.createOrder(orderRequest) // Warms the cache at 10.00
+
+        when: "the price changes without going through ProductService, so the cache is not invalidated"
+        entityManager.createQuery("UPDATE Product p SET p.price = 12.50 WHERE p.id = :id").setParameter("id", productId).executeUpdate()
+        def response = orderService.createOrder(orderRequest)
+        entityManager.flush()
+        entityManager.clear()
+
+        then:
+        response.data.orderProducts*.unitPrice == [12.50]
+        response.data.totalAmount == 25.00
+        orderRepository.findWithDetailsById(response.data.id).get().totalAmount == 25.00
+    }
+
+    def "getTrendingProducts: should rank recent sales and load all titles in one statement"() {
+        given:
+        def products = productRepository.findAll()
+        trendingProductsTracker.record(OrderEvent.builder()
+                .orderDate(LocalDateTime.now())
+                .orderProducts([OrderProductEvent.builder().productId(products[0].id).quantity(1).build(),
+                                OrderProductEvent.builder().productId(products[1].id).quantity(4).build()])
+                .build())
+
+        when:
+        def response = countStatements { productService.getTrendingProducts(5, 10) }
+
+        then:
+        response.statements == 1
+        response.result.data.collect { [it.productTitle, it.units] } == [[products[1].title, 4L], [products[0].title, 1L]]
+
+        when:
+        productService.getTrendingProducts(61, 10)
+
+        then:
+        thrown(ValidationException)
+    }
+
+    def "getSales: should read a day range from the rollups in one statement without touching the order tables"() {
+        given:
+        def today = LocalDate.now()
+        def productIds = productRepository.findAll()*.id
+        (0..2).each { day ->
+            productIds.each { productId ->
+                productDailySalesRepository.save(new ProductDailySales(salesDate: today.minusDays(day), productId: productId,
+                        units: day + 1, revenue: 10.0 * (day + 1), orderCount: 1))
+            }
+        }
+        entityManager.flush()
+
+        when:
+        def response = countStatements { salesReportService.getSales(SalesReportGrouping.PRODUCT, today.minusDays(1), today) }
+
+        then:
+        response.statements == 1
+        response.result.data.size() == 20
+        response.result.data*.salesDate.toSet() == [today.minusDays(1), today] as Set
+        entityManagerFactory.unwrap(SessionFactory).statistics.getEntityStatistics(Order.name).loadCount == 0
+    }
+
+    def "getSales: should reject inverted and overlong ranges"() {
+        when:
+        salesReportService.getSales(SalesReportGrouping.CUSTOMER, from, to)
+
+        then:
+        thrown(ValidationException)
+
+        where:
+        from                    | to
+        LocalDate.of(2025, 2, 1) | LocalDate.of(2025, 1, 1)
+        LocalDate.of(2024, 1, 1) | LocalDate.of(2025, 1, 1)
+    }
+
+    private Map countStatements(Closure action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory).statistics
+        entityManager.clear()
+        statistics.clear()
+        def result = action()
+        [result: result, statements: statistics.prepareStatementCount]
+    }
+}
@@ -0,0 +1,58 @@
+package net.dzakirin.service
+
+import net.dzakirin.common.dto.event.OrderEvent
+import net.dzakirin.common.dto.event.OrderProductEvent
+import net.dzakirin.repository.CustomerDailySalesRepository
+import net.dzakirin.repository.ProductDailySalesRepository
+import net.dzakirin.repository.SalesRollupOrderRepository
+import spock.lang.Specification
+import spock.lang.Subject
+
+import java.time.LocalDate
+import java.time.LocalDateTime
+
+class SalesRollupServiceTest extends Specification {
+
+    SalesRollupOrderRepository salesRollupOrderRepository = Mock()
+    ProductDailySalesRepository productDailySalesRepository = Mock()
+    CustomerDailySalesRepository customerDailySalesRepository = Mock()
+
+    @Subject
+    SalesRollupService salesRollupService = new SalesRollupService(salesRollupOrderRepository, productDailySalesRepository, customerDailySalesRepository)
+
+    def hotProductId = UUID.randomUUID()
+    def otherProductId = UUID.randomUUID()
+    def orderEvent = OrderEvent.builder()
+            .id(UUID.randomUUID())
+            .customerId(UUID.randomUUID())
+            .orderDate(LocalDateTime.of(2025, 3, 14, 23, 59))
+            .orderProducts([
+                    OrderProductEvent.builder().productId(hotProductId).quantity(2).price(10.00).build(),
+                    OrderProductEvent.builder().productId(otherProductId).quantity(1).price(4.50).build(),
+                    OrderProductEvent.builder().productId(hotProductId).quantity(1).price(10.00).build()
+            ])
+            .build()
+
+    def "applyOrderCreated: should add each product once per order and the whole order to its customer's day"() {
+        when:
+        def applied = salesRollupService.applyOrderCreated(orderEvent)
+
+        then:
+        applied
+        1 * salesRollupOrderRepository.markApplied(orderEvent.id) >> 1
+        1 * productDailySalesRepository.addSales(LocalDate.of(2025, 3, 14), hotProductId, 3, 30.00)
+        1 * productDailySalesRepository.addSales(LocalDate.of(2025, 3, 14), otherProductId, 1, 4.50)
+        1 * customerDailySalesRepository.addSales(LocalDate.of(2025, 3, 14), orderEvent.customerId, 4, 34.50)
+    }
+
+    def "applyOrderCreated: should skip an order that is already in the rollups"() {
+        when:
+        def applied = salesRollupService.applyOrderCreated(orderEvent)
+
+        then:
+        !applied
+        1 * salesRollupOrderRepository.markApplied(orderEvent.id) >> 0
+        0 * productDailySalesRepository._
+        0 * customerDailySalesRepository._
+    }
+}
@@ -0,0 +1,126 @@
+package net.dzakirin.trending
+
+import net.dzakirin.common.dto.event.OrderEvent
+import net.dzakirin.common.dto.event.OrderProductEvent
+import spock.lang.Specification
+
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+
+class TrendingProductsTrackerTest extends Specification {
+
+    MutableClock clock = new MutableClock(Instant.parse("2025-03-14T10:00:30Z"))
+    TrendingProductsTracker tracker = new TrendingProductsTracker(clock, 60, 100, 4, 4096)
+
+    def "top: should rank the heaviest sellers first among many products, never undercounting"() {
+        given:
+        def random = new Random(42)
+        def products = (1..100_000).collect { new UUID(random.nextLong(), random.nextLong()) }
+        def sold = [:].withDefault { 0L }
+        def zipf = zipfSampler(products.size(), 1.1, random)
+
+        when:
+        300_000.times {
+            def productId = products[zipf()]
+            sold[productId] += 1
+            tracker.record(order(productId, 1, now()))
+        }
+        def top = tracker.top(5, 10)
+        def expected = sold.entrySet().sort { -it.value }.take(10)
+
+        then:
+        top*.productId == expected*.key
+        top.every { it.units >= sold[it.productId] && it.units <= sold[it.productId] * 1.05 }
+    }
+
+    def "top: should only count the minutes inside the window"() {
+        given:
+        def old = UUID.randomUUID()
+        def recent = UUID.randomUUID()
+        tracker.record(order(old, 50, now()))
+        clock.advance(Duration.ofMinutes(10))
+        tracker.record(order(recent, 5, now()))
+
+        expect:
+        tracker.top(5, 10)*.productId == [recent]
+        tracker.top(60, 10).collect { [it.productId, it.units] } == [[old, 50L], [recent, 5L]]
+
+        when:
+        clock.advance(Duration.ofMinutes(55))
+
+        then:
+        tracker.top(60, 10)*.productId == [recent]
+    }
+
+    def "record: should ignore orders older than the longest window and count future ones as now"() {
+        given:
+        def productId = UUID.randomUUID()
+
+        when:
+        tracker.record(order(productId, 7, now().minusMinutes(61)))
+        tracker.record(order(productId, 3, now().plusMinutes(5)))
+
+        then:
+        tracker.top(1, 10).collect { [it.productId, it.units] } == [[productId, 3L]]
+    }
+
+    private LocalDateTime now() {
+        LocalDateTime.ofInstant(clock.instant(), clock.zone)
+    }
+
+    private static OrderEvent order(UUID productId, int quantity, LocalDateTime orderDate) {
+        OrderEvent.builder()
+                .id(UUID.randomUUID())
+                .orderDate(orderDate)
+                .orderProducts([OrderProductEvent.builder().productId(productId).quantity(quantity).build()])
+                .build()
+    }
+
+    /**
+     * Index sampler with P(i) proportional to 1 / (i + 1)^exponent, by binary search over the cumulative weights.
+     */
+    private static Closure<Integer> zipfSampler(int size, double exponent, Random random) {
+        double[] cumulative = new double[size]
+        double total = 0
+        for (int i = 0; i < size; i++) {
+            total += 1 / Math.pow(i + 1, exponent)
+            cumulative[i] = total
+        }
+        return {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total)
+            index >= 0 ? index : -index - 1
+        }
+    }
+
+    static class MutableClock extends Clock {
+
+        Instant now
+
+        MutableClock(Instant now) {
+            this.now = now
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration)
+        }
+
+        @Override
+        ZoneId getZone() {
+            ZoneOffset.UTC
+        }
+
+        @Override
+        Clock withZone(ZoneId zone) {
+            this
+        }
+
+        @Override
+        Instant instant() {
+            now
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package net.dzakirin.utils
+
+import spock.lang.Specification
+
+class ContentEncodingUtilsTest extends Specification {
+
+    def "acceptsGzip: should honour q-values of the Accept-Encoding header"() {
+        expect:
+        ContentEncodingUtils.acceptsGzip(acceptEncoding) == expected
+
+        where:
+        acceptEncoding               | expected
+        null                         | false
+        ""                           | false
+        "identity"                   | false
+        "gzip"                       | true
+        "GZIP"                       | true
+        "x-gzip"                     | true
+        "deflate, gzip;q=0.5"        | true
+        "gzip;q=0"                   | false
+        "gzip; q=0.000"              | false
+        "gzip;q=abc"                 | false
+        "*"                          | true
+        "*;q=0"                      | false
+        "gzip;q=0, *"                | false
+        "*, gzip;q=0"                | false
+        "br;q=1.0, *;q=0.1"          | true
+        "gzipped"                    | false
+    }
+}